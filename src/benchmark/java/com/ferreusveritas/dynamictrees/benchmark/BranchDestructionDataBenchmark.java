@@ -0,0 +1,127 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionCodec;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.property.IExtendedBlockState;
+
+/**
+ * Encodes the destruction data of a harvested tree to NBT and decodes it again.  The NBT form is what's saved with a
+ * falling tree.  The binary form from the {@link BranchDestructionCodec} is what's sent to the clients whenever a
+ * tree falls.  See {@link WireSizeReport} for the sizes of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BranchDestructionDataBenchmark {
+
+	@Param({"oak", "darkoak", "megajungle"})
+	public String speciesName;
+
+	@Param({"8"})
+	public int radius;
+
+	private BranchDestructionData harvested;
+	private Map<BlockPos, IExtendedBlockState> branches;
+	private Map<BlockPos, IBlockState> leaves;
+	private List<BlockPos> ends;
+	private NBTTagCompound encoded;
+	private ByteBuf binary;
+	private ByteBuf buffer;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		HeadlessWorld world = TreeFixtures.createWorldWithTree(speciesName, radius);
+		harvested = TreeHelper.getBranch(world.getBlockState(TreeFixtures.TREEPOS)).destroyBranchFromNode(world, TreeFixtures.TREEPOS, EnumFacing.DOWN, true);
+
+		//Unpack it again to get the maps the constructor takes
+		branches = new HashMap<>();
+		for(int i = 0; i < harvested.getNumBranches(); i++) {
+			branches.put(harvested.getBranchRelPos(i), harvested.getBranchBlockState(i));
+		}
+		leaves = new HashMap<>();
+		for(int i = 0; i < harvested.getNumLeaves(); i++) {
+			leaves.put(harvested.getLeavesRelPos(i), harvested.getLeavesBlockState(i));
+		}
+		ends = new ArrayList<>();
+		for(int i = 0; i < harvested.getNumEndpoints(); i++) {
+			ends.add(harvested.getEndPointRelPos(i));
+		}
+
+		encoded = harvested.writeToNBT(new NBTTagCompound());
+		binary = Unpooled.buffer();
+		BranchDestructionCodec.write(binary, harvested);
+		buffer = Unpooled.buffer(binary.capacity());
+	}
+
+	/** The branch map is copied since the constructor takes the origin out of it */
+	@Benchmark
+	public NBTTagCompound encode() {
+		BranchDestructionData data = new BranchDestructionData(harvested.species, new HashMap<>(branches), leaves, harvested.leavesDrops, ends, harvested.woodVolume, harvested.cutPos, harvested.cutDir, harvested.toolDir, harvested.trunkHeight);
+		return data.writeToNBT(new NBTTagCompound());
+	}
+
+	@Benchmark
+	public void decode(Blackhole blackhole) {
+		BranchDestructionData data = new BranchDestructionData(encoded);
+		for(int i = 0; i < data.getNumBranches(); i++) {
+			blackhole.consume(data.getBranchRelPos(i));
+			blackhole.consume(data.getBranchBlockState(i));
+		}
+		for(int i = 0; i < data.getNumLeaves(); i++) {
+			blackhole.consume(data.getLeavesRelPos(i));
+			blackhole.consume(data.getLeavesBlockState(i));
+		}
+	}
+
+	@Benchmark
+	public ByteBuf encodeBinary() {
+		buffer.clear();
+		BranchDestructionCodec.write(buffer, harvested);
+		return buffer;
+	}
+
+	@Benchmark
+	public void decodeBinary(Blackhole blackhole) {
+		BranchDestructionData data = BranchDestructionCodec.read(binary.duplicate());
+		for(int i = 0; i < data.getNumBranches(); i++) {
+			blackhole.consume(data.getBranchRelPos(i));
+			blackhole.consume(data.getBranchBlockState(i));
+		}
+		for(int i = 0; i < data.getNumLeaves(); i++) {
+			blackhole.consume(data.getLeavesRelPos(i));
+			blackhole.consume(data.getLeavesBlockState(i));
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.ModConstants;
+import com.ferreusveritas.dynamictrees.api.TreeRegistry;
+import com.ferreusveritas.dynamictrees.api.cells.ICell;
+import com.ferreusveritas.dynamictrees.api.cells.ICellKit;
+import com.ferreusveritas.dynamictrees.api.cells.ICellSolver;
+
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * Solves the hydration of a batch of leaves cells with each of the stock cell kits.  The neighborhoods are random
+ * mixes of leaves, branches and empty cells.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CellSolverBenchmark {
+
+	private static final int BATCH = 1024;
+
+	@Param({"deciduous", "conifer", "acacia", "darkoak"})
+	public String kitName;
+
+	private ICellSolver solver;
+	private ICell[][] neighborhoods;
+
+	@Setup
+	public void setup() {
+		HeadlessBootstrap.init();
+		ICellKit kit = TreeRegistry.findCellKit(new ResourceLocation(ModConstants.MODID, kitName));
+		solver = kit.getCellSolver();
+
+		Random rand = new Random(TreeFixtures.SEED);
+		neighborhoods = new ICell[BATCH][6];
+		for(ICell[] cells: neighborhoods) {
+			for(int d = 0; d < 6; d++) {
+				switch(rand.nextInt(8)) {
+					case 0: cells[d] = kit.getCellForBranch(1, 0); break;
+					case 1: case 2: cells[d] = kit.getCellForLeaves(0); break;
+					default: cells[d] = kit.getCellForLeaves(1 + rand.nextInt(kit.getDefaultHydration())); break;
+				}
+			}
+		}
+	}
+
+	/** Solves the whole batch.  Divide by the batch size for the cost of one solve */
+	@Benchmark
+	public int solveBatch() {
+		int sum = 0;
+		for(ICell[] cells: neighborhoods) {
+			sum += solver.solve(cells);
+		}
+		return sum;
+	}
+
+}
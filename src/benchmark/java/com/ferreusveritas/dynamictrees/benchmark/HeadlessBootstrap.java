@@ -0,0 +1,61 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.logging.log4j.LogManager;
+
+import com.ferreusveritas.dynamictrees.DynamicTrees;
+import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.ModConstants;
+import com.ferreusveritas.dynamictrees.ModItems;
+import com.ferreusveritas.dynamictrees.ModTileEntities;
+import com.ferreusveritas.dynamictrees.ModTrees;
+import com.ferreusveritas.dynamictrees.blocks.LeavesPropertiesJson;
+import com.ferreusveritas.dynamictrees.cells.CellKits;
+import com.ferreusveritas.dynamictrees.growthlogic.GrowthLogicKits;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
+
+import net.minecraft.init.Bootstrap;
+
+/**
+ * Sets up just enough of Minecraft and the mod to run the tree logic outside of a client or server.  Mirrors what
+ * {@link com.ferreusveritas.dynamictrees.proxy.CommonProxy} does during preInit and init minus anything that needs
+ * Forge's mod loader.  The config is loaded from a throwaway file so every setting is at it's default.
+ */
+public class HeadlessBootstrap {
+
+	private static boolean initialized = false;
+
+	public static synchronized void init() {
+		if(initialized) {
+			return;
+		}
+		initialized = true;
+
+		Bootstrap.register();//Vanilla blocks, items and biomes
+		DynamicTrees.log = LogManager.getLogger(ModConstants.MODID);
+
+		try {
+			File configDir = Files.createTempDirectory("dtbenchmark").toFile();
+			configDir.deleteOnExit();
+			ModConfigs.preInit(configDir, new File(configDir, ModConstants.MODID + ".cfg"));
+		} catch (IOException e) {
+			throw new RuntimeException("Could not create a config directory", e);
+		}
+
+		CellKits.preInit();
+		GrowthLogicKits.preInit();
+		TreeGenerator.preInit();
+		Species.newRegistry(null);//Normally created by the NewRegistry event
+		ModTileEntities.preInit();
+		ModBlocks.preInit();
+		ModItems.preInit();
+		ModTrees.preInit();
+		LeavesPropertiesJson.resolveAll();
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * A 16x16x16 block section.  Every block is an index into a palette of the block states used in the section.  The
+ * indices are bytes until there are more than 256 states in the palette and then chars.  Unlike the vanilla sections
+ * there's no light data at all.
+ *
+ * States are never dropped from the palette.  A section only ever sees a few dozen different states in practice.
+ */
+public class HeadlessSection {
+
+	public static final int SIZE = 16 * 16 * 16;
+
+	private IBlockState[] palette = new IBlockState[16];
+	private int paletteSize;
+	private final Map<IBlockState, Integer> paletteIndex = new IdentityHashMap<>();
+
+	private byte[] smallIndices = new byte[SIZE];
+	private char[] largeIndices;//Replaces the small indices once the palette outgrows them
+
+	private int tickingBlocks;//The number of blocks that tick randomly
+
+	/**
+	 * @param layers The initial state of each of the 16 layers from the bottom up
+	 */
+	public HeadlessSection(IBlockState[] layers) {
+		for(int y = 0; y < 16; y++) {
+			int index = getPaletteIndex(layers[y]);
+			Arrays.fill(smallIndices, y << 8, (y + 1) << 8, (byte) index);
+			if(layers[y].getBlock().getTickRandomly()) {
+				tickingBlocks += 256;
+			}
+		}
+	}
+
+	private HeadlessSection(HeadlessSection other) {
+		palette = other.palette.clone();
+		paletteSize = other.paletteSize;
+		paletteIndex.putAll(other.paletteIndex);
+		smallIndices = other.smallIndices != null ? other.smallIndices.clone() : null;
+		largeIndices = other.largeIndices != null ? other.largeIndices.clone() : null;
+		tickingBlocks = other.tickingBlocks;
+	}
+
+	public HeadlessSection copy() {
+		return new HeadlessSection(this);
+	}
+
+	private static int index(int x, int y, int z) {
+		return (y << 8) | (z << 4) | x;
+	}
+
+	/** Coordinates are within the section(0 - 15) */
+	public IBlockState get(int x, int y, int z) {
+		int i = index(x, y, z);
+		return palette[largeIndices != null ? largeIndices[i] : smallIndices[i] & 0xFF];
+	}
+
+	/**
+	 * Coordinates are within the section(0 - 15)
+	 *
+	 * @return The state that was replaced
+	 */
+	public IBlockState set(int x, int y, int z, IBlockState state) {
+		int i = index(x, y, z);
+		int index = getPaletteIndex(state);
+		IBlockState old;
+		if(largeIndices != null) {
+			old = palette[largeIndices[i]];
+			largeIndices[i] = (char) index;
+		} else {
+			old = palette[smallIndices[i] & 0xFF];
+			smallIndices[i] = (byte) index;
+		}
+
+		if(old.getBlock().getTickRandomly()) {
+			tickingBlocks--;
+		}
+		if(state.getBlock().getTickRandomly()) {
+			tickingBlocks++;
+		}
+		return old;
+	}
+
+	private int getPaletteIndex(IBlockState state) {
+		Integer index = paletteIndex.get(state);
+		if(index != null) {
+			return index;
+		}
+
+		if(paletteSize == palette.length) {
+			palette = Arrays.copyOf(palette, paletteSize * 2);
+		}
+		if(paletteSize == 256 && largeIndices == null) {
+			largeIndices = new char[SIZE];
+			for(int i = 0; i < SIZE; i++) {
+				largeIndices[i] = (char) (smallIndices[i] & 0xFF);
+			}
+			smallIndices = null;
+		}
+
+		palette[paletteSize] = state;
+		paletteIndex.put(state, paletteSize);
+		return paletteSize++;
+	}
+
+	/** @return true if any block in the section ticks randomly */
+	public boolean needsRandomTick() {
+		return tickingBlocks > 0;
+	}
+
+	public int getPaletteSize() {
+		return paletteSize;
+	}
+
+}
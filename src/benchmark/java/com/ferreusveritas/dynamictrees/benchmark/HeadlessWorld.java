@@ -0,0 +1,412 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.ferreusveritas.dynamictrees.worldgen.TreeStagingWorld;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.init.Biomes;
+import net.minecraft.init.Blocks;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.EmptyChunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+
+/**
+ * A bare bones world that keeps it's blocks in {@link HeadlessSection}s.  Everything at or below the ground level is
+ * dirt with a layer of grass on top and everything above is air.  Sections are only created once a block in them is
+ * set.  There's no block light and sky light only shines straight down each column, like the worldgen stage works it
+ * out.  No entities, no networking and no neighbor updates.  Tile entities are kept so saplings know their species.  Every chunk counts as loaded so the worldgen code paths see a
+ * fully populated area.
+ *
+ * The block state reads and writes are counted so the benchmarks can report how many lookups an operation made.
+ */
+public class HeadlessWorld extends World {
+
+	private final int groundLevel;
+	private final Biome biome;
+	private final IBlockState[][] groundLayers = new IBlockState[16][16];//The initial layers of each section
+
+	//Columns of sections in an open addressing table keyed on ChunkPos.asLong so lookups don't box anything
+	private long[] columnKeys = new long[64];
+	private Column[] columns = new Column[64];
+	private int numColumns;
+	private Column lastColumn;//Most lookups hit the same column as the last one
+	private int numSections;
+
+	public long blockReads;
+	public long blockWrites;
+
+	private static class Column {
+		final long key;
+		final int chunkX, chunkZ;
+		final HeadlessSection[] sections = new HeadlessSection[16];
+		final int[] heights = new int[256];//The height map.  One above the highest block that blocks light in each column
+		Map<BlockPos, TileEntity> tileEntities;
+		Chunk chunk;
+
+		Column(int chunkX, int chunkZ) {
+			this.key = ChunkPos.asLong(chunkX, chunkZ);
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+		}
+	}
+
+	public HeadlessWorld(long seed, int groundLevel) {
+		this(seed, groundLevel, Biomes.FOREST);
+	}
+
+	public HeadlessWorld(long seed, int groundLevel, Biome biome) {
+		super(null, new WorldInfo(new WorldSettings(seed, GameType.SURVIVAL, false, false, WorldType.DEFAULT), "headless"), new WorldProviderSurface(), new Profiler(), false);
+		this.groundLevel = groundLevel;
+		this.biome = biome;
+		this.chunkProvider = createChunkProvider();
+		provider.setWorld(this);
+		rand.setSeed(seed);
+
+		for(int s = 0; s < 16; s++) {
+			for(int y = 0; y < 16; y++) {
+				groundLayers[s][y] = getGroundState((s << 4) | y);
+			}
+		}
+	}
+
+	public int getGroundLevel() {
+		return groundLevel;
+	}
+
+	/** Makes this world hold exactly the same blocks as another.  Tile entities aren't copied */
+	public void copyFrom(HeadlessWorld other) {
+		clear();
+		for(Column otherColumn: other.columns) {
+			if(otherColumn != null) {
+				Column column = getColumn(otherColumn.chunkX, otherColumn.chunkZ, true);
+				System.arraycopy(otherColumn.heights, 0, column.heights, 0, 256);
+				for(int s = 0; s < 16; s++) {
+					if(otherColumn.sections[s] != null) {
+						column.sections[s] = otherColumn.sections[s].copy();
+						numSections++;
+					}
+				}
+			}
+		}
+	}
+
+	/** Puts the world back to bare ground */
+	public void clear() {
+		Arrays.fill(columnKeys, 0);
+		Arrays.fill(columns, null);
+		numColumns = 0;
+		numSections = 0;
+		lastColumn = null;
+		TreeTopologyCache.unloadWorld(this);//The cached trees are gone
+	}
+
+	public void resetCounters() {
+		blockReads = 0;
+		blockWrites = 0;
+	}
+
+	/** @return The number of sections that have been created */
+	public int getNumSections() {
+		return numSections;
+	}
+
+	private IBlockState getGroundState(int y) {
+		if(y > groundLevel || y < 0) {
+			return Blocks.AIR.getDefaultState();
+		}
+		return y == groundLevel ? Blocks.GRASS.getDefaultState() : Blocks.DIRT.getDefaultState();
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private Column getColumn(int chunkX, int chunkZ, boolean create) {
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		Column column = lastColumn;
+		if(column != null && column.key == key) {
+			return column;
+		}
+
+		int mask = columns.length - 1;
+		int i = hash(key) & mask;
+		for(; columns[i] != null; i = (i + 1) & mask) {
+			if(columnKeys[i] == key) {
+				return lastColumn = columns[i];
+			}
+		}
+
+		if(!create) {
+			return null;
+		}
+
+		if((numColumns + 1) * 4 > columns.length * 3) {
+			growColumns();
+			return getColumn(chunkX, chunkZ, true);
+		}
+
+		column = new Column(chunkX, chunkZ);
+		Arrays.fill(column.heights, groundLevel + 1);
+		columnKeys[i] = key;
+		columns[i] = column;
+		numColumns++;
+		return lastColumn = column;
+	}
+
+	private void growColumns() {
+		Column[] old = columns;
+		columnKeys = new long[old.length * 2];
+		columns = new Column[old.length * 2];
+		int mask = columns.length - 1;
+		for(Column column: old) {
+			if(column != null) {
+				int i = hash(column.key) & mask;
+				while(columns[i] != null) {
+					i = (i + 1) & mask;
+				}
+				columnKeys[i] = column.key;
+				columns[i] = column;
+			}
+		}
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		blockReads++;
+		int y = pos.getY();
+		if(y < 0 || y >= 256) {
+			return Blocks.AIR.getDefaultState();
+		}
+		return getBlockState(getColumn(pos.getX() >> 4, pos.getZ() >> 4, false), pos.getX(), y, pos.getZ());
+	}
+
+	private IBlockState getBlockState(Column column, int x, int y, int z) {
+		HeadlessSection section = column != null ? column.sections[y >> 4] : null;
+		return section != null ? section.get(x & 15, y & 15, z & 15) : groundLayers[y >> 4][y & 15];
+	}
+
+	@Override
+	public boolean setBlockState(BlockPos pos, IBlockState newState, int flags) {
+		if(isOutsideBuildHeight(pos)) {
+			return false;
+		}
+		blockWrites++;
+
+		int y = pos.getY();
+		Column column = getColumn(pos.getX() >> 4, pos.getZ() >> 4, true);
+		HeadlessSection section = column.sections[y >> 4];
+		if(section == null) {
+			if(newState == groundLayers[y >> 4][y & 15]) {
+				return true;//Already there
+			}
+			section = column.sections[y >> 4] = new HeadlessSection(groundLayers[y >> 4]);
+			numSections++;
+		}
+
+		IBlockState oldState = section.set(pos.getX() & 15, y & 15, pos.getZ() & 15, newState);
+		updateHeight(column, pos.getX(), y, pos.getZ(), newState);
+		if(oldState.getBlock() != newState.getBlock() && column.tileEntities != null) {
+			column.tileEntities.remove(pos);
+		}
+		return true;
+	}
+
+	/**
+	 * Random ticks the blocks of every section like a server would.  A few random blocks of each section that has
+	 * randomly ticking blocks are ticked.
+	 *
+	 * @param ticksPerSection The number of blocks to tick in each section.  Same as the randomTickSpeed game rule
+	 */
+	public void randomTick(int ticksPerSection) {
+		Column[] snapshot = columns;//Ticks may add columns.  If the table grows the new ones are left for next time
+		for(Column column: snapshot) {
+			if(column == null) {
+				continue;
+			}
+			for(int s = 0; s < 16; s++) {
+				HeadlessSection section = column.sections[s];
+				if(section == null || !section.needsRandomTick()) {
+					continue;
+				}
+				for(int t = 0; t < ticksPerSection; t++) {
+					int r = rand.nextInt();
+					int x = r & 15, y = (r >> 8) & 15, z = (r >> 16) & 15;
+					IBlockState state = section.get(x, y, z);
+					if(state.getBlock().getTickRandomly()) {
+						BlockPos pos = new BlockPos((column.chunkX << 4) | x, (s << 4) | y, (column.chunkZ << 4) | z);
+						state.getBlock().randomTick(this, pos, state, rand);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos) {
+		return biome;
+	}
+
+	private void updateHeight(Column column, int x, int y, int z, IBlockState newState) {
+		int col = (z & 15) << 4 | (x & 15);
+		if(newState.getLightOpacity() > 0) {
+			column.heights[col] = Math.max(column.heights[col], y + 1);
+		} else if(column.heights[col] == y + 1) {//The top was removed so look for the next one down
+			int height = y;
+			while(height > 0 && getBlockState(column, x, height - 1, z).getLightOpacity() == 0) {
+				height--;
+			}
+			column.heights[col] = height;
+		}
+	}
+
+	@Override
+	public int getHeight(int x, int z) {
+		Column column = getColumn(x >> 4, z >> 4, false);
+		return column != null ? column.heights[(z & 15) << 4 | (x & 15)] : groundLevel + 1;
+	}
+
+	/** Sky light is worked out straight down each column the same way the worldgen stage does it */
+	@Override
+	public int getLightFor(EnumSkyBlock type, BlockPos pos) {
+		return type == EnumSkyBlock.SKY ? TreeStagingWorld.getColumnSkyLight(this, pos, getHeight(pos.getX(), pos.getZ()) - 1) : 0;
+	}
+
+	@Override
+	public int getLight(BlockPos pos) {
+		return 15;
+	}
+
+	@Override
+	public int getLightFromNeighbors(BlockPos pos) {
+		return 15;
+	}
+
+	@Override
+	public boolean canSeeSky(BlockPos pos) {
+		return pos.getY() >= getHeight(pos.getX(), pos.getZ());
+	}
+
+	@Override
+	public boolean canBlockSeeSky(BlockPos pos) {
+		return canSeeSky(pos);
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default) {
+		return getBlockState(pos).isSideSolid(this, pos, side);
+	}
+
+	@Override
+	@Nullable
+	public TileEntity getTileEntity(BlockPos pos) {
+		Column column = getColumn(pos.getX() >> 4, pos.getZ() >> 4, false);
+		TileEntity tileEntity = column != null && column.tileEntities != null ? column.tileEntities.get(pos) : null;
+		if(tileEntity == null) {
+			IBlockState state = getBlockState(pos);
+			if(state.getBlock().hasTileEntity(state)) {//Created on demand just like a chunk would
+				tileEntity = state.getBlock().createTileEntity(this, state);
+				setTileEntity(pos, tileEntity);
+			}
+		}
+		return tileEntity;
+	}
+
+	@Override
+	public void setTileEntity(BlockPos pos, @Nullable TileEntity tileEntity) {
+		if(tileEntity == null) {
+			removeTileEntity(pos);
+			return;
+		}
+		pos = pos.toImmutable();
+		tileEntity.setWorld(this);
+		tileEntity.setPos(pos);
+		Column column = getColumn(pos.getX() >> 4, pos.getZ() >> 4, true);
+		if(column.tileEntities == null) {
+			column.tileEntities = new HashMap<>();
+		}
+		column.tileEntities.put(pos, tileEntity);
+	}
+
+	@Override
+	public void removeTileEntity(BlockPos pos) {
+		Column column = getColumn(pos.getX() >> 4, pos.getZ() >> 4, false);
+		if(column != null && column.tileEntities != null) {
+			column.tileEntities.remove(pos);
+		}
+	}
+
+	@Override
+	public boolean spawnEntity(Entity entity) {
+		return false;
+	}
+
+	@Override
+	public void notifyNeighborsOfStateChange(BlockPos pos, Block blockType, boolean updateObservers) {}
+
+	@Override
+	public void scheduleUpdate(BlockPos pos, Block block, int delay) {}
+
+	@Override
+	protected IChunkProvider createChunkProvider() {
+		return new IChunkProvider() {
+			@Override
+			public Chunk getLoadedChunk(int x, int z) {
+				return provideChunk(x, z);
+			}
+
+			@Override
+			public Chunk provideChunk(int x, int z) {
+				Column column = getColumn(x, z, true);
+				if(column.chunk == null) {
+					column.chunk = new EmptyChunk(HeadlessWorld.this, x, z);//Only there to say that the chunk is loaded
+				}
+				return column.chunk;
+			}
+
+			@Override
+			public boolean tick() {
+				return false;
+			}
+
+			@Override
+			public String makeString() {
+				return "HeadlessChunkProvider: " + numColumns + " columns, " + numSections + " sections";
+			}
+
+			@Override
+			public boolean isChunkGeneratedAt(int x, int z) {
+				return true;
+			}
+		};
+	}
+
+	@Override
+	protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+		return true;
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.worldgen.JoCode;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Generates a tree from the JoCode store of each of the mod's species exactly as worldgen would.  The world is put
+ * back to bare ground before each invocation.  Trees are built both in the worldgen stage and straight in the world.
+ *
+ * Before the trial starts the tree is generated both ways from the same seed and the trial fails if staging placed any
+ * block differently.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JoCodeBenchmark {
+
+	@Param({"oak", "oakswamp", "apple", "spruce", "megaspruce", "birch", "jungle", "megajungle", "acacia", "darkoak", "cactus"})
+	public String speciesName;
+
+	@Param({"4", "8"})
+	public int radius;
+
+	@Param({"true", "false"})
+	public boolean staged;
+
+	private HeadlessWorld world;
+	private Species species;
+	private JoCode code;
+	private Biome biome;
+	private SafeChunkBounds safeBounds;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		HeadlessBootstrap.init();
+		world = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+		species = TreeFixtures.getSpecies(speciesName);
+		code = TreeFixtures.getCode(species, radius);
+		biome = world.getBiome(TreeFixtures.ROOTPOS);
+		safeBounds = TreeFixtures.getWorldGenBounds(world);
+		checkStaging();
+		ModConfigs.worldGenStaging = staged;
+	}
+
+	/** Staging a tree must place exactly the same blocks as generating it straight in the world */
+	private void checkStaging() {
+		HeadlessWorld unstagedWorld = generateInNewWorld(false);
+		HeadlessWorld stagedWorld = generateInNewWorld(true);
+		BlockPos diff = TreeFixtures.findDifference(unstagedWorld, stagedWorld, radius, species.getWorldGenLeafMapHeight());
+		if(diff != null) {
+			throw new IllegalStateException("Staging the " + speciesName + " tree placed " + stagedWorld.getBlockState(diff) + " at " + diff + " instead of " + unstagedWorld.getBlockState(diff));
+		}
+	}
+
+	private HeadlessWorld generateInNewWorld(boolean staging) {
+		HeadlessWorld newWorld = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+		ModConfigs.worldGenStaging = staging;
+		code.generate(newWorld, species, TreeFixtures.ROOTPOS, biome, EnumFacing.NORTH, radius, TreeFixtures.getWorldGenBounds(newWorld));
+		return newWorld;
+	}
+
+	@Setup(Level.Invocation)
+	public void clear() {
+		world.clear();
+		world.resetCounters();
+	}
+
+	@Benchmark
+	public long generate() {
+		code.generate(world, species, TreeFixtures.ROOTPOS, biome, EnumFacing.NORTH, radius, safeBounds);
+		return world.blockWrites;
+	}
+
+}
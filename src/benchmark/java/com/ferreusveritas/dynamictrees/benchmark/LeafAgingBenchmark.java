@@ -0,0 +1,172 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+
+/**
+ * Ages the leaves of a generated tree with the batched {@link TreeHelper#ageVolume} and the block at a time
+ * {@link TreeHelper#ageVolumeByBlock}.  Before each invocation every leaves block is put back at the default
+ * hydration of it's cell kit, as if it had just been placed from a leaf map, so there's real work to do.  The leaf map
+ * versions that worldgen uses are measured too.
+ *
+ * Before the trial starts the leaf map is aged both ways from the same seed and the trial fails if the leaves or the
+ * leaf maps come out any different.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LeafAgingBenchmark {
+
+	@Param({"oak", "spruce", "darkoak", "acacia"})
+	public String speciesName;
+
+	@Param({"8"})
+	public int radius;
+
+	private HeadlessWorld template;
+	private HeadlessWorld world;
+	private Species species;
+	private SafeChunkBounds safeBounds;
+	private SimpleVoxmap leafMap;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		template = TreeFixtures.createWorldWithTree(speciesName, radius);
+		world = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+		species = TreeFixtures.getSpecies(speciesName);
+		safeBounds = TreeFixtures.getWorldGenBounds(world);
+
+		BlockPos treePos = TreeFixtures.TREEPOS;
+		int height = species.getWorldGenLeafMapHeight();
+		for(MutableBlockPos pos: BlockPos.getAllInBoxMutable(treePos.add(-radius, 0, -radius), treePos.add(radius, height, radius))) {
+			IBlockState state = template.getBlockState(pos);
+			if(state.getBlock() instanceof BlockDynamicLeaves) {
+				ILeavesProperties properties = ((BlockDynamicLeaves)state.getBlock()).getProperties(state);
+				template.setBlockState(pos, properties.getDynamicLeavesState(properties.getCellKit().getDefaultHydration()), 0);
+			}
+		}
+
+		checkLeafMapAging();
+	}
+
+	@Setup(Level.Invocation)
+	public void restore() {
+		world.copyFrom(template);
+		world.resetCounters();
+		leafMap = createLeafMap();
+	}
+
+	/** A leaf map of the leaves of the template tree like the one JoCode ages */
+	private SimpleVoxmap createLeafMap() {
+		int height = species.getWorldGenLeafMapHeight();
+		SimpleVoxmap map = new SimpleVoxmap(radius * 2 + 1, height, radius * 2 + 1).setMapAndCenter(TreeFixtures.TREEPOS, new BlockPos(radius, 0, radius));
+		for(MutableBlockPos pos: BlockPos.getAllInBoxMutable(TreeFixtures.TREEPOS.add(-radius, 0, -radius), TreeFixtures.TREEPOS.add(radius, height - 1, radius))) {
+			IBlockState state = template.getBlockState(pos);
+			if(state.getBlock() instanceof BlockDynamicLeaves) {
+				map.setVoxel(pos, state.getValue(BlockDynamicLeaves.HYDRO).byteValue());
+			}
+		}
+		return map;
+	}
+
+	/** The solver must grow exactly the same canopy from a leaf map as aging it a block at a time does */
+	private void checkLeafMapAging() {
+		HeadlessWorld byBlock = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+		byBlock.copyFrom(template);
+		SimpleVoxmap byBlockMap = createLeafMap();
+		TreeHelper.ageVolumeByBlock(byBlock, byBlockMap, species.getWorldGenAgeIterations(), safeBounds);
+
+		HeadlessWorld solved = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+		solved.copyFrom(template);
+		SimpleVoxmap solvedMap = createLeafMap();
+		ModConfigs.batchLeafAging = true;
+		TreeHelper.ageVolume(solved, solvedMap, species.getWorldGenAgeIterations(), safeBounds);
+
+		BlockPos diff = TreeFixtures.findDifference(byBlock, solved, radius, species.getWorldGenLeafMapHeight());
+		if(diff != null) {
+			throw new IllegalStateException("Aging the " + speciesName + " leaf map with the solver left " + solved.getBlockState(diff) + " at " + diff + " instead of " + byBlock.getBlockState(diff));
+		}
+		for(MutableBlockPos pos: BlockPos.getAllInBoxMutable(TreeFixtures.TREEPOS.add(-radius, 0, -radius), TreeFixtures.TREEPOS.add(radius, species.getWorldGenLeafMapHeight() - 1, radius))) {
+			if(byBlockMap.getVoxel(pos) != solvedMap.getVoxel(pos)) {
+				throw new IllegalStateException("Aging the " + speciesName + " leaf map with the solver left " + solvedMap.getVoxel(pos) + " in the leaf map at " + pos + " instead of " + byBlockMap.getVoxel(pos));
+			}
+		}
+	}
+
+	/** Block state traffic of the aging.  Divide by agings for the cost of one */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class BlockCounters {
+		public long blockReads;
+		public long blockWrites;
+		public long agings;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			blockReads = blockWrites = agings = 0;
+		}
+
+		void add(HeadlessWorld world) {
+			blockReads += world.blockReads;
+			blockWrites += world.blockWrites;
+			agings++;
+		}
+	}
+
+	@Benchmark
+	public long ageVolume(BlockCounters counters) {
+		TreeHelper.ageVolume(world, TreeFixtures.TREEPOS, radius, species.getWorldGenLeafMapHeight(), species.getWorldGenAgeIterations(), safeBounds);
+		counters.add(world);
+		return world.blockWrites;
+	}
+
+	@Benchmark
+	public long ageVolumeByBlock(BlockCounters counters) {
+		TreeHelper.ageVolumeByBlock(world, TreeFixtures.TREEPOS, radius, species.getWorldGenLeafMapHeight(), species.getWorldGenAgeIterations(), safeBounds);
+		counters.add(world);
+		return world.blockWrites;
+	}
+
+	@Benchmark
+	public long ageLeafMap(BlockCounters counters) {
+		TreeHelper.ageVolume(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
+		counters.add(world);
+		return world.blockWrites;
+	}
+
+	@Benchmark
+	public long ageLeafMapByBlock(BlockCounters counters) {
+		TreeHelper.ageVolumeByBlock(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
+		counters.add(world);
+		return world.blockWrites;
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.Arrays;
+
+import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProvider;
+
+/**
+ * Solves the Poisson discs of a few thousand synthetic chunks with and without the spatial grid.  Reports the time
+ * taken by each and fails if the discs of any chunk differ between the two.
+ *
+ * Run with: gradlew poissonDiscBenchmark
+ */
+public class PoissonDiscBenchmark {
+
+	private static final int SIZE = 64;//64x64 chunks
+	private static final int ROUNDS = 5;
+	private static final long SEED = 0x5EED;
+
+	public static void main(String[] args) {
+		SyntheticCoordinator coordinator = new SyntheticCoordinator(SEED);
+
+		//Warm up both paths so the JIT has a fair go at each
+		solveAll(coordinator, false, 16);
+		solveAll(coordinator, true, 16);
+
+		byte[][] bruteData = null;
+		byte[][] gridData = null;
+		long bruteNanos = Long.MAX_VALUE;
+		long gridNanos = Long.MAX_VALUE;
+
+		for(int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			bruteData = solveAll(coordinator, false, SIZE);
+			bruteNanos = Math.min(bruteNanos, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			gridData = solveAll(coordinator, true, SIZE);
+			gridNanos = Math.min(gridNanos, System.nanoTime() - start);
+		}
+
+		int discs = 0;
+		int mismatches = 0;
+		for(int i = 0; i < bruteData.length; i++) {
+			if(!Arrays.equals(bruteData[i], gridData[i])) {
+				if(mismatches++ < 10) {
+					System.err.println("Mismatch in chunk " + (i % SIZE) + ", " + (i / SIZE));
+				}
+			}
+			for(byte b: bruteData[i]) {
+				discs += b == 0 ? 0 : (b & 0x80) != 0 ? 2 : 1;
+			}
+		}
+
+		int chunks = SIZE * SIZE;
+		System.out.println("Chunks: " + chunks + " Discs: " + discs);
+		System.out.println(String.format("Brute force: %.3fms (%.2fus/chunk)", bruteNanos / 1e6, bruteNanos / 1e3 / chunks));
+		System.out.println(String.format("Spatial grid: %.3fms (%.2fus/chunk)", gridNanos / 1e6, gridNanos / 1e3 / chunks));
+		System.out.println(String.format("Speedup: %.2fx", bruteNanos / (double) gridNanos));
+
+		if(mismatches > 0) {
+			System.err.println(mismatches + " chunks differ");
+			System.exit(1);
+		}
+		System.out.println("All chunks identical");
+	}
+
+	private static byte[][] solveAll(IRadiusCoordinator coordinator, boolean spatialGrid, int size) {
+		PoissonDiscProvider provider = new PoissonDiscProvider(coordinator);
+		provider.setSeed(SEED);
+		provider.setSpatialGrid(spatialGrid);
+
+		for(int z = 0; z < size; z++) {
+			for(int x = 0; x < size; x++) {
+				provider.getPoissonDiscs(x, 0, z);
+			}
+		}
+
+		byte[][] data = new byte[size * size][];
+		for(int z = 0; z < size; z++) {
+			for(int x = 0; x < size; x++) {
+				data[z * size + x] = provider.getChunkPoissonData(x, 0, z).clone();
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Divides the world into 4x4 chunk regions of dense, medium and sparse forest.  The radius within a region is
+	 * hashed from the block position so it varies from disc to disc like the noise driven biome coordinator does.
+	 */
+	static class SyntheticCoordinator implements IRadiusCoordinator {
+
+		private final long seed;
+
+		public SyntheticCoordinator(long seed) {
+			this.seed = seed;
+		}
+
+		private long hash(long a) {
+			a = (a ^ (a >>> 33)) * 0xFF51AFD7ED558CCDL;
+			a = (a ^ (a >>> 33)) * 0xC4CEB9FE1A85EC53L;
+			return a ^ (a >>> 33);
+		}
+
+		@Override
+		public int getRadiusAtCoords(int x, int z) {
+			long region = hash(seed ^ ((long)(x >> 6) << 32 | ((z >> 6) & 0xFFFFFFFFL)));
+			long noise = hash(region ^ ((long)x << 32 | (z & 0xFFFFFFFFL)));
+			int r = (int) ((noise >>> 1) % 3);
+			switch((int) ((region >>> 1) % 3)) {
+				case 0: return 2 + r;//Dense
+				case 1: return 4 + r;//Medium
+				default: return 6 + r;//Sparse
+			}
+		}
+
+		@Override
+		public boolean runPass(int chunkX, int chunkZ, int pass) {
+			return pass == 0;
+		}
+
+	}
+
+}
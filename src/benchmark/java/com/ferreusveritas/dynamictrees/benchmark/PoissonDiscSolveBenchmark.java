@@ -0,0 +1,67 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDisc;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProvider;
+
+/**
+ * Solves the Poisson discs of one new chunk per invocation.  Chunks are solved row by row across a 64 chunk wide
+ * strip so most chunks have already solved neighbors like they would in a world being explored.
+ *
+ * {@link PoissonDiscBenchmark} checks that the spatial grid gives identical results.  This only measures the cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PoissonDiscSolveBenchmark {
+
+	private static final int WIDTH = 64;
+
+	@Param({"true", "false"})
+	public boolean spatialGrid;
+
+	private PoissonDiscBenchmark.SyntheticCoordinator coordinator;
+	private PoissonDiscProvider provider;
+	private Random random;
+	private int chunk;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		HeadlessBootstrap.init();
+		coordinator = new PoissonDiscBenchmark.SyntheticCoordinator(TreeFixtures.SEED);
+	}
+
+	@Setup(Level.Iteration)
+	public void setupIteration() {
+		provider = new PoissonDiscProvider(coordinator);
+		provider.setSpatialGrid(spatialGrid);
+		random = new Random(TreeFixtures.SEED);
+		chunk = 0;
+	}
+
+	@Benchmark
+	public List<PoissonDisc> generatePoissonDiscs() {
+		int index = chunk++;
+		return provider.generatePoissonDiscs(random, index % WIDTH, index / WIDTH);
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.ModConstants;
+import com.ferreusveritas.dynamictrees.api.TreeRegistry;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.worldgen.JoCode;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Grows the trees that the benchmarks work on.  Trees are always generated from the first JoCode stored for a radius
+ * so every run works on exactly the same tree.
+ */
+public class TreeFixtures {
+
+	public static final long SEED = 0x5EED;
+	public static final int GROUND = 64;
+	public static final BlockPos ROOTPOS = new BlockPos(8, GROUND, 8);//Middle of chunk 0, 0
+	public static final BlockPos TREEPOS = ROOTPOS.up();
+
+	public static Species getSpecies(String name) {
+		Species species = TreeRegistry.findSpecies(new ResourceLocation(ModConstants.MODID, name));
+		if(species == Species.NULLSPECIES) {
+			throw new IllegalArgumentException("No such species: " + name);
+		}
+		return species;
+	}
+
+	/** The same bounds that worldgen would use for a tree in the middle of chunk 0, 0 */
+	public static SafeChunkBounds getWorldGenBounds(World world) {
+		return new SafeChunkBounds(world, new ChunkPos(ROOTPOS));
+	}
+
+	public static JoCode getCode(Species species, int radius) {
+		List<JoCode> codes = species.getJoCodeStore().getCodesForRadius(radius);
+		if(codes.isEmpty()) {
+			throw new IllegalArgumentException("Species " + species + " has no JoCodes for radius " + radius);
+		}
+		return codes.get(0);
+	}
+
+	/**
+	 * Generates a tree at {@link #ROOTPOS} the same way worldgen would.
+	 *
+	 * @param world The world
+	 * @param species The species of tree
+	 * @param radius The radius of the tree generation boundary
+	 */
+	public static void generate(World world, Species species, int radius) {
+		getCode(species, radius).generate(world, species, ROOTPOS, world.getBiome(ROOTPOS), EnumFacing.NORTH, radius, getWorldGenBounds(world));
+	}
+
+	/** @return A new world with a single fully generated tree in it */
+	public static HeadlessWorld createWorldWithTree(String speciesName, int radius) {
+		HeadlessBootstrap.init();
+		HeadlessWorld world = new HeadlessWorld(SEED, GROUND);
+		generate(world, getSpecies(speciesName), radius);
+		world.resetCounters();
+		return world;
+	}
+
+	/**
+	 * Compares the blocks of two worlds around the tree at {@link #ROOTPOS}.
+	 *
+	 * @param height The height of the volume above the rooty block
+	 * @return The first position where the blocks differ or null if they're all the same
+	 */
+	public static BlockPos findDifference(World a, World b, int radius, int height) {
+		for(MutableBlockPos pos: BlockPos.getAllInBoxMutable(ROOTPOS.add(-radius - 1, -1, -radius - 1), ROOTPOS.add(radius + 1, height + 1, radius + 1))) {
+			if(a.getBlockState(pos) != b.getBlockState(pos)) {
+				return pos.toImmutable();
+			}
+		}
+		return null;
+	}
+
+}
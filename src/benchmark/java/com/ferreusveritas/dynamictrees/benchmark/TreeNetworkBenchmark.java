@@ -0,0 +1,169 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumDestroyMode;
+import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeDestroyer;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeExtState;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeHarvester;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeSpecies;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+
+/**
+ * Works the branch network of a fully generated tree.  Analysis with {@link NodeFindEnds}, a single grow signal and
+ * a whole tree harvest from the base of the trunk.
+ *
+ * The harvests also report how many block states were read and written per harvest through JMH's auxiliary counters.
+ * The branch walk of a harvest is measured on it's own next to the three analyses it used to take as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TreeNetworkBenchmark {
+
+	@Param({"oak", "spruce", "darkoak", "megajungle"})
+	public String speciesName;
+
+	@Param({"8"})
+	public int radius;
+
+	private HeadlessWorld template;
+	private HeadlessWorld world;
+	private Species species;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		template = TreeFixtures.createWorldWithTree(speciesName, radius);
+		world = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+		species = TreeFixtures.getSpecies(speciesName);
+	}
+
+	/** The grow signals keep growing the tree so it's put back at the start of each iteration */
+	@Setup(Level.Iteration)
+	public void setupIteration() {
+		world.copyFrom(template);
+		world.resetCounters();
+	}
+
+	@Benchmark
+	public List<?> analyseFindEnds() {
+		IBlockState treeState = world.getBlockState(TreeFixtures.TREEPOS);
+		BlockBranch branch = TreeHelper.getBranch(treeState);
+		NodeFindEnds endFinder = new NodeFindEnds();
+		branch.analyse(treeState, world, TreeFixtures.TREEPOS, EnumFacing.DOWN, new MapSignal(endFinder));
+		return endFinder.getEnds();
+	}
+
+	@Benchmark
+	public boolean growSignal() {
+		ITreePart treeBase = TreeHelper.getTreePart(world.getBlockState(TreeFixtures.TREEPOS));
+		GrowSignal signal = new GrowSignal(species, TreeFixtures.ROOTPOS, species.getEnergy(world, TreeFixtures.ROOTPOS));
+		return treeBase.growSignal(world, TreeFixtures.TREEPOS, signal).success;
+	}
+
+	/** Block state traffic of the harvests.  Divide by harvests for the cost of one */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class BlockCounters {
+		public long blockReads;
+		public long blockWrites;
+		public long harvests;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			blockReads = blockWrites = harvests = 0;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class HarvestState {
+		private HeadlessWorld world;
+
+		/** Every harvest needs a whole tree to chop down */
+		@Setup(Level.Invocation)
+		public void regrow(TreeNetworkBenchmark benchmark) {
+			if(world == null) {
+				world = new HeadlessWorld(TreeFixtures.SEED, TreeFixtures.GROUND);
+			}
+			world.copyFrom(benchmark.template);
+			world.resetCounters();
+		}
+	}
+
+	@Benchmark
+	public BranchDestructionData harvest(HarvestState state, BlockCounters counters) {
+		HeadlessWorld world = state.world;
+		BlockBranch branch = TreeHelper.getBranch(world.getBlockState(TreeFixtures.TREEPOS));
+		BranchDestructionData data = branch.destroyBranchFromNode(world, TreeFixtures.TREEPOS, EnumFacing.DOWN, true);
+		counters.blockReads += world.blockReads;
+		counters.blockWrites += world.blockWrites;
+		counters.harvests++;
+		return data;
+	}
+
+	/** Just the branch walk of a harvest.  One analysis of the tree with {@link NodeHarvester} */
+	@Benchmark
+	public Map<?, ?> harvestBranches(HarvestState state, BlockCounters counters) {
+		HeadlessWorld world = state.world;
+		IBlockState treeState = world.getBlockState(TreeFixtures.TREEPOS);
+		NodeHarvester harvester = new NodeHarvester(TreeFixtures.TREEPOS);
+		TreeHelper.getBranch(treeState).analyse(treeState, world, TreeFixtures.TREEPOS, null, new MapSignal(harvester));
+		BlockBranch.destroyMode = EnumDestroyMode.HARVEST;
+		harvester.harvest(world, harvester.getSpecies(), null);
+		BlockBranch.destroyMode = EnumDestroyMode.SLOPPY;
+		counters.blockReads += world.blockReads;
+		counters.blockWrites += world.blockWrites;
+		counters.harvests++;
+		return harvester.getExtStateMap();
+	}
+
+	/** The branch walk the way harvests used to do it.  Analyses for the species, the extended states and the volume */
+	@Benchmark
+	public Map<?, ?> harvestBranchesThreePass(HarvestState state, BlockCounters counters) {
+		HeadlessWorld world = state.world;
+		IBlockState treeState = world.getBlockState(TreeFixtures.TREEPOS);
+		BlockBranch branch = TreeHelper.getBranch(treeState);
+		NodeSpecies nodeSpecies = new NodeSpecies();
+		branch.analyse(treeState, world, TreeFixtures.TREEPOS, null, new MapSignal(nodeSpecies));
+		NodeExtState extStateMapper = new NodeExtState(TreeFixtures.TREEPOS);
+		branch.analyse(treeState, world, TreeFixtures.TREEPOS, null, new MapSignal(extStateMapper));
+		BlockBranch.destroyMode = EnumDestroyMode.HARVEST;
+		branch.analyse(treeState, world, TreeFixtures.TREEPOS, null, new MapSignal(new NodeNetVolume(), new NodeDestroyer(nodeSpecies.getSpecies())));
+		BlockBranch.destroyMode = EnumDestroyMode.SLOPPY;
+		counters.blockReads += world.blockReads;
+		counters.blockWrites += world.blockWrites;
+		counters.harvests++;
+		return extStateMapper.getExtStateMap();
+	}
+
+}
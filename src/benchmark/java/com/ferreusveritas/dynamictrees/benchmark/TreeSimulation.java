@@ -0,0 +1,163 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.TreeRegistry;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Plants a field of saplings in a {@link HeadlessWorld} and lets them grow by random ticks for a number of simulated
+ * ticks.  Reports the block reads and writes, the bytes allocated and the wall time per tick.
+ *
+ * Run with: gradlew treeSimulation -Pargs="saplings=1000 ticks=6000"
+ *
+ * Arguments are key=value pairs:
+ *   saplings   Number of saplings to plant [1000]
+ *   ticks      Number of ticks to simulate [6000]
+ *   report     Ticks between reports [200]
+ *   spacing    Blocks between saplings [12]
+ *   species    Comma separated species names [every transformable species]
+ *   tickspeed  Random ticks per section per tick like the randomTickSpeed game rule [3]
+ *   scheduler  Let the growth scheduler run the tree updates [false]
+ *   deterministic  Seed every growth decision from the seed, tick and tree position [true]
+ *   seed       World seed [0x5EED]
+ *
+ * The growth scheduler works to a time budget so it's off by default to keep runs repeatable.  With deterministic
+ * growth on the same arguments always grow the same trees.
+ */
+public class TreeSimulation {
+
+	private int saplings = 1000;
+	private int ticks = 6000;
+	private int report = 200;
+	private int spacing = 12;
+	private String speciesNames = null;
+	private int tickSpeed = 3;
+	private boolean scheduler = false;
+	private boolean deterministic = true;
+	private long seed = TreeFixtures.SEED;
+
+	private final com.sun.management.ThreadMXBean threadBean;
+
+	public static void main(String[] args) {
+		new TreeSimulation(args).run();
+	}
+
+	public TreeSimulation(String[] args) {
+		for(String arg: args) {
+			String[] split = arg.split("=", 2);
+			String value = split.length > 1 ? split[1] : "true";
+			switch(split[0].toLowerCase()) {
+				case "saplings": saplings = Integer.parseInt(value); break;
+				case "ticks": ticks = Integer.parseInt(value); break;
+				case "report": report = Math.max(1, Integer.parseInt(value)); break;
+				case "spacing": spacing = Math.max(1, Integer.parseInt(value)); break;
+				case "species": speciesNames = value; break;
+				case "tickspeed": tickSpeed = Integer.parseInt(value); break;
+				case "scheduler": scheduler = Boolean.parseBoolean(value); break;
+				case "deterministic": deterministic = Boolean.parseBoolean(value); break;
+				case "seed": seed = Long.decode(value); break;
+				default: throw new IllegalArgumentException("Unknown argument: " + arg);
+			}
+		}
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		threadBean = bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;//Allocations aren't measured on JVMs without it
+	}
+
+	private List<Species> getSpecies() {
+		if(speciesNames == null) {
+			return TreeRegistry.getTransformableSpecies();
+		}
+		List<Species> list = new ArrayList<>();
+		for(String name: speciesNames.split(",")) {
+			list.add(TreeFixtures.getSpecies(name.trim()));
+		}
+		return list;
+	}
+
+	private long getAllocatedBytes() {
+		return threadBean != null ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+	}
+
+	public void run() {
+		HeadlessBootstrap.init();
+		ModConfigs.enableGrowthScheduler = scheduler;
+		ModConfigs.deterministicGrowth = deterministic;
+		HeadlessWorld world = new HeadlessWorld(seed, TreeFixtures.GROUND);
+
+		//Plant the saplings in a square field
+		List<Species> speciesList = getSpecies();
+		List<BlockPos> planted = new ArrayList<>();
+		int side = (int) Math.ceil(Math.sqrt(saplings));
+		for(int i = 0; i < saplings; i++) {
+			BlockPos pos = new BlockPos((i % side) * spacing, TreeFixtures.GROUND + 1, (i / side) * spacing);
+			if(speciesList.get(i % speciesList.size()).plantSapling(world, pos)) {
+				planted.add(pos);
+			}
+		}
+		System.out.println("Planted " + planted.size() + " of " + saplings + " saplings from " + speciesList.size() + " species");
+		System.out.println(String.format("%8s %10s %10s %12s %12s %12s %10s", "Tick", "ms/tick", "max ms", "reads/tick", "writes/tick", "bytes/tick", "sections"));
+
+		TreeGrowthScheduler growthScheduler = TreeGrowthScheduler.get(world);
+		long totalNanos = 0, totalReads = 0, totalWrites = 0, totalBytes = 0;
+		long intervalNanos = 0, intervalMaxNanos = 0, intervalReads = 0, intervalWrites = 0, intervalBytes = 0;
+
+		for(int tick = 1; tick <= ticks; tick++) {
+			world.resetCounters();
+			world.setTotalWorldTime(tick);
+			long bytes = getAllocatedBytes();
+			long start = System.nanoTime();
+
+			if(growthScheduler != null) {
+				growthScheduler.startTick();
+			}
+			world.randomTick(tickSpeed);
+			if(growthScheduler != null) {
+				growthScheduler.process(world);
+			}
+
+			long nanos = System.nanoTime() - start;
+			bytes = getAllocatedBytes() - bytes;
+
+			intervalNanos += nanos;
+			intervalMaxNanos = Math.max(intervalMaxNanos, nanos);
+			intervalReads += world.blockReads;
+			intervalWrites += world.blockWrites;
+			intervalBytes += bytes;
+
+			if(tick % report == 0 || tick == ticks) {
+				int n = (tick - 1) % report + 1;
+				System.out.println(String.format("%8d %10.3f %10.3f %12d %12d %12d %10d", tick, intervalNanos / 1e6 / n, intervalMaxNanos / 1e6, intervalReads / n, intervalWrites / n, intervalBytes / n, world.getNumSections()));
+				totalNanos += intervalNanos;
+				totalReads += intervalReads;
+				totalWrites += intervalWrites;
+				totalBytes += intervalBytes;
+				intervalNanos = intervalMaxNanos = intervalReads = intervalWrites = intervalBytes = 0;
+			}
+		}
+
+		int trees = 0;
+		for(BlockPos pos: planted) {
+			if(TreeHelper.isRooty(world.getBlockState(pos.down()))) {
+				trees++;
+			}
+		}
+
+		System.out.println("Trees: " + trees + " of " + planted.size() + " saplings");
+		if(ticks > 0) {
+			System.out.println(String.format("Total: %.1fms  Mean: %.3fms/tick  %d reads/tick  %d writes/tick  %d bytes/tick", totalNanos / 1e6, totalNanos / 1e6 / ticks, totalReads / ticks, totalWrites / ticks, totalBytes / ticks));
+		}
+		if(threadBean == null) {
+			System.out.println("Allocations weren't measured.  This JVM can't report them");
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionCodec;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.EnumFacing;
+
+/**
+ * Harvests a generated tree of each species and prints how many bytes it's destruction data takes on the wire as NBT
+ * (the way a falling tree used to be sent) and with the {@link BranchDestructionCodec}.
+ *
+ * Run with: gradlew wireSizeReport
+ */
+public class WireSizeReport {
+
+	private static final String[] SPECIES = {"oak", "oakswamp", "apple", "spruce", "megaspruce", "birch", "jungle", "megajungle", "acacia", "darkoak"};
+	private static final int[] RADII = {4, 8};
+
+	public static void main(String[] args) {
+		HeadlessBootstrap.init();
+
+		System.out.println(String.format("%-12s %6s %9s %7s %7s %10s %10s %7s", "Species", "Radius", "Branches", "Leaves", "Ends", "NBT bytes", "Bin bytes", "Ratio"));
+		long totalNBT = 0, totalBinary = 0;
+
+		for(String name: SPECIES) {
+			for(int radius: RADII) {
+				HeadlessWorld world = TreeFixtures.createWorldWithTree(name, radius);
+				BranchDestructionData data = TreeHelper.getBranch(world.getBlockState(TreeFixtures.TREEPOS)).destroyBranchFromNode(world, TreeFixtures.TREEPOS, EnumFacing.DOWN, true);
+
+				PacketBuffer nbt = new PacketBuffer(Unpooled.buffer());
+				nbt.writeCompoundTag(data.writeToNBT(new NBTTagCompound()));
+				PacketBuffer binary = new PacketBuffer(Unpooled.buffer());
+				BranchDestructionCodec.write(binary, data);
+
+				//Make sure it survives the trip
+				BranchDestructionData decoded = BranchDestructionCodec.read(binary.duplicate());
+				if(decoded.getNumBranches() != data.getNumBranches() || decoded.getNumLeaves() != data.getNumLeaves() || decoded.getNumEndpoints() != data.getNumEndpoints()) {
+					throw new IllegalStateException("Decoded " + name + " tree doesn't match the original");
+				}
+
+				int nbtBytes = nbt.readableBytes();
+				int binaryBytes = binary.readableBytes();
+				totalNBT += nbtBytes;
+				totalBinary += binaryBytes;
+				System.out.println(String.format("%-12s %6d %9d %7d %7d %10d %10d %6.1fx", name, radius, data.getNumBranches(), data.getNumLeaves(), data.getNumEndpoints(), nbtBytes, binaryBytes, nbtBytes / (double) binaryBytes));
+			}
+		}
+
+		System.out.println(String.format("Total: %d NBT bytes, %d binary bytes, %.1fx smaller", totalNBT, totalBinary, totalNBT / (double) totalBinary));
+	}
+
+}
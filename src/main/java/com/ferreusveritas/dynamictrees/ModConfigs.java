@@ -28,6 +28,15 @@ public class ModConfigs {
 	public static float diseaseChance;
 	public static int maxBranchRotRadius;
 	public static boolean enableAppleTrees;
+	public static boolean enableTopologyCache;
+	public static boolean batchLeafAging;
+	public static boolean enableGrowthScheduler;
+	public static float growthSchedulerBudgetMillis;
+	public static int growthSchedulerMaxTrees;
+	public static int growthSchedulerDeferMillis;
+	public static boolean growthCatchUp;
+	public static int growthCatchUpMaxUpdates;
+	public static float growthCatchUpBudgetMillis;
 
 	public static boolean isLeavesPassable;
 	public static boolean vanillaLeavesCollision;
@@ -45,22 +54,37 @@ public class ModConfigs {
 	public static boolean podzolGen;
 	public static boolean roofedForestMushroomGen;
 	public static boolean worldGen;
+	public static boolean poissonDiscPrecompute;
+	public static int poissonDiscWorkerThreads;
+	public static int poissonDiscCacheSize;
+	public static boolean poissonDiscRegionFiles;
 	public static boolean vanillaCactusWorldGen;
+	public static boolean worldGenGroundIndex;
+	public static boolean worldGenStaging;
 	public static HashSet<Integer> dimensionBlacklist = new HashSet<Integer>();
 	
 	public static boolean fancyThickRings;
 	
 	public static boolean worldGenDebug;
+	public static boolean deterministicGrowth;
 	
 	public static boolean enableSeasonalSeedDropFactor;
 	public static boolean enableSeasonalGrowthFactor;
 	public static boolean enableSeasonalFruitProductionFactor;
 	
+	/** Goes up every time the config is loaded so anything worked out from the config knows when it's stale */
+	public static int loadCount = 0;
+	
 	public static void preInit(FMLPreInitializationEvent event) {
+		preInit(event.getModConfigurationDirectory(), event.getSuggestedConfigurationFile());
+	}
+	
+	/** Loads the config without a preInit event.  Used by the benchmarks which run outside of Forge */
+	public static void preInit(File configDir, File configFile) {
 		
-		configDirectory = event.getModConfigurationDirectory();
+		configDirectory = configDir;
 		
-		Configuration config = new Configuration(event.getSuggestedConfigurationFile());
+		Configuration config = new Configuration(configFile);
 		config.load();
 		
 		//Seeds
@@ -80,6 +104,15 @@ public class ModConfigs {
 		diseaseChance = config.getFloat("diseaseChance", "trees", 0.0f, 0.0f, 1.0f, "The chance of a tree on depleted soil to die. 1/256(~0.004) averages to about 1 death every 16 minecraft days");
 		maxBranchRotRadius = config.getInt("maxBranchRotRadius", "trees", 8, 0, 24, "The maximum radius of a branch that is allowed to rot away. 8 = Full block size.  Set to 0 to prevent rotting");
 		enableAppleTrees = config.getBoolean("enableAppleTrees", "trees", true, "If enabled apple trees will be generated during worldgen and oak trees will not drop apples");
+		enableGrowthScheduler = config.getBoolean("enableGrowthScheduler", "trees", false, "If enabled tree updates requested by random ticks are queued and run within a time budget each tick instead of immediately");
+		growthSchedulerBudgetMillis = config.getFloat("growthSchedulerBudgetMillis", "trees", 2.0f, 0.1f, 50.0f, "Milliseconds per world tick that the growth scheduler may spend updating trees");
+		growthSchedulerMaxTrees = config.getInt("growthSchedulerMaxTrees", "trees", 256, 1, 65536, "Maximum number of tree updates the growth scheduler runs per world tick");
+		growthSchedulerDeferMillis = config.getInt("growthSchedulerDeferMillis", "trees", 40, 0, 1000, "If a world tick has already taken longer than this many milliseconds the growth scheduler waits for the next tick");
+		growthCatchUp = config.getBoolean("growthCatchUp", "trees", false, "If enabled trees are given the growth they missed while their chunk was unloaded when the chunk loads again");
+		growthCatchUpMaxUpdates = config.getInt("growthCatchUpMaxUpdates", "trees", 32, 1, 1024, "Maximum number of missed updates a tree can catch up on each time its chunk loads");
+		growthCatchUpBudgetMillis = config.getFloat("growthCatchUpBudgetMillis", "trees", 1.0f, 0.1f, 50.0f, "Milliseconds per world tick that may be spent catching trees up on missed growth");
+		batchLeafAging = config.getBoolean("batchLeafAging", "trees", true, "If enabled volumes of leaves are aged all at once in memory instead of one block at a time");
+		enableTopologyCache = config.getBoolean("enableTopologyCache", "trees", true, "If enabled the endpoints of trees are remembered between updates instead of analyzing the whole tree every update");
 		
 		//Interaction
 		isLeavesPassable = config.getBoolean("isLeavesPassable", "interaction", false, "If enabled all leaves will be passable");
@@ -100,6 +133,12 @@ public class ModConfigs {
 		podzolGen = config.getBoolean("podzolGen", "world", true, "Randomly generate podzol under select trees.");
 		roofedForestMushroomGen = config.getBoolean("roofedForestMushroomGen", "world", true, "Generate giant mushrooms in roofed forests.");
 		worldGen = config.getBoolean("worldGen", "world", true, "World Generation produces Dynamic Trees instead of Vanilla trees.");
+		poissonDiscPrecompute = config.getBoolean("poissonDiscPrecompute", "world", false, "If enabled tree placement for new chunks is worked out on background threads before the chunks are decorated");
+		poissonDiscWorkerThreads = config.getInt("poissonDiscWorkerThreads", "world", 1, 1, 8, "Number of background threads used when poissonDiscPrecompute is enabled. Requires a restart");
+		poissonDiscCacheSize = config.getInt("poissonDiscCacheSize", "world", 4096, 256, 1048576, "Number of chunks of tree placement data kept in memory per dimension. Only applies with poissonDiscRegionFiles enabled. The least recently used data is dropped once it's in the region files");
+		poissonDiscRegionFiles = config.getBoolean("poissonDiscRegionFiles", "world", false, "If enabled tree placement data is also kept in files alongside the region files so the placement of trees in unloaded neighbor chunks is known when decorating new chunks");
+		worldGenGroundIndex = config.getBoolean("worldGenGroundIndex", "world", true, "If enabled the ground of each decorated chunk is found all at once for the trees placed in it. Disable to search the world for each tree if another mod's blocks confuse the index");
+		worldGenStaging = config.getBoolean("worldGenStaging", "world", true, "If enabled worldgen trees are built in a buffer and only the finished blocks are written to the world. Disable if another mod needs to see the tree as it's being built");
 		vanillaCactusWorldGen = config.getBoolean("vanillaCactusWorldGen", "world", false, "World Generation produces Vanilla cactus as well as Dynamic cactus if world gen replacement is enabled.");
 		String[] dims = config.getStringList("dimensionsBlacklist", "world", new String[] {"7"}, "Blacklist of dimension numbers for disabling Dynamic Tree worldgen");
 				
@@ -116,6 +155,7 @@ public class ModConfigs {
 		
 		//Debug
 		worldGenDebug = config.getBoolean("worldGenDebug", "debug", false, "Enable to mark tree spawn locations with wool circles.");
+		deterministicGrowth = config.getBoolean("deterministicGrowth", "debug", false, "Enable to make tree growth decisions from the world seed, world time and tree position so the same world always grows the same trees. For profiling and testing.");
 
 		// Serene seasons integration options. At some point this may be made fully configurable via json files. 
 		enableSeasonalSeedDropFactor = config.getBoolean("enableSeasonalSeedDropFactor", "integration", true, "If enabled, seed drop rates will be multiplied based on the current season (requires serene seasons).");
@@ -123,5 +163,7 @@ public class ModConfigs {
 		enableSeasonalFruitProductionFactor = config.getBoolean("enableSeasonalFruitProductionFactor", "integration", true, "If enabled, fruit production rates will be multiplied based on the current season (requires serene seasons).");
 		
 		config.save();
+		
+		loadCount++;
 	}
 }
@@ -0,0 +1,106 @@
+package com.ferreusveritas.dynamictrees.api;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * What's known about a tree that just grew.  One is made for each growth update and handed to every
+ * {@link IPostGrowFeature} so the features don't each analyze the tree for themselves.
+ *
+ * The trunk and the branch endpoints are only worked out the first time they're asked for.  The endpoints come from the
+ * topology cache when it's enabled so they include the growth that just happened.  A feature that changes the trunk
+ * or the branches should call {@link #invalidate()} so the features after it don't get stale answers.
+ */
+public class GrowContext {
+
+	private final World world;
+	private final BlockPos rootPos;
+	private final BlockPos treePos;
+	private final Species species;
+	private final int soilLife;
+	private final boolean natural;
+
+	private IBlockState trunkState;
+	private List<BlockPos> ends;
+
+	public GrowContext(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural) {
+		this.world = world;
+		this.rootPos = rootPos;
+		this.treePos = treePos;
+		this.species = species;
+		this.soilLife = soilLife;
+		this.natural = natural;
+	}
+
+	public World getWorld() {
+		return world;
+	}
+
+	/** @return The position of the rooty dirt block */
+	public BlockPos getRootPos() {
+		return rootPos;
+	}
+
+	/** @return The position of the base trunk block of the tree */
+	public BlockPos getTreePos() {
+		return treePos;
+	}
+
+	public Species getSpecies() {
+		return species;
+	}
+
+	/** @return The life of the soil block this tree is planted in */
+	public int getSoilLife() {
+		return soilLife;
+	}
+
+	/** @return true if the tree is growing naturally.  false if it's growing from an accelerant like bonemeal */
+	public boolean isNatural() {
+		return natural;
+	}
+
+	/** @return The block state of the base trunk block */
+	public IBlockState getTrunkState() {
+		if(trunkState == null) {
+			trunkState = world.getBlockState(treePos);
+		}
+		return trunkState;
+	}
+
+	/** @return The radius of the base trunk block.  0 if it's not a tree part */
+	public int getTrunkRadius() {
+		IBlockState state = getTrunkState();
+		return TreeHelper.getTreePart(state).getRadius(state);
+	}
+
+	/** @return The branch endpoints of the tree.  Shared by every feature so don't modify it */
+	public List<BlockPos> getEnds() {
+		if(ends == null) {
+			IBlockState rootyState = world.getBlockState(rootPos);
+			BlockRooty rootyDirt = TreeHelper.getRooty(rootyState);
+			ITreePart treeBase = TreeHelper.getTreePart(getTrunkState());
+			if(rootyDirt != null && treeBase != TreeHelper.nullTreePart) {
+				ends = species.getEnds(world, rootyDirt, rootPos, treePos, treeBase);
+			} else {
+				ends = Collections.emptyList();
+			}
+		}
+		return ends;
+	}
+
+	/** Forgets the trunk and the endpoints so they're worked out again when next asked for */
+	public void invalidate() {
+		trunkState = null;
+		ends = null;
+	}
+
+}
@@ -23,4 +23,18 @@ public interface IPostGrowFeature extends IGenFeature {
 	 */
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural);
 	
+	/**
+	 * Allows a species to do things after a grow event just occured.  The context is shared by every feature of the
+	 * species for the same grow event.  By default this calls the method above and then invalidates the context since
+	 * the feature may have changed the tree.
+	 * 
+	 * @param context What's known about the tree that just grew
+	 * @return true if operation was successful. false otherwise
+	 */
+	public default boolean postGrow(GrowContext context) {
+		boolean result = postGrow(context.getWorld(), context.getRootPos(), context.getTreePos(), context.getSpecies(), context.getSoilLife(), context.isNatural());
+		context.invalidate();
+		return result;
+	}
+	
 }
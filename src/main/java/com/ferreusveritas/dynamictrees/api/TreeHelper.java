@@ -1,12 +1,15 @@
 package com.ferreusveritas.dynamictrees.api;
 
 import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.blocks.*;
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell.ShellMuse;
+import com.ferreusveritas.dynamictrees.systems.LeafHydrationSolver;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeTwinkle;
 import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.Deprecatron;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
@@ -20,7 +23,10 @@ import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 public class TreeHelper {
 	
@@ -55,6 +61,77 @@ public class TreeHelper {
 	 * @param iterations The number of times to age the map
 	 */
 	public static void ageVolume(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds){
+		ageVolume(world, leafMap, iterations, safeBounds, world.rand);
+	}
+	
+	/**
+	 * Same as {@link #ageVolume(World, SimpleVoxmap, int, SafeChunkBounds)} but with the random number generator to
+	 * use.  A world that stands in for another like the worldgen stage ages with the real world's random.
+	 */
+	public static void ageVolume(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds, Random rand){
+		
+		if(!ModConfigs.batchLeafAging) {
+			ageVolumeByBlock(world, leafMap, iterations, safeBounds, rand);
+			return;
+		}
+		
+		BlockBounds volume = null;
+		for(MutableBlockPos iPos: leafMap.getAllNonZero()) {
+			volume = volume == null ? new BlockBounds(iPos) : volume.union(iPos);
+		}
+		
+		if(volume == null) {
+			return;//Nothing to age
+		}
+		
+		//Stock leaves are aged in bulk by the solver.  Anything else gets aged one block at a time
+		LeafHydrationSolver solver = new LeafHydrationSolver(world, volume, safeBounds);
+		List<BlockPos> others = new ArrayList<>();
+		
+		for(MutableBlockPos iPos: leafMap.getAllNonZero()) {
+			IBlockState blockState = solver.getBlockState(iPos);
+			if(!solver.add(iPos, blockState)) {
+				if(blockState.getBlock() instanceof IAgeable) {
+					others.add(iPos.toImmutable());
+				} else {//You're not supposed to be here
+					leafMap.setVoxel(iPos, (byte) 0);
+				}
+			}
+		}
+		
+		for(int i = 0; i < iterations; i++) {
+			solver.ageChanged(rand);//Only leaves that are still changing are aged, like the block at a time version
+			for(BlockPos pos: others) {
+				IBlockState blockState = world.getBlockState(pos);
+				Block block = blockState.getBlock();
+				if(block instanceof IAgeable) {
+					int newHydro = ((IAgeable)block).age(world, pos, blockState, rand, safeBounds);
+					if(block instanceof BlockDynamicLeaves) {
+						leafMap.setVoxel(pos, (byte) Math.max(newHydro, 0));
+					}
+				}
+			}
+		}
+		
+		//The leafMap must survive with accurate hydro data for snow
+		for(MutableBlockPos iPos: leafMap.getAllNonZero()) {
+			int hydro = solver.getHydro(iPos);
+			if(hydro != -1) {
+				leafMap.setVoxel(iPos, (byte) hydro);
+			}
+		}
+		
+	}
+	
+	/**
+	 * The original block at a time version of {@link #ageVolume(World, SimpleVoxmap, int, SafeChunkBounds)}.  Every
+	 * leaves block does it's own neighbor lookups and writes to the world on every iteration.
+	 */
+	public static void ageVolumeByBlock(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds){
+		ageVolumeByBlock(world, leafMap, iterations, safeBounds, world.rand);
+	}
+	
+	public static void ageVolumeByBlock(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds, Random rand){
 		
 		//The iterMap is the voxmap we will use as a discardable.  The leafMap must survive for snow
 		SimpleVoxmap iterMap = leafMap != null ? new SimpleVoxmap(leafMap) : null;
@@ -66,7 +143,7 @@ public class TreeHelper {
 				Block block = blockState.getBlock();
 				if(block instanceof BlockDynamicLeaves) {//Special case for leaves
 					int prevHydro = leafMap.getVoxel(iPos);//The leafMap should contain accurate hydro data
-					int newHydro = ((IAgeable)block).age(world, iPos, blockState, world.rand, safeBounds);//Get new values from neighbors
+					int newHydro = ((IAgeable)block).age(world, iPos, blockState, rand, safeBounds);//Get new values from neighbors
 					if(newHydro == -1) {
 						//Leaf block died.  Take it out of the leafMap and iterMap
 						leafMap.setVoxel(iPos, (byte) 0);
@@ -88,7 +165,7 @@ public class TreeHelper {
 					}
 				}
 				else if(block instanceof IAgeable) {//Treat as just a regular ageable block
-					((IAgeable)block).age(world, iPos, blockState, world.rand, safeBounds);
+					((IAgeable)block).age(world, iPos, blockState, rand, safeBounds);
 				} else {//You're not supposed to be here
 					leafMap.setVoxel(iPos, (byte) 0);
 					iterMap.setVoxel(iPos, (byte) 0);
@@ -109,6 +186,41 @@ public class TreeHelper {
 	 * @param iterations The number of times to age the volume
 	 */
 	public static void ageVolume(World world, BlockPos treePos, int halfWidth, int height, int iterations, SafeChunkBounds safeBounds){
+		
+		if(!ModConfigs.batchLeafAging) {
+			ageVolumeByBlock(world, treePos, halfWidth, height, iterations, safeBounds);
+			return;
+		}
+		
+		//Each block in the cuboid is only looked up once.  Stock leaves are aged in bulk by the solver
+		BlockBounds volume = new BlockBounds(treePos.add(-halfWidth, 0, -halfWidth), treePos.add(halfWidth, height, halfWidth));
+		LeafHydrationSolver solver = new LeafHydrationSolver(world, volume, safeBounds);
+		List<BlockPos> others = new ArrayList<>();
+		
+		for(MutableBlockPos iPos: volume.iterate()) {
+			IBlockState blockState = solver.getBlockState(iPos);
+			if(!solver.add(iPos, blockState) && blockState.getBlock() instanceof IAgeable) {
+				others.add(iPos.toImmutable());
+			}
+		}
+		
+		for(int i = 0; i < iterations; i++) {
+			solver.age(world.rand);
+			for(BlockPos pos: others) {
+				IBlockState blockState = world.getBlockState(pos);
+				Block block = blockState.getBlock();
+				if(block instanceof IAgeable) {
+					((IAgeable)block).age(world, pos, blockState, world.rand, safeBounds);//Treat as just a regular ageable block
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * The original block at a time version of {@link #ageVolume(World, BlockPos, int, int, int, SafeChunkBounds)}
+	 */
+	public static void ageVolumeByBlock(World world, BlockPos treePos, int halfWidth, int height, int iterations, SafeChunkBounds safeBounds){
 		//Slow and dirty iteration over a cuboid volume.  Try to avoid this by using a voxmap if you can
 		Iterable<MutableBlockPos> iterable = BlockPos.getAllInBoxMutable(treePos.add(new BlockPos(-halfWidth, 0, -halfWidth)), treePos.add(new BlockPos(halfWidth, height, halfWidth)));
 		for(int i = 0; i < iterations; i++) {
@@ -26,4 +26,10 @@ public interface ISeasonManager {
 	
 	public boolean shouldSnowMelt(World world, BlockPos pos);
 	
+	/** Called when a chunk unloads so anything cached for it can be dropped */
+	public default void unloadChunk(World world, int chunkX, int chunkZ) {}
+	
+	/** Called when a world unloads so anything cached for it can be dropped */
+	public default void unloadWorld(World world) {}
+	
 }
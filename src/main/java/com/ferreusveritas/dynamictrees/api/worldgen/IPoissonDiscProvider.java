@@ -12,6 +12,9 @@ public interface IPoissonDiscProvider {
 	
 	void setChunkPoissonData(int chunkX, int chunkY, int chunkZ, byte[] circleData);
 	
+	/** Called once the disc data of a chunk has been written to the chunk's NBT */
+	default void chunkPoissonDataSaved(int chunkX, int chunkY, int chunkZ) {}
+	
 	void unloadChunkPoissonData(int chunkX, int chunkY, int chunkZ);
 	
 }
@@ -1,9 +1,24 @@
 package com.ferreusveritas.dynamictrees.api.worldgen;
 
+import java.util.Random;
+
 public interface IRadiusCoordinator {
 	
 	int getRadiusAtCoords(int x, int z);
 	
 	boolean runPass(int chunkX, int chunkZ, int pass);
 	
+	/**
+	 * Creates a coordinator that can solve the discs of a single chunk away from the server thread.  Anything that's
+	 * needed from the world must be gathered in here since this is called from the server thread.
+	 * 
+	 * @param chunkX The x coordinate of the chunk to be solved
+	 * @param chunkZ The z coordinate of the chunk to be solved
+	 * @param random A random number generator dedicated to the chunk
+	 * @return A detached coordinator or null if this coordinator can only be used on the server thread
+	 */
+	default IRadiusCoordinator detach(int chunkX, int chunkZ, Random random) {
+		return null;
+	}
+	
 }
@@ -14,10 +14,11 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
 import com.ferreusveritas.dynamictrees.event.FutureBreak;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeDestroyer;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeExtState;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeHarvester;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeSpecies;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
 import com.ferreusveritas.dynamictrees.util.BlockBounds;
@@ -51,6 +52,7 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.Explosion;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
+import net.minecraftforge.common.property.IExtendedBlockState;
 import net.minecraftforge.common.property.IUnlistedProperty;
 import net.minecraftforge.common.property.Properties;
 
@@ -239,24 +241,41 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 	public BranchDestructionData destroyBranchFromNode(World world, BlockPos cutPos, EnumFacing toolDir, boolean wholeTree) {
 		
 		IBlockState blockState = world.getBlockState(cutPos);
-		NodeSpecies nodeSpecies = new NodeSpecies();
-		MapSignal signal = analyse(blockState, world, cutPos, null, new MapSignal(nodeSpecies));// Analyze entire tree network to find root node and species
-		Species species = nodeSpecies.getSpecies();//Get the species from the root node
+		NodeHarvester harvester = new NodeHarvester(cutPos);
+		MapSignal signal = analyse(blockState, world, cutPos, null, new MapSignal(harvester));// Analyze entire tree network to find root node, species and the branch nodes
+		Species species = harvester.getSpecies();//Get the species from the root node
+		EnumFacing excludeDir = wholeTree ? null : signal.localRootDir;
 		
-		// Analyze only part of the tree beyond the break point and map out the extended block states
-		// We can't destroy the branches during this step since we need accurate extended block states that include connections
-		NodeExtState extStateMapper = new NodeExtState(cutPos);
-		analyse(blockState, world, cutPos, wholeTree ? null : signal.localRootDir, new MapSignal(extStateMapper));
+		Map<BlockPos, IExtendedBlockState> extStateMap;
+		List<BlockPos> endPoints;
+		float volume;
 		
-		// Analyze only part of the tree beyond the break point and calculate it's volume, then destroy the branches
-		NodeNetVolume volumeSum = new NodeNetVolume();
-		NodeDestroyer destroyer = new NodeDestroyer(species);
-		destroyMode = EnumDestroyMode.HARVEST;
-		analyse(blockState, world, cutPos, wholeTree ? null : signal.localRootDir, new MapSignal(volumeSum, destroyer));
-		destroyMode = EnumDestroyMode.SLOPPY;
+		if(!signal.overflow) {
+			// Map out the extended block states and volume of the part of the tree beyond the break point, then destroy the branches
+			destroyMode = EnumDestroyMode.HARVEST;
+			harvester.harvest(world, species, excludeDir);
+			destroyMode = EnumDestroyMode.SLOPPY;
+			extStateMap = harvester.getExtStateMap();
+			endPoints = harvester.getEnds();
+			volume = harvester.getVolume();
+		} else {
+			// The full analysis didn't complete so fall back to analyzing only the part of the tree beyond the break point
+			// We can't destroy the branches during this step since we need accurate extended block states that include connections
+			NodeExtState extStateMapper = new NodeExtState(cutPos);
+			analyse(blockState, world, cutPos, excludeDir, new MapSignal(extStateMapper));
+			
+			// Analyze only part of the tree beyond the break point and calculate it's volume, then destroy the branches
+			NodeNetVolume volumeSum = new NodeNetVolume();
+			NodeDestroyer destroyer = new NodeDestroyer(species);
+			destroyMode = EnumDestroyMode.HARVEST;
+			analyse(blockState, world, cutPos, excludeDir, new MapSignal(volumeSum, destroyer));
+			destroyMode = EnumDestroyMode.SLOPPY;
+			extStateMap = extStateMapper.getExtStateMap();
+			endPoints = destroyer.getEnds();
+			volume = volumeSum.getVolume();
+		}
 		
 		//Destroy all the leaves on the branch, store them in a map and convert endpoint coordinates from absolute to relative
-		List<BlockPos> endPoints = destroyer.getEnds();
 		Map<BlockPos, IBlockState> destroyedLeaves = new HashMap<>();
 		List<BlockItemStack> leavesDropsList = new ArrayList<>();
 		destroyLeaves(world, cutPos, species, endPoints, destroyedLeaves, leavesDropsList);
@@ -264,7 +283,7 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 		
 		//Calculate main trunk height
 		int trunkHeight = 1;
-		for(BlockPos iter = new BlockPos(0, 1, 0); extStateMapper.getExtStateMap().containsKey(iter); iter = iter.up()) {
+		for(BlockPos iter = new BlockPos(0, 1, 0); extStateMap.containsKey(iter); iter = iter.up()) {
 			trunkHeight++;
 		}
 		
@@ -273,7 +292,7 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 			cutDir = EnumFacing.DOWN;
 		}
 		
-		return new BranchDestructionData(species, extStateMapper.getExtStateMap(), destroyedLeaves, leavesDropsList, endPoints, volumeSum.getVolume(), cutPos, cutDir, toolDir, trunkHeight);
+		return new BranchDestructionData(species, extStateMap, destroyedLeaves, leavesDropsList, endPoints, volume, cutPos, cutDir, toolDir, trunkHeight);
 	}
 	
 	/**
@@ -527,8 +546,21 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 	
 	public static EnumDestroyMode destroyMode = EnumDestroyMode.SLOPPY;
 	
+	@Override
+	public void onBlockAdded(World world, BlockPos pos, IBlockState state) {
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(world);
+		if(topologyCache != null) {
+			topologyCache.onBranchAdded(world, pos);
+		}
+	}
+	
 	@Override
 	public void breakBlock(World world, BlockPos pos, IBlockState state) {
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(world);
+		if(topologyCache != null) {
+			topologyCache.onBranchRemoved(world, pos);
+		}
+		
 		if(!world.isRemote && destroyMode == EnumDestroyMode.SLOPPY) {
 			//System.out.println("Sloppy break detected at: " + pos);
 			IBlockState toBlockState = world.getBlockState(pos);
@@ -14,6 +14,7 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.cells.CellMetadata;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
 
@@ -43,6 +44,8 @@ public class BlockBranchBasic extends BlockBranch {
 	
 	protected IBlockState branchStates[];
 	
+	private final boolean networkWalkable = hasStockAnalysis(getClass());
+	
 	// Trees are mostly made of wood
 	public BlockBranchBasic(String name) {
 		this(Material.WOOD, name);//Trees are made of wood. Brilliant.
@@ -247,6 +250,10 @@ public class BlockBranchBasic extends BlockBranch {
 		destroyMode = EnumDestroyMode.SETRADIUS;
 		world.setBlockState(pos, getStateForRadius(radius), flags);
 		destroyMode = EnumDestroyMode.SLOPPY;
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(world);
+		if(topologyCache != null) {
+			topologyCache.onRadiusChanged(pos);
+		}
 		return radius;
 	}
 	
@@ -268,6 +275,7 @@ public class BlockBranchBasic extends BlockBranch {
 		if (leaves != null) {
 			if (fromRadius == 1) {// If we came from a twig then just make some leaves
 				signal.success = leaves.growLeavesIfLocationIsSuitable(world, species.getLeavesProperties(), pos, 0);
+				signal.invalidate(pos);
 			} else {// Otherwise make a proper branch
 				return leaves.branchOut(world, pos, signal);
 			}
@@ -280,7 +288,7 @@ public class BlockBranchBasic extends BlockBranch {
 				
 		if (signal.step()) {// This is always placed at the beginning of every growSignal function
 			
-			IBlockState currBlockState = world.getBlockState(pos);
+			IBlockState currBlockState = signal.getBlockState(world, pos);
 			Species species = signal.getSpecies();
 			boolean inTrunk = signal.isInTrunk();
 			
@@ -290,13 +298,16 @@ public class BlockBranchBasic extends BlockBranch {
 			
 			{
 				BlockPos deltaPos = pos.offset(targetDir);
-				IBlockState deltaState = world.getBlockState(deltaPos);
+				IBlockState deltaState = signal.getBlockState(world, deltaPos);
 				
 				// Pass grow signal to next block in path
 				ITreePart treepart = TreeHelper.getTreePart(deltaState);
 				if (treepart != TreeHelper.nullTreePart) {
 					signal = treepart.growSignal(world, deltaPos, signal);// Recurse
-				} else if (world.isAirBlock(deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
+					if (!(treepart instanceof BlockBranchBasic || treepart instanceof BlockDynamicLeaves)) {
+						signal.invalidateAll();// We don't know what other tree parts may have changed on the way
+					}
+				} else if (deltaState.getBlock().isAir(deltaState, world, deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
 					signal = growIntoAir(world, deltaPos, signal, getRadius(currBlockState));
 				}
 			}
@@ -312,7 +323,7 @@ public class BlockBranchBasic extends BlockBranch {
 					// swing, rotting, burned or infested branch, etc) then this new block could be
 					// derived from BlockBranch and this works perfectly. Should even work with
 					// tileEntity blocks derived from BlockBranch.
-					IBlockState blockState = world.getBlockState(deltaPos);
+					IBlockState blockState = signal.getBlockState(world, deltaPos);
 					ITreePart treepart = TreeHelper.getTreePart(blockState);
 					if (isSameTree(treepart)) {
 						int branchRadius = treepart.getRadius(blockState);
@@ -331,6 +342,7 @@ public class BlockBranchBasic extends BlockBranch {
 				signal.radius = MathHelper.clamp((float) Math.sqrt(areaAccum) + species.getTapering(), getRadius(currBlockState), maxRadius);// WOW!
 				int targetRadius = (int) Math.floor(signal.radius);
 				int setRad = setRadius(world, pos, targetRadius, originDir);
+				signal.invalidate(pos);
 				if(setRad < targetRadius) { //We tried to set a radius but it didn't comply because something is in the way.
 					signal.choked = true; //If something is in the way then it means that the tree growth is choked
 				}
@@ -427,60 +439,36 @@ public class BlockBranchBasic extends BlockBranch {
 	}
 	
 	/**
-	 * This is a recursive algorithm used to explore the branch network.  It calls a run() function for the signal on the way out
-	 * and a returnRun() on the way back.
+	 * Whether this block can be traversed directly by the {@link BranchNetworkWalker}.  Subclasses that override
+	 * {@link #analyse} are dispatched through their own implementation instead.
 	 * 
-	 * Okay so a little explanation here..  
-	 * I've been hit up by people who claim that recursion is a bad idea.  The reason why they think this is because java has to push values
-	 * on the stack for each level of recursion and then pop them off as the levels complete.  Many times this can lead to performance issues.
-	 * Fine, I understand that.  The reason why it doesn't matter here is because of the object oriented nature of how the tree parts
-	 * function demand that a different analyze function be called for each object type.  Even if this were rewritten to be iterative the
-	 * same number of stack pushes and pops would need to be performed to run the custom function for each node in the network anyway.  The
-	 * depth of recursion for this algorithm is less than 32.  So there's no real risk of a stack overflow.
+	 * @return true if the stock analysis applies to this block
+	 */
+	public boolean isNetworkWalkable() {
+		return networkWalkable;
+	}
+	
+	private static boolean hasStockAnalysis(Class<?> clazz) {
+		try {
+			return clazz.getMethod("analyse", IBlockState.class, World.class, BlockPos.class, EnumFacing.class, MapSignal.class).getDeclaringClass() == BlockBranchBasic.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * This algorithm is used to explore the branch network.  It calls a run() function for the signal on the way out
+	 * and a returnRun() on the way back.
 	 * 
-	 * The difference being that in an iterative design I would need to maintain a stack array holding all of the values and push and pop
-	 * them manually or use a stack index.  This is messy and not something I would want to maintain for practically non-existent gains.
-	 * Java does a pretty good job of managing the stack on its own.
+	 * The exploration used to be recursive.  Now it's performed by the {@link BranchNetworkWalker} which keeps it's own
+	 * stack of nodes and reuses it between analyses.  It visits the nodes in precisely the same order as the recursive
+	 * version did so all of the node inspectors work the same.  The depth of the network is still limited to
+	 * {@link #getMaxSignalDepth()} which is what catches network loops.
 	 */
 	@Override
 	public MapSignal analyse(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
 		// Note: fromDir will be null in the origin node
-		
-		if(signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
-			return signal;
-		}
-		
-		if (signal.depth++ < getMaxSignalDepth()) {// Prevents going too deep into large networks, or worse, being caught in a network loop
-			signal.run(blockState, world, pos, fromDir);// Run the inspectors of choice
-			for (EnumFacing dir : EnumFacing.VALUES) {// Spread signal in various directions
-				if (dir != fromDir) {// don't count where the signal originated from
-					BlockPos deltaPos = pos.offset(dir);
-					
-					IBlockState deltaState = world.getBlockState(deltaPos);
-					ITreePart treePart = TreeHelper.getTreePart(deltaState);
-					
-					if(treePart.shouldAnalyse()) {
-						signal = treePart.analyse(deltaState, world, deltaPos, dir.getOpposite(), signal);
-					
-						// This should only be true for the originating block when the root node is found
-						if (signal.found && signal.localRootDir == null && fromDir == null) {
-							signal.localRootDir = dir;
-						}
-					}
-				}
-			}
-			signal.returnRun(blockState, world, pos, fromDir);
-		} else {
-			IBlockState state = world.getBlockState(pos);
-			if(signal.destroyLoopedNodes && state.getBlock() instanceof BlockBranch) {
-				BlockBranch branch = (BlockBranch) state.getBlock();
-				branch.breakDeliberate(world, pos, EnumDestroyMode.OVERFLOW);// Destroy one of the offending nodes
-			}
-			signal.overflow = true;
-		}
-		signal.depth--;
-		
-		return signal;
+		return BranchNetworkWalker.get().walk(this, blockState, world, pos, fromDir, signal);
 	}
 	
 }
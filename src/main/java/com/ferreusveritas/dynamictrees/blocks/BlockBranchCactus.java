@@ -196,6 +196,7 @@ public class BlockBranchCactus extends BlockBranch {
 		}
 		
 		signal.success = world.setBlockState(pos, this.blockState.getBaseState().withProperty(TRUNK, trunk).withProperty(ORIGIN, originDir), 2);
+		signal.invalidate(pos);
 		signal.radius = (int) (trunk ? signal.getSpecies().getFamily().getPrimaryThickness(): signal.getSpecies().getFamily().getSecondaryThickness());
 		return signal;
 	}
@@ -211,7 +212,7 @@ public class BlockBranchCactus extends BlockBranch {
 			signal.doTurn(targetDir);
 			
 			BlockPos deltaPos = pos.offset(targetDir);
-			IBlockState deltaState = world.getBlockState(deltaPos);
+			IBlockState deltaState = signal.getBlockState(world, deltaPos);
 			
 			// Pass grow signal to next block in path
 			ITreePart treepart = TreeHelper.getTreePart(deltaState);
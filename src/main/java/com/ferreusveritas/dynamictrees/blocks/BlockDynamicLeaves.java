@@ -15,8 +15,10 @@ import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
 import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
+import com.ferreusveritas.dynamictrees.event.LeafUpdateEventHandler;
 import com.ferreusveritas.dynamictrees.items.Seed;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.LeafHydrationSolver;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
 import com.ferreusveritas.dynamictrees.util.IRayTraceCollision;
@@ -72,6 +74,11 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	
 	public ILeavesProperties properties[] = new ILeavesProperties[] { LeavesProperties.NULLPROPERTIES, LeavesProperties.NULLPROPERTIES, LeavesProperties.NULLPROPERTIES, LeavesProperties.NULLPROPERTIES };
 	
+	private final boolean batchAgeable = hasStockAging(getClass());
+	
+	/** Scratch space for gathering neighbor cells so that solving a cell doesn't allocate */
+	private static final ThreadLocal<ICell[]> neighborCells = ThreadLocal.withInitial(() -> new ICell[6]);
+	
 	public BlockDynamicLeaves() {
 		this.setDefaultState(this.blockState.getBaseState().withProperty(HYDRO, 4).withProperty(TREE, 0));
 	}
@@ -181,22 +188,64 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			}
 		}
 		
-		NewLeavesPropertiesHandler newLeavesHander = getNewLeavesPropertiesHandler(world, pos, state, newHydro, worldGen);
+		growNewLeaves(world, pos, state, newHydro, rand, safeBounds, ALLSIDES);
+		
+		return newHydro;//Leaves were not destroyed
+	}
+	
+	/** Side mask for {@link #growNewLeaves} that includes all 6 sides */
+	public static final int ALLSIDES = 0x3F;
+	
+	/**
+	 * Attempts to grow new leaves blocks around a leaves block that has just been aged.
+	 * 
+	 * @param world The world
+	 * @param pos Position of the aged leaves block
+	 * @param state The state of the leaves block
+	 * @param newHydro The hydration value of the aged leaves block
+	 * @param rand Random number generator
+	 * @param safeBounds The defined boundaries where it is safe to make block changes
+	 * @param sides Bit mask of the sides to attempt, indexed by {@link EnumFacing#getIndex()}
+	 * @return Bit mask of the sides where new leaves were placed
+	 */
+	public int growNewLeaves(World world, BlockPos pos, IBlockState state, int newHydro, Random rand, SafeChunkBounds safeBounds, int sides) {
+		ILeavesProperties leavesProperties = getProperties(state);
+		NewLeavesPropertiesHandler newLeavesHander = getNewLeavesPropertiesHandler(world, pos, state, newHydro, safeBounds != SafeChunkBounds.ANY);
+		int grown = 0;
 		
 		//We should do this even if the hydro is only 1.  Since there could be adjacent branch blocks that could use a leaves block
 		for(EnumFacing dir: EnumFacing.VALUES) {//Go on all 6 sides of this block
-			if(newHydro > 1 || rand.nextInt(4) == 0 ) {//we'll give it a 1 in 4 chance to grow leaves if hydro is low to help performance
+			if((sides & (1 << dir.getIndex())) != 0 && (newHydro > 1 || rand.nextInt(4) == 0)) {//we'll give it a 1 in 4 chance to grow leaves if hydro is low to help performance
 				BlockPos offpos = pos.offset(dir);
 				if(safeBounds.inBounds(offpos, true) && isLocationSuitableForNewLeaves(world, leavesProperties, offpos)) {//Attempt to grow new leaves
 					int hydro = getHydrationLevelFromNeighbors(world, offpos, leavesProperties);
 					if(hydro > 0) {
 						world.setBlockState(offpos, newLeavesHander.getLeaves(world, offpos, leavesProperties.getDynamicLeavesState(hydro)), 2);//Removed Notify Neighbors Flag for performance
+						grown |= 1 << dir.getIndex();
 					}
 				}
 			}
 		}
 		
-		return newHydro;//Leaves were not destroyed
+		return grown;
+	}
+	
+	/**
+	 * @return true if this block ages and hydrates like stock leaves and can therefore be aged in bulk by the
+	 * {@link LeafHydrationSolver}.  Subclasses that override {@link #age} or {@link #getHydrationCell} are aged
+	 * one block at a time.
+	 */
+	public boolean isBatchAgeable() {
+		return batchAgeable;
+	}
+	
+	private static boolean hasStockAging(Class<?> clazz) {
+		try {
+			return clazz.getMethod("age", World.class, BlockPos.class, IBlockState.class, Random.class, SafeChunkBounds.class).getDeclaringClass() == BlockDynamicLeaves.class &&
+				clazz.getMethod("getHydrationCell", IBlockAccess.class, BlockPos.class, IBlockState.class, EnumFacing.class, ILeavesProperties.class).getDeclaringClass() == BlockDynamicLeaves.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
 	}
 	
 	/**
@@ -218,6 +267,11 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 		IBlockState getLeaves(World world, BlockPos pos, IBlockState leavesStateWithHydro);
 	}
 	
+	@Override
+	public void onBlockAdded(World worldIn, BlockPos pos, IBlockState state) {
+		LeafUpdateEventHandler.onLeavesAdded(worldIn, pos);
+	}
+	
 	@Override
 	public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {}
 	
@@ -444,8 +498,8 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	/** Gathers hydration levels from neighbors before pushing the values into the solver */
 	public int getHydrationLevelFromNeighbors(IBlockAccess access, BlockPos pos, ILeavesProperties leavesProp) {
 		
-		ICell cells[] = new ICell[6];
-				
+		ICell cells[] = neighborCells.get();
+		
 		for(EnumFacing dir: EnumFacing.VALUES) {
 			BlockPos deltaPos = pos.offset(dir);
 			IBlockState state = access.getBlockState(deltaPos);
@@ -525,6 +579,7 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			//Finally set the leaves block to a branch
 			TreeFamily family = signal.getSpecies().getFamily();
 			family.getDynamicBranch().setRadius(world, pos, (int) family.getPrimaryThickness(), null);
+			signal.invalidate(pos);
 			signal.radius = family.getSecondaryThickness();//For the benefit of the parent branch
 		}
 		
@@ -16,6 +16,8 @@ import com.ferreusveritas.dynamictrees.blocks.MimicProperty.IMimic;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
 import com.ferreusveritas.dynamictrees.tileentity.TileEntitySpecies;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
@@ -91,6 +93,10 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 	/** Called serverside after this block is replaced with another in Chunk, but before the Tile Entity is updated */
 	public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {
 		super.breakBlock(worldIn, pos, state);
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(worldIn);
+		if(topologyCache != null) {
+			topologyCache.onRootRemoved(pos);
+		}
 		if(hasTileEntity(state)) {
 			worldIn.removeTileEntity(pos);
 		}
@@ -149,7 +155,12 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 	@Override
 	public void randomTick(World world, BlockPos pos, IBlockState state, Random random) {
 		if(random.nextInt(ModConfigs.treeGrowthFolding) == 0) {
-			updateTree(state, world, pos, random, true);
+			TreeGrowthScheduler scheduler = TreeGrowthScheduler.get(world);
+			if(scheduler != null) {
+				scheduler.schedule(pos);//The update will be run when there's time for it
+			} else {
+				updateTree(state, world, pos, random, true);
+			}
 		}
 	}
 	
@@ -0,0 +1,184 @@
+package com.ferreusveritas.dynamictrees.blocks;
+
+import java.util.Arrays;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumDestroyMode;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.World;
+
+/**
+ * An explicit stack implementation of the branch network analysis performed by {@link BlockBranchBasic#analyse}.
+ *
+ * The walker visits nodes in exactly the same order as the recursive algorithm and drives the {@link MapSignal}
+ * run()/returnRun() contract identically so every node inspector works unchanged.  Neighbor lookups are done through
+ * a reusable {@link MutableBlockPos} cursor so the only position objects created are the immutable ones handed to the
+ * inspectors for nodes that are actually visited(inspectors are free to hold on to those).
+ *
+ * Branches that override analyse() and other tree parts such as rooty blocks are still dispatched through their own
+ * analyse() method so their custom behavior is preserved.
+ */
+public class BranchNetworkWalker {
+
+	private static final int INITIAL_CAPACITY = 64;
+	private static final byte NODIR = -1;
+
+	private static final ThreadLocal<BranchNetworkWalker> WALKERS = ThreadLocal.withInitial(BranchNetworkWalker::new);
+
+	private final MutableBlockPos cursor = new MutableBlockPos();
+	private BlockPos[] positions = new BlockPos[INITIAL_CAPACITY];
+	private IBlockState[] states = new IBlockState[INITIAL_CAPACITY];
+	private byte[] fromDirs = new byte[INITIAL_CAPACITY];
+	private byte[] nextDirs = new byte[INITIAL_CAPACITY];
+	private int top = -1;
+	private boolean busy = false;
+
+	/**
+	 * Gets the walker for the current thread.  If that walker is already in the middle of a walk(an inspector or a
+	 * custom tree part started a nested analysis) then a temporary walker is provided instead.
+	 *
+	 * @return A walker that is free to use
+	 */
+	public static BranchNetworkWalker get() {
+		BranchNetworkWalker walker = WALKERS.get();
+		return walker.busy ? new BranchNetworkWalker() : walker;
+	}
+
+	/**
+	 * Walk the branch network starting at the given branch node.
+	 *
+	 * @param branch The branch block at the starting position
+	 * @param blockState The blockState at the starting position
+	 * @param world The world
+	 * @param pos The starting position
+	 * @param fromDir The direction that should not be analyzed.  Null to analyse in all directions
+	 * @param signal The signal carrying the node inspectors
+	 * @return The signal
+	 */
+	public MapSignal walk(BlockBranchBasic branch, IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
+		busy = true;
+		try {
+			if(enter(branch, blockState, world, pos, fromDir, signal)) {
+				signal = run(world, signal);
+			}
+		} finally {
+			clear();
+			busy = false;
+		}
+		return signal;
+	}
+
+	private MapSignal run(World world, MapSignal signal) {
+		final int base = top;
+
+		while(top >= base) {
+			int frame = top;
+			int d = nextDirs[frame]++;
+
+			if(d < EnumFacing.VALUES.length) {
+				if(d == fromDirs[frame]) {// don't count where the signal originated from
+					continue;
+				}
+
+				EnumFacing dir = EnumFacing.VALUES[d];
+				BlockPos pos = positions[frame];
+				cursor.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+
+				IBlockState deltaState = world.getBlockState(cursor);
+				ITreePart treePart = TreeHelper.getTreePart(deltaState);
+
+				if(treePart.shouldAnalyse()) {
+					BlockPos deltaPos = cursor.toImmutable();
+					if(treePart instanceof BlockBranchBasic && ((BlockBranchBasic) treePart).isNetworkWalkable()) {
+						if(enter((BlockBranchBasic) treePart, deltaState, world, deltaPos, dir.getOpposite(), signal)) {
+							continue;// Descend into the new node.  The root direction is checked when it returns
+						}
+					} else {
+						signal = treePart.analyse(deltaState, world, deltaPos, dir.getOpposite(), signal);
+					}
+					checkLocalRootDir(frame, dir, signal);
+				}
+			} else {
+				signal.returnRun(states[frame], world, positions[frame], getFacing(fromDirs[frame]));
+				signal.depth--;
+				pop();
+				if(top >= base) {
+					checkLocalRootDir(top, EnumFacing.VALUES[nextDirs[top] - 1], signal);
+				}
+			}
+		}
+
+		return signal;
+	}
+
+	/**
+	 * Performs the entry portion of a node visit.  Mirrors the head of the recursive analyse() function.
+	 *
+	 * @return true if a frame was pushed for the node and its neighbors need exploring
+	 */
+	private boolean enter(BlockBranchBasic branch, IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
+		if(signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
+			return false;
+		}
+
+		if (signal.depth++ < branch.getMaxSignalDepth()) {// Prevents going too deep into large networks, or worse, being caught in a network loop
+			signal.run(blockState, world, pos, fromDir);// Run the inspectors of choice
+			push(blockState, pos, fromDir);
+			return true;
+		}
+
+		IBlockState state = world.getBlockState(pos);
+		if(signal.destroyLoopedNodes && state.getBlock() instanceof BlockBranch) {
+			BlockBranch loopBranch = (BlockBranch) state.getBlock();
+			loopBranch.breakDeliberate(world, pos, EnumDestroyMode.OVERFLOW);// Destroy one of the offending nodes
+		}
+		signal.overflow = true;
+		signal.depth--;
+
+		return false;
+	}
+
+	// This should only be true for the originating block when the root node is found
+	private void checkLocalRootDir(int frame, EnumFacing dir, MapSignal signal) {
+		if (signal.found && signal.localRootDir == null && fromDirs[frame] == NODIR) {
+			signal.localRootDir = dir;
+		}
+	}
+
+	private void push(IBlockState blockState, BlockPos pos, EnumFacing fromDir) {
+		if(++top == positions.length) {
+			int capacity = positions.length * 2;
+			positions = Arrays.copyOf(positions, capacity);
+			states = Arrays.copyOf(states, capacity);
+			fromDirs = Arrays.copyOf(fromDirs, capacity);
+			nextDirs = Arrays.copyOf(nextDirs, capacity);
+		}
+		positions[top] = pos;
+		states[top] = blockState;
+		fromDirs[top] = fromDir == null ? NODIR : (byte) fromDir.getIndex();
+		nextDirs[top] = 0;
+	}
+
+	private void pop() {
+		positions[top] = null;
+		states[top] = null;
+		top--;
+	}
+
+	private void clear() {
+		while(top >= 0) {
+			pop();
+		}
+	}
+
+	private static EnumFacing getFacing(byte dir) {
+		return dir == NODIR ? null : EnumFacing.VALUES[dir];
+	}
+
+}
@@ -354,13 +354,22 @@ public class CellKits {
 		
 		@Override
 		public int solve(ICell[] cells) {
-			int nv[] = new int[16];//neighbor hydration values
+			//Neighbor hydration values.  Counted directly from these rather than with a histogram array so nothing is allocated
+			int d = cells[0].getValueFromSide(EnumFacing.UP);
+			int u = cells[1].getValueFromSide(EnumFacing.DOWN);
+			int n = cells[2].getValueFromSide(EnumFacing.SOUTH);
+			int s = cells[3].getValueFromSide(EnumFacing.NORTH);
+			int w = cells[4].getValueFromSide(EnumFacing.EAST);
+			int e = cells[5].getValueFromSide(EnumFacing.WEST);
 			
-			for(EnumFacing dir: EnumFacing.VALUES) {
-				nv[cells[dir.ordinal()].getValueFromSide(dir.getOpposite())]++;
+			for(int code: codes) {
+				int h = (code >> 8) & 15;
+				int count = (d == h ? 1 : 0) + (u == h ? 1 : 0) + (n == h ? 1 : 0) + (s == h ? 1 : 0) + (w == h ? 1 : 0) + (e == h ? 1 : 0);
+				if(count >= ((code >> 4) & 15)) {
+					return code & 15;
+				}
 			}
-						
-			return solveCell(nv, codes);
+			return 0;
 		}
 		
 	}
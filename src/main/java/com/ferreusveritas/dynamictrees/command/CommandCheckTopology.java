@@ -0,0 +1,99 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache.TreeTopology;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+/**
+ * Compares the cached topology of a tree against a full analysis of the tree.
+ * An inconsistent topology is discarded so it will be rebuilt on the next update.
+ */
+public class CommandCheckTopology extends SubCommand {
+
+	public static final String CHECKTOPOLOGY = "checktopology";
+
+	@Override
+	public String getName() {
+		return CHECKTOPOLOGY;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+
+		switch(args.length) {
+			case 2:
+			case 3:
+			case 4: return CommandBase.getTabCompletionCoordinate(args, 1, targetPos);
+		}
+
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		if(args.length < 4) {
+			throw new WrongUsageException("commands.dynamictrees.checktopology.usage");
+		}
+
+		BlockPos pos = CommandBase.parseBlockPos(sender, args, 1, false);
+
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(world);
+		if(topologyCache == null) {
+			throw new CommandException("commands.dynamictrees.checktopology.disablederror");
+		}
+
+		BlockPos rootPos = TreeHelper.findRootNode(world, pos);
+		if(rootPos == BlockPos.ORIGIN) {
+			throw new CommandException("commands.dynamictrees.checktopology.notreeerror", pos.getX() + " " + pos.getY() + " " + pos.getZ());
+		}
+
+		TreeTopology cached = topologyCache.getCachedTopology(rootPos);
+		if(cached == null) {
+			sender.sendMessage(new TextComponentString("No cached topology for tree at " + rootPos + ". " + topologyCache.size() + " trees cached"));
+			return;
+		}
+
+		BlockRooty rooty = TreeHelper.getRooty(world.getBlockState(rootPos));
+		EnumFacing rootDir = rooty.getTrunkDirection(world, rootPos);
+		ITreePart treeBase = TreeHelper.getTreePart(world.getBlockState(rootPos.offset(rootDir)));
+		TreeTopology measured = TreeTopologyCache.analyse(world, rootPos, rootDir, treeBase);
+
+		Set<BlockPos> cachedEnds = new HashSet<>(cached.getEnds());
+		Set<BlockPos> measuredEnds = new HashSet<>(measured.getEnds());
+		boolean consistent = cachedEnds.equals(measuredEnds) && cached.rootDir == measured.rootDir;
+
+		sender.sendMessage(new TextComponentString("Endpoints cached: " + cachedEnds.size() + " analysed: " + measuredEnds.size()));
+		if(!cached.isStale()) {
+			consistent &= cached.getTrunkHeight() == measured.getTrunkHeight() && cached.getVolume() == measured.getVolume();
+			sender.sendMessage(new TextComponentString("Trunk height cached: " + cached.getTrunkHeight() + " analysed: " + measured.getTrunkHeight()));
+			sender.sendMessage(new TextComponentString("Volume cached: " + cached.getVolume() + " analysed: " + measured.getVolume()));
+		} else {
+			sender.sendMessage(new TextComponentString("Volume and trunk height are stale"));
+		}
+
+		if(consistent) {
+			sender.sendMessage(new TextComponentString("Cached topology is consistent"));
+		} else {
+			topologyCache.onRootRemoved(rootPos);
+			sender.sendMessage(new TextComponentString("Cached topology is inconsistent and has been discarded"));
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import com.ferreusveritas.dynamictrees.api.seasons.ISeasonManager;
+import com.ferreusveritas.dynamictrees.event.LeafUpdateEventHandler;
+import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
+import com.ferreusveritas.dynamictrees.seasons.SeasonManager;
+import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.GrowthCatchUp;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
+import com.ferreusveritas.dynamictrees.systems.substances.SubstanceEffectTicker;
+import com.ferreusveritas.dynamictrees.worldgen.TreeStagingWorld;
+
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+/**
+ * Reports the state of the growth scheduler for the sender's world.
+ */
+public class CommandGrowthStats extends SubCommand {
+
+	public static final String GROWTHSTATS = "growthstats";
+
+	@Override
+	public String getName() {
+		return GROWTHSTATS;
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		TreeGrowthScheduler scheduler = TreeGrowthScheduler.get(world);
+		if(scheduler == null) {
+			throw new CommandException("commands.dynamictrees.growthstats.disablederror");
+		}
+
+		sender.sendMessage(new TextComponentString("Trees waiting: " + scheduler.getQueueDepth() + " Updates waiting: " + scheduler.getPendingUpdates()));
+		sender.sendMessage(new TextComponentString("Last tick: " + scheduler.getLastTickUpdates() + " updates in " + String.format("%.3f", scheduler.getLastTickNanos() / 1000000.0) + "ms"));
+		sender.sendMessage(new TextComponentString("Deferred ticks: " + scheduler.getDeferredTicks()));
+		
+		GrowthCatchUp catchUp = GrowthCatchUp.get(world);
+		if(catchUp != null) {
+			sender.sendMessage(new TextComponentString("Catch up trees waiting: " + catchUp.getQueueDepth() + " Chunks: " + catchUp.getChunksCaughtUp() + " Updates run: " + catchUp.getUpdatesRun() + " Lost: " + catchUp.getUpdatesLost()));
+		}
+		
+		SubstanceEffectTicker ticker = SubstanceEffectTicker.getExisting(world);
+		if(ticker != null) {
+			sender.sendMessage(new TextComponentString("Trees with lingering substances: " + ticker.getTreeCount()));
+		}
+		
+		long pulses = GrowSignal.getTotalPulses();
+		if(pulses > 0) {
+			sender.sendMessage(new TextComponentString("Grow pulses: " + pulses + " World reads per pulse: " + String.format("%.1f", GrowSignal.getTotalWorldReads() / (double) pulses) + " Saved per pulse: " + String.format("%.1f", GrowSignal.getTotalReadsSaved() / (double) pulses)));
+		}
+		
+		ISeasonManager seasonManager = SeasonHelper.getSeasonManager();
+		if(seasonManager instanceof SeasonManager) {
+			SeasonManager manager = (SeasonManager) seasonManager;
+			sender.sendMessage(new TextComponentString("Climate cache hits: " + manager.getClimateCacheHits() + " Misses: " + manager.getClimateCacheMisses()));
+		}
+		
+		if(LeafUpdateEventHandler.isActive()) {
+			sender.sendMessage(new TextComponentString("Leaf neighbor updates seen: " + LeafUpdateEventHandler.getEventsSeen() + " Inspected: " + LeafUpdateEventHandler.getEventsInspected() + " Cancelled: " + LeafUpdateEventHandler.getEventsCancelled()));
+		}
+		
+		TreeStagingWorld stage = TreeStagingWorld.get(world);
+		if(stage != null) {
+			sender.sendMessage(new TextComponentString("Worldgen staging reads: " + stage.getStagedReads() + " writes: " + stage.getStagedWrites() + " World reads: " + stage.getWorldReads() + " writes: " + stage.getCommitWrites()));
+		}
+	}
+
+}
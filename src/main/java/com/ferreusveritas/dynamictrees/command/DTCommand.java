@@ -37,6 +37,8 @@ public class DTCommand extends CommandBase {
 		addSubCommand(new CommandPurgeTrees());
 		addSubCommand(new CommandTransform());
 		addSubCommand(new CommandCreateTransformPotion());
+		addSubCommand(new CommandCheckTopology());
+		addSubCommand(new CommandGrowthStats());
 	}
 
 	@Override
@@ -1,9 +1,11 @@
 package com.ferreusveritas.dynamictrees.entities;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
@@ -14,12 +16,13 @@ import com.ferreusveritas.dynamictrees.entities.animation.AnimationHandlers;
 import com.ferreusveritas.dynamictrees.entities.animation.IAnimationHandler;
 import com.ferreusveritas.dynamictrees.models.IModelTracker;
 import com.ferreusveritas.dynamictrees.models.ModelTrackerCacheEntityFallingTree;
-import com.ferreusveritas.dynamictrees.util.BlockBounds;
+import com.ferreusveritas.dynamictrees.util.BlockPosLongSet;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionCodec;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData.PosType;
 import com.ferreusveritas.dynamictrees.util.CoordUtils.Surround;
-import com.google.common.collect.Iterables;
 
+import io.netty.buffer.ByteBuf;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
@@ -29,15 +32,17 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
-import net.minecraft.network.datasync.DataParameter;
-import net.minecraft.network.datasync.DataSerializers;
-import net.minecraft.network.datasync.EntityDataManager;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.fml.common.registry.IEntityAdditionalSpawnData;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -46,9 +51,7 @@ import net.minecraftforge.fml.relauncher.SideOnly;
  * @author ferreusveritas
  *
  */
-public class EntityFallingTree extends Entity implements IModelTracker {
-	
-	public static final DataParameter<NBTTagCompound> voxelDataParameter = EntityDataManager.createKey(EntityFallingTree.class, DataSerializers.COMPOUND_TAG);
+public class EntityFallingTree extends Entity implements IModelTracker, IEntityAdditionalSpawnData {
 	
 	//Not needed in client
 	protected List<ItemStack> payload = new ArrayList<>(0);
@@ -113,8 +116,20 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		this.posY = cutPos.getY();
 		this.posZ = cutPos.getZ() + 0.5;
 		
+		computeCenters();
+		setEntityBoundingBox(buildAABBFromDestroyData(destroyData).offset(posX, posY, posZ));
+		
+		return this;
+	}
+	
+	/**
+	 * Calculates the center of geometry and the center of mass of the branches relative to the cut position.  Both
+	 * the server and the client run this so the centers don't have to be sent along with the tree.
+	 */
+	protected void computeCenters() {
 		int numBlocks = destroyData.getNumBranches();
 		geomCenter = new Vec3d(0, 0, 0);
+		massCenter = new Vec3d(0, 0, 0);
 		double totalMass = 0;
 		
 		//Calculate center of geometry, center of mass and bounding box, remap to relative coordinates
@@ -132,10 +147,6 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		
 		geomCenter = geomCenter.scale(1.0 / numBlocks);
 		massCenter = massCenter.scale(1.0 / totalMass);
-	
-		setVoxelData(buildVoxelData(destroyData));
-		
-		return this;
 	}
 	
 	public NBTTagCompound buildVoxelData(BranchDestructionData destroyData) {
@@ -167,38 +178,150 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		onFire = tag.getBoolean("onfire");
 	}
 	
+	/**
+	 * Runs on the client's first update.  The destruction data has already arrived with the spawn packet.
+	 */
 	public void buildClient() {
 		
-		NBTTagCompound tag = getVoxelData();
+		clientBuilt = true;
 		
-		if(tag.hasKey("species")) {
-			setupFromNBT(tag);
-			clientBuilt = true;
-		} else {
-			System.out.println("Error: No species tag has been set");
-		}
-				
-		BlockBounds renderBounds = new BlockBounds(destroyData.cutPos);
-		
-		if(destroyType == DestroyType.VOID) { //Void usually occurs during worldgen.  So we need to ensure that what we're breaking is still tree stuff
-			for(BlockPos absPos: Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES))) {
-				IBlockState state = world.getBlockState(absPos);
-				if(TreeHelper.isTreePart(state)) {
-					world.setBlockState(absPos, ModBlocks.blockStates.air, 0);//The client needs to set it's blocks to air
-					renderBounds.union(absPos);//Expand the re-render volume to include this block
+		//Void usually occurs during worldgen.  So we need to ensure that what we're breaking is still tree stuff
+		clearDestroyedBlocks(destroyType == DestroyType.VOID);
+		
+		cleanupShellBlocks(destroyData);
+		
+		modelBuild();//Start on the model while the blocks are rerendered
+	}
+	
+	/**
+	 * The client needs to set it's blocks to air.  Thousands of leaves set one at a time with setBlockState each
+	 * relight and stretch the re-render volume.  Instead the positions are sorted by chunk section and written straight
+	 * into each section in one pass.  Each chunk's sky light is then regenerated once if any of it's blocks blocked
+	 * light and the light is spread sideways from the columns that were opened up.  Finally only the sections that were
+	 * touched are rerendered.
+	 * 
+	 * @param onlyTreeParts Only clears blocks that are still tree parts
+	 */
+	protected void clearDestroyedBlocks(boolean onlyTreeParts) {
+		long[] branches = destroyData.getPackedPositions(PosType.BRANCHES);
+		long[] leaves = destroyData.getPackedPositions(PosType.LEAVES);
+		
+		//Sort keys are the chunk, the section and then the block within the section
+		long[] keys = new long[branches.length + leaves.length];
+		int numKeys = 0;
+		for(long[] positions: new long[][] { branches, leaves }) {
+			for(long packed: positions) {
+				int x = BlockPosLongSet.getX(packed), y = BlockPosLongSet.getY(packed), z = BlockPosLongSet.getZ(packed);
+				if(y >= 0 && y < 256) {
+					long section = ((long)((x >> 4) & 0x3FFFFF) << 26) | ((long)((z >> 4) & 0x3FFFFF) << 4) | (y >> 4);
+					keys[numKeys++] = (section << 12) | ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
 				}
 			}
-		} else { //Other types of legitimate breaking can set blocks to air directly which improves performance.
-			for(BlockPos absPos: Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES))) {
-				world.setBlockState(absPos, ModBlocks.blockStates.air, 0);//The client needs to set it's blocks to air
-				renderBounds.union(absPos);//Expand the re-render volume to include this block
-			}
 		}
+		Arrays.sort(keys, 0, numKeys);
+		
+		IBlockState air = ModBlocks.blockStates.air;
+		Chunk relightChunk = null;
+		Map<Long, Integer> columnTops = new HashMap<>();//The highest block that blocked light in each column that was cleared
+		BlockPosLongSet sections = new BlockPosLongSet();//Packed section coordinates that need rerendering
+		
+		for(int start = 0, end; start < numKeys; start = end) {
+			long section = keys[start] >>> 12;
+			for(end = start + 1; end < numKeys && keys[end] >>> 12 == section; end++);
+			
+			int sectionY = (int) (section & 15);
+			int chunkZ = (int) (section >>> 4) << 10 >> 10;//Sign extend the 22 bits
+			int chunkX = (int) (section >>> 26) << 10 >> 10;
 			
+			Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+			if(chunk != relightChunk && relightChunk != null) {
+				relightChunk.generateSkylightMap();
+				relightChunk = null;
+			}
+			if(chunk == null || chunk.isEmpty()) {
+				continue;
+			}
+			ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sectionY];
+			if(storage == Chunk.NULL_BLOCK_STORAGE) {
+				continue;
+			}
+			
+			int baseX = chunkX << 4, baseY = sectionY << 4, baseZ = chunkZ << 4;
+			for(int i = start; i < end; i++) {
+				int x = (int) keys[i] & 15, z = (int) (keys[i] >> 4) & 15, y = (int) (keys[i] >> 8) & 15;
+				IBlockState state = storage.get(x, y, z);
+				if(state != air && (!onlyTreeParts || TreeHelper.isTreePart(state))) {
+					storage.set(x, y, z, air);
+					if(state.getLightOpacity() > 0) {
+						relightChunk = chunk;
+						columnTops.merge(column(baseX + x, baseZ + z), baseY + y, Math::max);
+					}
+					touchSections(sections, baseX + x, baseY + y, baseZ + z);
+				}
+			}
+		}
 		
-		cleanupShellBlocks(destroyData);
+		if(relightChunk != null) {
+			relightChunk.generateSkylightMap();
+		}
+		
+		spreadSkylight(columnTops, sections);
 		
-		world.markBlockRangeForRenderUpdate(renderBounds.getMin(), renderBounds.getMax());//This forces the client to rerender the chunks
+		sections.forEach(packed -> {
+			int x = BlockPosLongSet.getX(packed) << 4, y = BlockPosLongSet.getY(packed) << 4, z = BlockPosLongSet.getZ(packed) << 4;
+			//The range is grown by a block on each side by the renderer so this marks exactly the one section
+			world.markBlockRangeForRenderUpdate(x + 1, y + 1, z + 1, x + 14, y + 14, z + 14);
+		});
+	}
+	
+	/** Adds the section of a changed block and any section beside it that shares the block's faces */
+	private static void touchSections(BlockPosLongSet sections, int x, int y, int z) {
+		int sx = x >> 4, sy = y >> 4, sz = z >> 4;
+		sections.add(sx, sy, sz);
+		if((x & 15) == 0) { sections.add(sx - 1, sy, sz); } else if((x & 15) == 15) { sections.add(sx + 1, sy, sz); }
+		if((z & 15) == 0) { sections.add(sx, sy, sz - 1); } else if((z & 15) == 15) { sections.add(sx, sy, sz + 1); }
+		if((y & 15) == 0 && sy > 0) { sections.add(sx, sy - 1, sz); } else if((y & 15) == 15 && sy < 15) { sections.add(sx, sy + 1, sz); }
+	}
+	
+	private static long column(int x, int z) {
+		return (long) x << 32 | (z & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Regenerating a chunk's sky light only lights the open columns straight down.  The blocks beside those columns
+	 * that are still in the shade need to be relit so the light spreads sideways under where the canopy was.  Those
+	 * relight checks rerender what they change on their own but the open columns themselves don't, so their sections
+	 * are added for rerendering.  That goes down to the ground block whose top face is now lit.
+	 * 
+	 * @param columnTops The highest cleared block that blocked light in each column
+	 * @param sections Receives the sections of the columns that were opened up
+	 */
+	private void spreadSkylight(Map<Long, Integer> columnTops, BlockPosLongSet sections) {
+		BlockPosLongSet checked = new BlockPosLongSet(columnTops.size() * 4);
+		MutableBlockPos pos = new MutableBlockPos();
+		
+		for(Map.Entry<Long, Integer> entry: columnTops.entrySet()) {
+			int x = (int) (entry.getKey() >> 32);
+			int z = (int) (long) entry.getKey();
+			int top = entry.getValue();
+			int ground = world.getHeight(x, z);//Everything from here up now sees the sky
+			for(int sy = Math.max(ground - 1, 0) >> 4; sy <= top >> 4; sy++) {
+				touchSections(sections, x, (sy << 4) | 8, z);//The middle of the section so only the sections beside it are added
+			}
+			
+			for(int y = ground; y <= top; y++) {
+				for(EnumFacing dir: EnumFacing.HORIZONTALS) {
+					int nx = x + dir.getFrontOffsetX(), nz = z + dir.getFrontOffsetZ();
+					Integer neighborTop = columnTops.get(column(nx, nz));
+					if(neighborTop != null && y <= neighborTop && y >= world.getHeight(nx, nz)) {
+						continue;//Also an open column so it's already fully lit
+					}
+					if(checked.add(nx, y, nz)) {
+						world.checkLightFor(EnumSkyBlock.SKY, pos.setPos(nx, y, nz));
+					}
+				}
+			}
+		}
 	}
 	
 	protected void cleanupShellBlocks(BranchDestructionData destroyData) {
@@ -290,24 +413,35 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 	 * This is run server side to update all of the neighbors
 	 */
 	protected void updateNeighbors() {
-		HashSet<BlockPos> destroyed = new HashSet<>();
-		HashSet<BlockPos> toUpdate = new HashSet<>();
+		long[] branches = destroyData.getPackedPositions(PosType.BRANCHES);
+		long[] leaves = destroyData.getPackedPositions(PosType.LEAVES);
+		BlockPosLongSet destroyed = new BlockPosLongSet(branches.length + leaves.length);
+		BlockPosLongSet toUpdate = new BlockPosLongSet(branches.length + leaves.length);
 		
 		//Gather a set of all of the block positions that were recently destroyed
-		Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES)).forEach(pos -> destroyed.add(pos));
-	
+		for(long packed: branches) {
+			destroyed.add(packed);
+		}
+		for(long packed: leaves) {
+			destroyed.add(packed);
+		}
+		
 		//Gather a list of all of the non-destroyed blocks surrounding each destroyed block
-		for(BlockPos d: destroyed) {
-			for(EnumFacing dir: EnumFacing.values()) {
-				BlockPos dPos = d.offset(dir);
-				if(!destroyed.contains(dPos)) {
-					toUpdate.add(dPos);
+		destroyed.forEach(packed -> {
+			int x = BlockPosLongSet.getX(packed), y = BlockPosLongSet.getY(packed), z = BlockPosLongSet.getZ(packed);
+			for(EnumFacing dir: EnumFacing.VALUES) {
+				long dPacked = BlockPosLongSet.pack(x + dir.getFrontOffsetX(), y + dir.getFrontOffsetY(), z + dir.getFrontOffsetZ());
+				if(!destroyed.contains(dPacked)) {
+					toUpdate.add(dPacked);
 				}
 			}
-		}
+		});
 		
-		//Update each of the blocks that need to be updated
-		toUpdate.forEach(pos -> world.neighborChanged(pos, Blocks.AIR, pos));
+		//Update each of the blocks that need to be updated.  A new BlockPos each since blocks may hold on to it
+		toUpdate.forEach(packed -> {
+			BlockPos pos = BlockPos.fromLong(packed);
+			world.neighborChanged(pos, Blocks.AIR, pos);
+		});
 	}
 	
 	protected IAnimationHandler selectAnimationHandler() {
@@ -338,6 +472,12 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		return AnimHandlerDrop;
 	}
 	
+	@Override
+	@SideOnly(Side.CLIENT)
+	public void modelBuild() {
+		ModelTrackerCacheEntityFallingTree.buildModel(this);
+	}
+	
 	@Override
 	@SideOnly(Side.CLIENT)
 	public void modelCleanup() {
@@ -407,9 +547,7 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 	}
 	
 	@Override
-	protected void entityInit() {
-		getDataManager().register(voxelDataParameter, new NBTTagCompound());
-	}
+	protected void entityInit() {}
 	
 	public void cleanupRootyDirt() {
 		//Force the Rooty Dirt to update if it's there.  Turning it back to dirt.
@@ -424,21 +562,39 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		}
 	}
 	
-	//This is shipped off to the clients
-	public void setVoxelData(NBTTagCompound tag) {
+	//This is shipped off to the clients in the spawn packet
+	@Override
+	public void writeSpawnData(ByteBuf buffer) {
+		buffer.writeByte(destroyType.ordinal());
+		buffer.writeBoolean(onFire);
+		BranchDestructionCodec.write(buffer, destroyData);
+	}
+	
+	@Override
+	public void readSpawnData(ByteBuf buffer) {
+		destroyType = DestroyType.values()[MathHelper.clamp(buffer.readUnsignedByte(), 0, DestroyType.values().length - 1)];
+		onFire = buffer.readBoolean();
+		destroyData = BranchDestructionCodec.read(buffer);
+		if(destroyData.getNumBranches() == 0) {
+			setDead();
+			return;
+		}
+		computeCenters();
 		setEntityBoundingBox(buildAABBFromDestroyData(destroyData).offset(posX, posY, posZ));
-		getDataManager().set(voxelDataParameter, tag);
 	}
 	
+	/**
+	 * The NBT form of the destruction data.  Only used for saving, the clients get the
+	 * compact form from {@link #writeSpawnData(ByteBuf)}.
+	 */
 	public NBTTagCompound getVoxelData() {
-		return getDataManager().get(voxelDataParameter);
+		return buildVoxelData(destroyData);
 	}
 	
 	@Override
 	protected void readEntityFromNBT(NBTTagCompound compound) {
 		NBTTagCompound vox = (NBTTagCompound) compound.getTag("vox");
 		setupFromNBT(vox);
-		setVoxelData(vox);
 		
 		if(compound.hasKey("payload")) {
 			NBTTagList list = (NBTTagList) compound.getTag("payload");
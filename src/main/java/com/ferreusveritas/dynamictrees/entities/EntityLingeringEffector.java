@@ -10,6 +10,12 @@ import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+/**
+ * Lingering substance effects are now run by the
+ * {@link com.ferreusveritas.dynamictrees.systems.substances.SubstanceEffectTicker}.  This is only kept for anything that
+ * still spawns one.
+ */
+@Deprecated
 public class EntityLingeringEffector extends Entity {
 	
 	public BlockPos blockPos;
@@ -74,7 +80,9 @@ public class EntityLingeringEffector extends Entity {
 			} else {
 				setDead();
 			}
-		}	
+		} else {
+			setDead();//Effects aren't saved with the entity so there's nothing left to do
+		}
 		
 	}
 	
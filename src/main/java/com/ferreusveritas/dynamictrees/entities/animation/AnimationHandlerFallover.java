@@ -1,25 +1,18 @@
 package com.ferreusveritas.dynamictrees.entities.animation;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import javax.annotation.Nullable;
 
 import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
-import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.entity.item.EntityItem;
-import net.minecraft.util.EntitySelectors;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
@@ -36,6 +29,8 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 		float fallSpeed = 0;
 		int bounces = 0;
 		HashSet<EntityLivingBase> entitiesHit = new HashSet<>();//A record of the entities that have taken damage to ensure they are only damaged a single time
+		FalloverCollisionModel collisionModel;//Built the first time the trunk is tested for collisions
+		float maxAngle = 0;//The furthest the trunk has fallen.  Entities can only be hit when it falls further
 	}
 	
 	HandlerData getData(EntityFallingTree entity) {
@@ -99,7 +94,7 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 		
 		//Crush living things with clumsy dead trees
 		World world = entity.world;
-		if(ModConfigs.enableFallingTreeDamage && !world.isRemote) {
+		if(ModConfigs.enableFallingTreeDamage && !world.isRemote && sweptNewVolume(entity)) {
 			List<EntityLivingBase> elist = testEntityCollision(entity);
 			for(EntityLivingBase living: elist) {
 				if(!getData(entity).entitiesHit.contains(living)) {
@@ -123,9 +118,30 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 		getData(entity).fallSpeed = fallSpeed;
 	}
 	
+	private float getActingAngle(EntityFallingTree entity) {
+		return entity.getDestroyData().toolDir.getAxis() == EnumFacing.Axis.X ? entity.rotationYaw : entity.rotationPitch;
+	}
+	
 	/**
-	 * This tests a bounding box cube for each block of the trunk.
-	 * Processing is approximately equivalent to the same number of {@link EntityItem}s in the world. 
+	 * Entities can only be damaged before the first bounce and only by the trunk falling into space it hasn't been in
+	 * before.  Once the tree bounces or swings back the entity tests are skipped.
+	 * 
+	 * @param entity
+	 * @return true if the trunk has fallen further than ever before
+	 */
+	private boolean sweptNewVolume(EntityFallingTree entity) {
+		HandlerData data = getData(entity);
+		float angle = Math.abs(getActingAngle(entity));
+		if(data.bounces == 0 && angle > data.maxAngle) {
+			data.maxAngle = angle;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * This tests a bounding box cube for each block of the trunk against a {@link FalloverCollisionModel} that's
+	 * built the first time it's needed.  After that each test is an array look up.
 	 * 
 	 * @param entity
 	 * @return true if collision is detected
@@ -133,7 +149,7 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 	private boolean testCollision(EntityFallingTree entity) {
 		EnumFacing toolDir = entity.getDestroyData().toolDir;
 		
-		float actingAngle = toolDir.getAxis() == EnumFacing.Axis.X ? entity.rotationYaw : entity.rotationPitch;
+		float actingAngle = getActingAngle(entity);
 		
 		int offsetX = toolDir.getFrontOffsetX();
 		int offsetZ = toolDir.getFrontOffsetZ();
@@ -148,15 +164,21 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 		
 		trunkHeight = Math.min(trunkHeight, 24);
 		
+		HandlerData data = getData(entity);
+		if(data.collisionModel == null || !data.collisionModel.isValidFor(entity)) {
+			data.collisionModel = new FalloverCollisionModel(entity, trunkHeight, maxRadius);
+		}
+		FalloverCollisionModel model = data.collisionModel;
+		
 		for(int segment = 0; segment < trunkHeight; segment++) {
 			float segX = xbase + h * segment * offsetX;
 			float segY = ybase + v * segment;
 			float segZ = zbase + h * segment * offsetZ;
+			float segU = model.getAxis() == EnumFacing.Axis.X ? segX : segZ;
 			float tex = 0.0625f;
 			float half = MathHelper.clamp(tex * (segment + 1) * 2, tex, maxRadius);
-			AxisAlignedBB testBB = new AxisAlignedBB(segX - half, segY - half, segZ - half, segX + half, segY + half, segZ + half);
 			
-			if(!entity.world.getCollisionBoxes(entity, testBB).isEmpty()) {
+			if(model.collides(segU - half, segU + half, segY - half)) {
 				return true;
 			}
 		}
@@ -185,7 +207,7 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 		
 		EnumFacing toolDir = entity.getDestroyData().toolDir;
 		
-		float actingAngle = toolDir.getAxis() == EnumFacing.Axis.X ? entity.rotationYaw : entity.rotationPitch;
+		float actingAngle = getActingAngle(entity);
 		
 		int offsetX = toolDir.getFrontOffsetX();
 		int offsetZ = toolDir.getFrontOffsetZ();
@@ -204,21 +226,17 @@ public class AnimationHandlerFallover implements IAnimationHandler {
 		Vec3d vec3d1 = new Vec3d(xbase, ybase, zbase);
 		Vec3d vec3d2 = new Vec3d(segX, segY, segZ);
 		
-		return world.getEntitiesInAABBexcluding(entity, new AxisAlignedBB(vec3d1.x, vec3d1.y, vec3d1.z, vec3d2.x, vec3d2.y, vec3d2.z),
-			Predicates.and(
-				EntitySelectors.NOT_SPECTATING,
-				new Predicate<Entity>() {
-					public boolean apply(@Nullable Entity apply) {
-						if(apply instanceof EntityLivingBase && apply.canBeCollidedWith()) {
-							AxisAlignedBB axisalignedbb = apply.getEntityBoundingBox().grow(maxRadius);
-							return axisalignedbb.contains(vec3d1) || axisalignedbb.calculateIntercept(vec3d1, vec3d2) != null;
-						}
-						
-						return false;
-					}
+		List<EntityLivingBase> hit = new ArrayList<>();
+		for(EntityLivingBase living: world.getEntitiesWithinAABB(EntityLivingBase.class, new AxisAlignedBB(vec3d1.x, vec3d1.y, vec3d1.z, vec3d2.x, vec3d2.y, vec3d2.z))) {//Spectators are already left out
+			if(living.canBeCollidedWith()) {
+				AxisAlignedBB axisalignedbb = living.getEntityBoundingBox().grow(maxRadius);
+				if(axisalignedbb.contains(vec3d1) || axisalignedbb.calculateIntercept(vec3d1, vec3d2) != null) {
+					hit.add(living);
 				}
-			)
-		).stream().map( a -> (EntityLivingBase)a ).collect(Collectors.toList());
+			}
+		}
+		
+		return hit;
 		
 	}
 	
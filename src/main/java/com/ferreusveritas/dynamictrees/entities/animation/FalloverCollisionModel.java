@@ -0,0 +1,99 @@
+package com.ferreusveritas.dynamictrees.entities.animation;
+
+import java.util.Arrays;
+
+import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.world.World;
+
+/**
+ * The obstacles in the way of a tree falling over.  A falling trunk stays in the vertical plane through the cut along
+ * the tool direction's axis so only a thin slab of the world is ever tested.  That slab is sampled once into a
+ * heightfield of the tallest collision box in each sample along the axis.  Testing a trunk segment is then just a look
+ * up of the samples it spans.
+ *
+ * Each column only counts obstacles up to the top of the arc the trunk can reach there.  Anything in the column under
+ * that has to be swept by the trunk on the way down so the tallest one is all that matters.
+ *
+ * Blocks placed or broken during the fall aren't seen.  A fall is only a few seconds long.
+ */
+public class FalloverCollisionModel {
+
+	public static final int SAMPLESPERBLOCK = 4;
+
+	private final EnumFacing.Axis axis;
+	private final double baseY;
+	private final double minU;//The start of the first sample along the axis
+	private final float[] heights;//The top of the tallest obstacle in each sample
+
+	/**
+	 * @param entity The falling tree
+	 * @param trunkHeight The number of trunk segments that are tested
+	 * @param maxRadius Half the width of the thickest trunk segment
+	 */
+	public FalloverCollisionModel(EntityFallingTree entity, int trunkHeight, float maxRadius) {
+		World world = entity.world;
+		axis = entity.getDestroyData().toolDir.getAxis();
+		baseY = entity.posY;
+
+		double baseU = axis == EnumFacing.Axis.X ? entity.posX : entity.posZ;
+		double w = axis == EnumFacing.Axis.X ? entity.posZ : entity.posX;//The position of the slab across the axis
+		int reach = trunkHeight + 1;
+		int numBlocks = reach * 2 + 1;
+
+		minU = Math.floor(baseU) - reach;
+		heights = new float[numBlocks * SAMPLESPERBLOCK];
+		Arrays.fill(heights, Float.NEGATIVE_INFINITY);
+
+		double minY = baseY - reach;
+		for(int block = 0; block < numBlocks; block++) {
+			double u = minU + block;
+			double dist = Math.max(0, Math.abs(u + 0.5 - baseU) - 0.5);
+			double maxY = baseY + Math.sqrt(Math.max(0, reach * reach - dist * dist)) + 1;
+			AxisAlignedBB column = axis == EnumFacing.Axis.X ?
+				new AxisAlignedBB(u, minY, w - maxRadius, u + 1, maxY, w + maxRadius) :
+				new AxisAlignedBB(w - maxRadius, minY, u, w + maxRadius, maxY, u + 1);
+
+			int firstSample = block * SAMPLESPERBLOCK;
+			int lastSample = firstSample + SAMPLESPERBLOCK - 1;
+			for(AxisAlignedBB box: world.getCollisionBoxes(entity, column)) {
+				double boxMinU = axis == EnumFacing.Axis.X ? box.minX : box.minZ;
+				double boxMaxU = axis == EnumFacing.Axis.X ? box.maxX : box.maxZ;
+				int first = Math.max(firstSample, (int) Math.floor((boxMinU - minU) * SAMPLESPERBLOCK));
+				int last = Math.min(lastSample, (int) Math.ceil((boxMaxU - minU) * SAMPLESPERBLOCK) - 1);
+				for(int i = first; i <= last; i++) {
+					heights[i] = Math.max(heights[i], (float) box.maxY);
+				}
+			}
+		}
+	}
+
+	/** @return true if the model was built for where the tree is now.  The tree can still drop after it starts to fall */
+	public boolean isValidFor(EntityFallingTree entity) {
+		return entity.posY == baseY;
+	}
+
+	/**
+	 * @param u1 The start of the segment along the axis
+	 * @param u2 The end of the segment along the axis
+	 * @param bottom The bottom of the segment
+	 * @return true if an obstacle reaches above the bottom of the segment anywhere along it
+	 */
+	public boolean collides(double u1, double u2, double bottom) {
+		int first = Math.max(0, (int) Math.floor((u1 - minU) * SAMPLESPERBLOCK));
+		int last = Math.min(heights.length - 1, (int) Math.ceil((u2 - minU) * SAMPLESPERBLOCK) - 1);
+		for(int i = first; i <= last; i++) {
+			if(heights[i] > bottom) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public EnumFacing.Axis getAxis() {
+		return axis;
+	}
+
+}
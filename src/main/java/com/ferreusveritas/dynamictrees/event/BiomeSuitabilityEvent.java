@@ -17,6 +17,7 @@ public class BiomeSuitabilityEvent extends Event  {
 	protected BlockPos pos;
 	protected float suitability = 1.0f;
 	protected boolean handled = false;
+	protected boolean positionDependent = false;
 	
 	public BiomeSuitabilityEvent(World world, Biome biome, Species species, BlockPos pos) {
 		this.world = world;
@@ -54,4 +55,17 @@ public class BiomeSuitabilityEvent extends Event  {
 		return handled;
 	}
 	
+	/**
+	 * The result of this event is remembered for each species and biome.  Handlers whose result depends on anything
+	 * else(the position, the world, the time..) must call this every time they see the event, even when they leave it
+	 * unhandled.  The species then posts the event for every call until the config is reloaded.
+	 */
+	public void setPositionDependent() {
+		positionDependent = true;
+	}
+	
+	public boolean isPositionDependent() {
+		return positionDependent;
+	}
+	
 }
@@ -3,8 +3,16 @@ package com.ferreusveritas.dynamictrees.event;
 import com.ferreusveritas.dynamictrees.api.WorldGenRegistry;
 import com.ferreusveritas.dynamictrees.client.TooltipHandler;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
+import com.ferreusveritas.dynamictrees.systems.GrowthCatchUp;
+import com.ferreusveritas.dynamictrees.systems.TreeGrowthScheduler;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.ferreusveritas.dynamictrees.systems.substances.SubstanceEffectTicker;
+import com.ferreusveritas.dynamictrees.worldgen.TreeStagingWorld;
 
+import net.minecraft.world.World;
 import net.minecraftforge.event.entity.player.ItemTooltipEvent;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
@@ -20,6 +28,26 @@ public class CommonEventHandler {
 
 		if(event.side == Side.SERVER) {
 			FutureBreak.process(event.world);
+			
+			TreeGrowthScheduler scheduler = TreeGrowthScheduler.get(event.world);
+			if(scheduler != null) {
+				if(event.phase == Phase.START) {
+					scheduler.startTick();
+				} else {
+					scheduler.process(event.world);
+				}
+			}
+			
+			if(event.phase == Phase.END) {
+				GrowthCatchUp catchUp = GrowthCatchUp.get(event.world);
+				if(catchUp != null) {
+					catchUp.process(event.world);
+				}
+				SubstanceEffectTicker ticker = SubstanceEffectTicker.getExisting(event.world);//Only worlds with saved or applied substances
+				if(ticker != null) {
+					ticker.tick(event.world);
+				}
+			}
 		}
 		
 		if(event.type == Type.WORLD && event.phase == Phase.START) {
@@ -35,9 +63,48 @@ public class CommonEventHandler {
 			}
 		}
 		
+		SubstanceEffectTicker.loadWorld(event.getWorld());
+		
 		event.getWorld().addEventListener(new WorldListener(event.getWorld(), event.getWorld().getMinecraftServer()));
 	}
 	
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		if(!event.getWorld().isRemote) {
+			TreeTopologyCache.unloadWorld(event.getWorld());
+			TreeGrowthScheduler.unloadWorld(event.getWorld());
+			GrowthCatchUp.unloadWorld(event.getWorld());
+			TreeStagingWorld.unloadWorld(event.getWorld());
+		}
+		SeasonHelper.getSeasonManager().unloadWorld(event.getWorld());
+		SubstanceEffectTicker.unloadWorld(event.getWorld());
+	}
+	
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(event.getWorld());
+		if(topologyCache != null) {
+			topologyCache.unloadChunk(event.getChunk().x, event.getChunk().z);
+		}
+		SeasonHelper.getSeasonManager().unloadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z);
+	}
+	
+	@SubscribeEvent
+	public void onChunkDataLoad(ChunkDataEvent.Load event) {
+		GrowthCatchUp catchUp = GrowthCatchUp.get(event.getWorld());
+		if(catchUp != null && event.getData().hasKey(GrowthCatchUp.TIMETAG)) {
+			catchUp.chunkLoaded(event.getChunk().x, event.getChunk().z, event.getData().getLong(GrowthCatchUp.TIMETAG));
+		}
+	}
+	
+	@SubscribeEvent
+	public void onChunkDataSave(ChunkDataEvent.Save event) {
+		World world = event.getWorld();
+		if(GrowthCatchUp.get(world) != null) {
+			event.getData().setLong(GrowthCatchUp.TIMETAG, world.getTotalWorldTime());
+		}
+	}
+	
 	@SubscribeEvent
 	@SideOnly(Side.CLIENT)
 	public void onItemTooltipAdded(ItemTooltipEvent event) {
@@ -1,26 +1,154 @@
 package com.ferreusveritas.dynamictrees.event;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
 
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
-//This has been put in place to counteract the effects of the FastLeafDecay mod
+/**
+ * This has been put in place to counteract the effects of the FastLeafDecay mod.  Neighbor notifications next to
+ * dynamic leaves are cancelled so FastLeafDecay never hears about them.
+ *
+ * Looking at all six neighbors of every block update in the world is a lot of lookups for something that's rarely near
+ * leaves.  So each chunk keeps a mask of the sections that may hold dynamic leaves.  A section is scanned the first
+ * time an update happens near it and leaves placed after that mark it.  Leaves being removed don't clear the mark, it
+ * just means the neighbors in that section keep being looked at until the chunk unloads.
+ */
 public class LeafUpdateEventHandler {
-	
+
+	private static boolean active = false;
+
+	//Each int holds a mask of the sections that have been scanned in the low 16 bits and the sections with leaves in the high 16 bits
+	private static final Map<World, Map<Chunk, int[]>> sectionMasks = new ConcurrentHashMap<>();
+
+	private static long eventsSeen = 0;
+	private static long eventsInspected = 0;
+	private static long eventsCancelled = 0;
+
+	public LeafUpdateEventHandler() {
+		active = true;
+	}
+
 	@SubscribeEvent(priority = EventPriority.HIGH)
 	public void UpdateNeighbour(BlockEvent.NeighborNotifyEvent event) {
 		World world = event.getWorld();
+		BlockPos pos = event.getPos();
+		eventsSeen++;
+
+		if(!mayHaveLeavesNear(world, pos)) {
+			return;
+		}
+
+		eventsInspected++;
 		for (EnumFacing facing : event.getNotifiedSides()) {
-			BlockPos blockPos = event.getPos().offset(facing);
+			BlockPos blockPos = pos.offset(facing);
 			if(TreeHelper.isLeaves(world.getBlockState(blockPos))) {
 				event.setCanceled(true);
+				eventsCancelled++;
+				return;
 			}
 		}
 	}
-	
-}
\ No newline at end of file
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Map<Chunk, int[]> masks = sectionMasks.get(event.getWorld());
+		if(masks != null) {
+			masks.remove(event.getChunk());
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		sectionMasks.remove(event.getWorld());
+	}
+
+	/** Called by {@link BlockDynamicLeaves} whenever leaves are placed so their section gets looked at */
+	public static void onLeavesAdded(World world, BlockPos pos) {
+		if(active && pos.getY() >= 0 && pos.getY() < 256) {
+			int bit = 1 << (pos.getY() >> 4);
+			getMask(world, world.getChunkFromBlockCoords(pos))[0] |= bit | bit << 16;
+		}
+	}
+
+	/** @return true if any of the sections around the position may have dynamic leaves in them */
+	private static boolean mayHaveLeavesNear(World world, BlockPos pos) {
+		int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+		int minSY = Math.max(0, (y - 1) >> 4), maxSY = Math.min(15, (y + 1) >> 4);
+		for(int cx = (x - 1) >> 4; cx <= (x + 1) >> 4; cx++) {
+			for(int cz = (z - 1) >> 4; cz <= (z + 1) >> 4; cz++) {
+				Chunk chunk = world.getChunkProvider().getLoadedChunk(cx, cz);
+				if(chunk != null) {
+					for(int sy = minSY; sy <= maxSY; sy++) {
+						if(mayHaveLeaves(world, chunk, sy)) {
+							return true;
+						}
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean mayHaveLeaves(World world, Chunk chunk, int sy) {
+		int[] mask = getMask(world, chunk);
+		int bit = 1 << sy;
+		if((mask[0] & bit) == 0) {
+			mask[0] |= bit | (scanForLeaves(chunk.getBlockStorageArray()[sy]) ? bit << 16 : 0);
+		}
+		return (mask[0] & bit << 16) != 0;
+	}
+
+	private static int[] getMask(World world, Chunk chunk) {
+		return sectionMasks.computeIfAbsent(world, w -> new IdentityHashMap<>()).computeIfAbsent(chunk, c -> new int[1]);
+	}
+
+	private static boolean scanForLeaves(ExtendedBlockStorage storage) {
+		if(storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty()) {
+			return false;
+		}
+		for(int y = 0; y < 16; y++) {
+			for(int z = 0; z < 16; z++) {
+				for(int x = 0; x < 16; x++) {
+					if(TreeHelper.isLeaves(storage.get(x, y, z))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/** @return The number of neighbor notifications seen.  Counted loosely across threads */
+	public static long getEventsSeen() {
+		return eventsSeen;
+	}
+
+	/** @return The number of neighbor notifications near enough to leaves to have their neighbors looked at */
+	public static long getEventsInspected() {
+		return eventsInspected;
+	}
+
+	/** @return The number of neighbor notifications cancelled */
+	public static long getEventsCancelled() {
+		return eventsCancelled;
+	}
+
+	public static boolean isActive() {
+		return active;
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.ferreusveritas.dynamictrees.event;
 
 import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.models.ModelEntityFallingTree;
 import com.ferreusveritas.dynamictrees.models.bakedmodels.BakedModelBlockBonsaiPot;
 import com.ferreusveritas.dynamictrees.models.bakedmodels.BakedModelBlockRooty;
 
@@ -35,6 +36,8 @@ public class ModelBakeEventListener {
 			BakedModelBlockBonsaiPot bonsaiPotModel = new BakedModelBlockBonsaiPot(flowerPotModel);
 			event.getModelRegistry().putObject(new ModelResourceLocation(ModBlocks.blockBonsaiPot.getRegistryName(), "normal"), bonsaiPotModel);
 		}
+		
+		ModelEntityFallingTree.clearQuadCache();//The cached quads are from the old models
 	}
 	
 }
@@ -1,10 +1,12 @@
 package com.ferreusveritas.dynamictrees.event;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProviderUniversal;
 import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
 import net.minecraft.nbt.NBTTagByteArray;
 import net.minecraft.world.World;
 import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
@@ -26,10 +28,21 @@ public class PoissonDiscEventHandler {
 	@SubscribeEvent 
 	public void onChunkDataLoad(ChunkDataEvent.Load event) {
 		World world = event.getWorld();
-		if(!world.isRemote) {
+		if(!world.isRemote && (event.getData().hasKey("GTCD") || !ModConfigs.poissonDiscRegionFiles)) {//Without a tag the region files may still know the chunk
 			byte[] circleData = event.getData().getByteArray("GTCD");
 			PoissonDiscProviderUniversal cp = TreeGenerator.getTreeGenerator().getCircleProvider();
-			cp.setChunkPoissonData(world, event.getChunk().x, 0, event.getChunk().z, circleData);
+			cp.setChunkPoissonData(world, event.getChunk().x, 0, event.getChunk().z, circleData);//Also migrates the tag into the region files
+		}
+	}
+	
+	/** Chunks that haven't been decorated yet get their discs solved on a worker before they're needed */
+	@SubscribeEvent
+	public void onChunkLoad(ChunkEvent.Load event) {
+		World world = event.getWorld();
+		if(ModConfigs.poissonDiscPrecompute && !world.isRemote && !event.getChunk().isTerrainPopulated()) {
+			if(TreeGenerator.getTreeGenerator().getBiomeDataBase(world) != TreeGenerator.DIMENSIONBLACKLISTED) {
+				TreeGenerator.getTreeGenerator().getCircleProvider().precompute(world, event.getChunk().x, event.getChunk().z);
+			}
 		}
 	}
 	
@@ -40,6 +53,7 @@ public class PoissonDiscEventHandler {
 		byte[] circleData = cp.getChunkPoissonData(world, event.getChunk().x, 0, event.getChunk().z);
 		NBTTagByteArray circleByteArray = new NBTTagByteArray(circleData);
 		event.getData().setTag("GTCD", circleByteArray);//Growing Trees Circle Data
+		cp.chunkPoissonDataSaved(world, event.getChunk().x, 0, event.getChunk().z);
 		
 		// Unload circles here if the chunk is no longer loaded.
 		if(!event.getChunk().isLoaded()) {
@@ -0,0 +1,28 @@
+package com.ferreusveritas.dynamictrees.event;
+
+import com.ferreusveritas.dynamictrees.systems.substances.SubstanceEffectTicker;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.ClientTickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/** Runs the particles of lingering substance effects in the client world */
+@SideOnly(Side.CLIENT)
+public class SubstanceEffectClientHandler {
+	
+	@SubscribeEvent
+	public void onClientTick(ClientTickEvent event) {
+		World world = Minecraft.getMinecraft().world;
+		if(event.phase == Phase.END && world != null && !Minecraft.getMinecraft().isGamePaused()) {
+			SubstanceEffectTicker ticker = SubstanceEffectTicker.getExisting(world);//Only worlds that had a substance applied
+			if(ticker != null) {
+				ticker.tick(world);
+			}
+		}
+	}
+	
+}
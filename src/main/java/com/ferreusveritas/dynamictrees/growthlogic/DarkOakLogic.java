@@ -21,7 +21,7 @@ public class DarkOakLogic implements IGrowthLogicKit {
 		}
 		
 		//Amplify cardinal directions to encourage spread the higher we get
-		float energyRatio = signal.delta.getY() / species.getEnergy(world, pos);
+		float energyRatio = signal.getDelta().getY() / species.getEnergy(world, pos);
 		float spreadPush = energyRatio * 2;
 		spreadPush = spreadPush < 1.0f ? 1.0f : spreadPush;
 		for(EnumFacing dir: EnumFacing.HORIZONTALS) {
@@ -29,7 +29,7 @@ public class DarkOakLogic implements IGrowthLogicKit {
 		}
 		
 		//Ensure that the branch gets out of the trunk at least two blocks so it won't interfere with new side branches at the same level 
-		if(signal.numTurns == 1 && signal.delta.distanceSq(0, signal.delta.getY(), 0) == 1.0 ) {
+		if(signal.numTurns == 1 && signal.getDelta().distanceSq(0, signal.getDelta().getY(), 0) == 1.0 ) {
 			for(EnumFacing dir: EnumFacing.HORIZONTALS) {
 				if(signal.dir != dir) {
 					probMap[dir.ordinal()] = 0;
@@ -44,7 +44,7 @@ public class DarkOakLogic implements IGrowthLogicKit {
 					probMap[dir.ordinal()] = 2;
 				}
 			}
-			if(signal.delta.getY() > species.getLowestBranchHeight() + 5) {
+			if(signal.getDelta().getY() > species.getLowestBranchHeight() + 5) {
 				probMap[EnumFacing.UP.ordinal()] = 0;
 				signal.energy = 2;
 			}
@@ -26,7 +26,7 @@ public class JungleLogic implements IGrowthLogicKit {
 		
 		int height = (species.isThick() ? 22 : 18) + ((treeHash % 7829) % 8);
 		
-		if(signal.delta.getY() < height ) {
+		if(signal.getDelta().getY() < height ) {
 			probMap[2 + (posHash % 4)] = sideTurn;
 		} else {
 			probMap[1] = probMap[2] = probMap[3] = probMap[4] = probMap[5] = 2;//At top of tree allow any direction
@@ -2,6 +2,8 @@ package com.ferreusveritas.dynamictrees.models;
 
 public interface IModelTracker {
 	
+	default void modelBuild() { }
+	
 	default void modelCleanup() { }
 	
 }
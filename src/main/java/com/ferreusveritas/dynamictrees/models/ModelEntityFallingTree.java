@@ -5,12 +5,18 @@ import com.ferreusveritas.dynamictrees.client.QuadManipulator;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
-import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BlockRendererDispatcher;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.IBakedModel;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
@@ -19,42 +25,197 @@ import net.minecraftforge.common.property.IExtendedBlockState;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import org.apache.logging.log4j.LogManager;
+import org.lwjgl.opengl.GL11;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @SideOnly(Side.CLIENT)
 public class ModelEntityFallingTree {
 	
-	protected final List<TreeQuadData> quads;
+	protected volatile List<TreeQuadData> quads;//Null until the quads have been built
 	protected final int entityId;
 	
+	//Everything that needs the world is gathered up front so the quads can be built on another thread
+	protected final BranchDestructionData destructionData;
+	protected final BlockPos[] leavesPos;
+	protected final IBlockState[] leavesStates;
+	protected final int[] leavesColors;
+	
+	//The quads are compiled into a vertex buffer object, or a display list if VBOs are off, the first time they're drawn
+	protected VertexBuffer vertexBuffer;
+	protected int displayList = -1;
+	protected int compiledBrightness;
+	
+	/**
+	 * Gathers everything from the entity and it's world that's needed to make the quads.  The quads themselves are
+	 * made by {@link #build()} which is safe to run on a worker thread.
+	 */
 	public ModelEntityFallingTree(EntityFallingTree entity) {
-		quads = generateTreeQuads(entity, entity.getEntityWorld());
 		entityId = entity.getEntityId();
+		destructionData = entity.getDestroyData();
+		
+		final World world = entity.getEntityWorld();
+		final Species species = destructionData.species;
+		final BlockPos cutPos = destructionData.cutPos;
+		
+		HashMap<BlockPos, IBlockState> leavesClusters = species.getFamily().getFellingLeavesClusters(destructionData);
+		if(leavesClusters != null) {
+			leavesPos = new BlockPos[leavesClusters.size()];
+			leavesStates = new IBlockState[leavesClusters.size()];
+			leavesColors = new int[leavesClusters.size()];
+			int index = 0;
+			for(Entry<BlockPos, IBlockState> leafLoc : leavesClusters.entrySet()) {
+				IBlockState leafState = leafLoc.getValue();
+				IBlockState cleanState = leafState instanceof IExtendedBlockState ? ((IExtendedBlockState) leafState).getClean() : leafState;
+				leavesPos[index] = leafLoc.getKey();
+				leavesStates[index] = leafState;
+				leavesColors[index++] = species.getLeavesProperties().foliageColorMultiplier(cleanState, world, cutPos);
+			}
+		} else {
+			int numLeaves = destructionData.getNumLeaves();
+			leavesPos = new BlockPos[numLeaves];
+			leavesStates = new IBlockState[numLeaves];
+			leavesColors = new int[numLeaves];
+			for (int index = 0; index < numLeaves; index++) {
+				leavesPos[index] = destructionData.getLeavesRelPos(index);
+				leavesStates[index] = destructionData.getLeavesBlockState(index);
+				leavesColors[index] = destructionData.getLeavesProperties(index).foliageColorMultiplier(leavesStates[index], world, cutPos.add(leavesPos[index]));
+			}
+		}
+	}
+	
+	/**
+	 * Makes the quads.  Doesn't touch the world so it can run on any thread.
+	 */
+	public void build() {
+		try {
+			quads = generateTreeQuads();
+		} catch (RuntimeException e) {
+			LogManager.getLogger().warn("Failed to build the model of a falling " + destructionData.species + " tree", e);
+			quads = new ArrayList<>(0);
+		}
+	}
+	
+	/** @return true once the quads have been built */
+	public boolean isReady() {
+		return quads != null;
 	}
 	
+	/** @return The quads or an empty list if they aren't built yet */
 	public List<TreeQuadData> getQuadData() {
-		return quads;
+		List<TreeQuadData> quads = this.quads;
+		return quads != null ? quads : Collections.emptyList();
 	}
 	
 	public int getEntityId() {
 		return entityId;
 	}
 	
+	/**
+	 * Draws the tree with the current transform.  The geometry is only built the first time and whenever the
+	 * brightness changes.  After that drawing is a single call no matter how big the tree is.
+	 * 
+	 * @param brightness The packed lightmap coordinates the geometry is built with
+	 * @param builder Puts the quads into the buffer.  The buffer has already begun with the BLOCK vertex format
+	 */
+	public void render(int brightness, Consumer<BufferBuilder> builder) {
+		if(brightness != compiledBrightness) {
+			deleteGlResources();
+		}
+		
+		if(vertexBuffer == null && displayList == -1) {
+			compile(brightness, builder);
+		}
+		
+		if(vertexBuffer != null) {
+			drawVertexBuffer();
+		} else {
+			GlStateManager.callList(displayList);
+		}
+	}
+	
+	protected void compile(int brightness, Consumer<BufferBuilder> builder) {
+		final Tessellator tessellator = Tessellator.getInstance();
+		final BufferBuilder buffer = tessellator.getBuffer();
+		compiledBrightness = brightness;
+		
+		if(OpenGlHelper.useVbo()) {
+			vertexBuffer = new VertexBuffer(DefaultVertexFormats.BLOCK);
+			buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+			builder.accept(buffer);
+			buffer.finishDrawing();
+			vertexBuffer.bufferData(buffer.getByteBuffer());
+			buffer.reset();
+		} else {
+			displayList = GLAllocation.generateDisplayLists(1);
+			GlStateManager.glNewList(displayList, GL11.GL_COMPILE);
+			buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+			builder.accept(buffer);
+			tessellator.draw();
+			GlStateManager.glEndList();
+		}
+	}
+	
+	/** Sets up the client state for the BLOCK vertex format the same way chunks are drawn from VBOs */
+	protected void drawVertexBuffer() {
+		final int stride = DefaultVertexFormats.BLOCK.getNextOffset();
+		
+		GlStateManager.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+		GlStateManager.glEnableClientState(GL11.GL_COLOR_ARRAY);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+		GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+		GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+		
+		vertexBuffer.bindBuffer();
+		GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, stride, 0);
+		GlStateManager.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, stride, 12);
+		GlStateManager.glTexCoordPointer(2, GL11.GL_FLOAT, stride, 16);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+		GlStateManager.glTexCoordPointer(2, GL11.GL_SHORT, stride, 24);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+		vertexBuffer.drawArrays(GL11.GL_QUADS);
+		vertexBuffer.unbindBuffer();
+		GlStateManager.resetColor();
+		
+		GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+		GlStateManager.glDisableClientState(GL11.GL_COLOR_ARRAY);
+		GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+		GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+		OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+	}
+	
+	/** Frees the compiled geometry.  Must be run on the render thread */
+	public void deleteGlResources() {
+		if(vertexBuffer != null) {
+			vertexBuffer.deleteGlBuffers();
+			vertexBuffer = null;
+		}
+		if(displayList != -1) {
+			GLAllocation.deleteDisplayLists(displayList);
+			displayList = -1;
+		}
+	}
+	
 	public static int getBrightness(EntityFallingTree entity) {
 		BranchDestructionData destructionData = entity.getDestroyData();
 		World world = entity.getEntityWorld();
 		return world.getBlockState(destructionData.cutPos).getPackedLightmapCoords(world, destructionData.cutPos);
 	}
 	
-	public List<TreeQuadData> generateTreeQuads(EntityFallingTree entity, World world) {
+	public List<TreeQuadData> generateTreeQuads() {
 		final BlockRendererDispatcher dispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
-		final BranchDestructionData destructionData = entity.getDestroyData();
-		final Species species = destructionData.species;
-		final BlockPos cutPos = destructionData.cutPos;
 		final EnumFacing cutDir = destructionData.cutDir;
 		
 		ArrayList<TreeQuadData> treeQuads = new ArrayList<>();
@@ -74,40 +235,87 @@ public class ModelEntityFallingTree {
 
 				//Draw the rest of the tree/branch
 				for(int index = 0; index < destructionData.getNumBranches(); index++) {
-					Block previousBranch = exState.getBlock();
 					exState = destructionData.getBranchBlockState(index);
-					if (!previousBranch.equals(exState.getBlock())) //Update the branch model only if the block is different
-						branchModel = dispatcher.getModelForState(exState.getClean());
-					BlockPos relPos = destructionData.getBranchRelPos(index);
-					treeQuads.addAll(toTreeQuadData(QuadManipulator.getQuads(branchModel, exState, new Vec3d(relPos)), 0xFFFFFFFF, exState.getClean()));
+					if(exState != null) {
+						List<BakedQuad> branchQuads = getCachedQuads(dispatcher, exState.getClean(), exState, destructionData.destroyedBranchesConnections[index]);
+						addMovedQuads(treeQuads, branchQuads, destructionData.getBranchRelPos(index), 0xFFFFFFFF, exState.getClean());
+					}
 				}
 
 				//Draw the leaves
-				HashMap<BlockPos, IBlockState> leavesClusters = species.getFamily().getFellingLeavesClusters(destructionData);
-				if(leavesClusters != null) {
-					for(Entry<BlockPos, IBlockState> leafLoc : leavesClusters.entrySet()) {
-						IBlockState leafState = leafLoc.getValue();
-						if (leafState instanceof IExtendedBlockState) {
-							leafState = ((IExtendedBlockState) leafState).getClean();
-						}
-						treeQuads.addAll(toTreeQuadData(QuadManipulator.getQuads(dispatcher.getModelForState(leafState), leafLoc.getValue(), new Vec3d(leafLoc.getKey())), 
-							species.getLeavesProperties().foliageColorMultiplier(leafState, world, cutPos), leafState));				
-					}
-				} else {
-					for (int index = 0; index < destructionData.getNumLeaves(); index++) {
-						BlockPos relPos = destructionData.getLeavesRelPos(index);
-						IBlockState state = destructionData.getLeavesBlockState(index);
-						IBakedModel leavesModel = dispatcher.getModelForState(state);
-						treeQuads.addAll(toTreeQuadData(QuadManipulator.getQuads(leavesModel, state, new Vec3d(relPos)), 
-							destructionData.getLeavesProperties(index).foliageColorMultiplier(state, world, cutPos.add(relPos)), state));
-					}
+				for(int index = 0; index < leavesStates.length; index++) {
+					IBlockState leafState = leavesStates[index];
+					IBlockState cleanState = leafState instanceof IExtendedBlockState ? ((IExtendedBlockState) leafState).getClean() : leafState;
+					List<BakedQuad> leavesQuads = leafState == cleanState ? getCachedQuads(dispatcher, cleanState, leafState, 0) : QuadManipulator.getQuads(dispatcher.getModelForState(cleanState), leafState);
+					addMovedQuads(treeQuads, leavesQuads, leavesPos[index], leavesColors[index], cleanState);
 				}
 			}
 		}
 		
+		treeQuads.trimToSize();
 		return treeQuads;
 	}
 	
+	///////////////////////////////////////////
+	// Quad Cache
+	///////////////////////////////////////////
+	
+	/**
+	 * Quads of whole blocks at the origin.  Every block of a given state and set of connections has the same quads
+	 * so they're only pulled from the model once and then copied to each position.  Cleared whenever the models are
+	 * baked.
+	 */
+	private static final Map<QuadKey, List<BakedQuad>> quadCache = new ConcurrentHashMap<>();
+	private static final int MAXCACHEDSTATES = 4096;
+	
+	private static final class QuadKey {
+		private final IBlockState state;
+		private final int connections;
+		
+		public QuadKey(IBlockState state, int connections) {
+			this.state = state;
+			this.connections = connections;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof QuadKey && ((QuadKey) obj).state == state && ((QuadKey) obj).connections == connections;
+		}
+		
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(state) * 31 + connections;
+		}
+	}
+	
+	/**
+	 * @param cleanState The state used for the model lookup and as part of the key
+	 * @param state The state handed to the model.  Must only differ from the clean state by it's connections
+	 * @param connections The encoded connections of a branch or 0
+	 */
+	private static List<BakedQuad> getCachedQuads(BlockRendererDispatcher dispatcher, IBlockState cleanState, IBlockState state, int connections) {
+		QuadKey key = new QuadKey(cleanState, connections);
+		List<BakedQuad> quads = quadCache.get(key);
+		if(quads == null) {
+			if(quadCache.size() >= MAXCACHEDSTATES) {
+				quadCache.clear();//Never happens with real trees but keeps odd addons from filling memory
+			}
+			quads = QuadManipulator.getQuads(dispatcher.getModelForState(cleanState), state);
+			quadCache.put(key, quads);
+		}
+		return quads;
+	}
+	
+	public static void clearQuadCache() {
+		quadCache.clear();
+	}
+	
+	private static void addMovedQuads(List<TreeQuadData> treeQuads, List<BakedQuad> quads, BlockPos relPos, int color, IBlockState state) {
+		for(BakedQuad quad: QuadManipulator.moveQuads(quads, new Vec3d(relPos))) {
+			treeQuads.add(new TreeQuadData(quad, color, state));
+		}
+	}
+	
 	public static List<TreeQuadData> toTreeQuadData (List<BakedQuad> bakedQuads, int color, IBlockState state) {
 		return bakedQuads.stream().map(bakedQuad -> new TreeQuadData(bakedQuad, color, state)).collect(Collectors.toList());
 	}
@@ -3,6 +3,9 @@ package com.ferreusveritas.dynamictrees.models;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 
@@ -15,14 +18,46 @@ public class ModelTrackerCacheEntityFallingTree {
 	
 	public static Map<Integer, ModelEntityFallingTree> modelMap = new ConcurrentHashMap<>();
 	
+	private static ExecutorService builder;
+	
+	/**
+	 * Starts building the model of a falling tree on a worker thread.  Run as soon as the destruction data has arrived
+	 * so the model is usually ready by the time the tree is first drawn.
+	 */
+	public static ModelEntityFallingTree buildModel(EntityFallingTree entity) {
+		ModelEntityFallingTree model = new ModelEntityFallingTree(entity);
+		release(modelMap.put(entity.getEntityId(), model));
+		
+		try {
+			getBuilder().execute(model::build);
+		} catch (RejectedExecutionException e) {
+			model.build();
+		}
+		
+		return model;
+	}
+	
+	/** @return The model of the tree.  It won't have any quads until {@link ModelEntityFallingTree#isReady()} */
 	public static ModelEntityFallingTree getModel(EntityFallingTree entity) {
-		return modelMap.computeIfAbsent(entity.getEntityId(), e -> new ModelEntityFallingTree(entity) );
+		ModelEntityFallingTree model = modelMap.get(entity.getEntityId());
+		return model != null ? model : buildModel(entity);
+	}
+	
+	private static synchronized ExecutorService getBuilder() {
+		if(builder == null) {
+			builder = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "DynamicTrees Falling Tree Model Builder");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return builder;
 	}
 	
 	private static int cleanupCounter = 0;
 	
 	public static void cleanupModels(World world, EntityFallingTree entity) {
-		modelMap.remove(entity.getEntityId());//Ideally each tree should remove itself and the list is kept tidy
+		release(modelMap.remove(entity.getEntityId()));//Ideally each tree should remove itself and the list is kept tidy
 		
 		if(++cleanupCounter >= 10) {//Every 10 cleanups check the list to see if there's any stragglers
 			cleanupCounter = 0;
@@ -31,10 +66,17 @@ public class ModelTrackerCacheEntityFallingTree {
 			while(iter.hasNext()) {
 				int id = iter.next();
 				if(world.getEntityByID(id) == null) {
-					modelMap.remove(id);
+					release(modelMap.remove(id));
 				}
 			}
 		}
 	}
+	
+	/** Frees the vertex buffer or display list held by a model */
+	private static void release(ModelEntityFallingTree model) {
+		if(model != null) {
+			model.deleteGlResources();
+		}
+	}
 
 }
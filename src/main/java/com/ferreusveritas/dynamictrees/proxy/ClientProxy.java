@@ -26,6 +26,7 @@ import com.ferreusveritas.dynamictrees.client.TextureUtils.PixelBuffer;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.event.BlockBreakAnimationClientHandler;
 import com.ferreusveritas.dynamictrees.event.ModelBakeEventListener;
+import com.ferreusveritas.dynamictrees.event.SubstanceEffectClientHandler;
 import com.ferreusveritas.dynamictrees.event.TextureGenerationHandler;
 import com.ferreusveritas.dynamictrees.items.DendroPotion;
 import com.ferreusveritas.dynamictrees.models.loaders.ModelLoaderBlockBranchBasic;
@@ -247,6 +248,7 @@ public class ClientProxy extends CommonProxy {
 	public void registerClientEventHandlers() {
 		MinecraftForge.EVENT_BUS.register(new ModelBakeEventListener());
 		MinecraftForge.EVENT_BUS.register(TextureGenerationHandler.class);
+		MinecraftForge.EVENT_BUS.register(new SubstanceEffectClientHandler());
 	}
 	
 	public void registerEntityRenderers() {
@@ -63,7 +63,10 @@ public class RenderFallingTree extends Render<EntityFallingTree>{
 		}
 		
 		entity.currentAnimationHandler.renderTransform(entity, entityYaw, partialTicks);
-		this.drawBakedQuads(treeModel.getQuadData(), brightnessIn, entity.getDestroyData().species, entity);
+		Species species = entity.getDestroyData().species;
+		if(treeModel.isReady()) {//Nothing to draw until the worker has built the quads.  Usually only a frame or two
+			treeModel.render(brightnessIn, buffer -> this.putBakedQuads(buffer, treeModel.getQuadData(), brightnessIn, species, entity));
+		}
 		
 		GlStateManager.popMatrix();
 		GlStateManager.enableLighting();
@@ -85,13 +88,19 @@ public class RenderFallingTree extends Render<EntityFallingTree>{
 		final BufferBuilder buffer = tessellator.getBuffer();
 		
 		buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
-		
+		putBakedQuads(buffer, inQuads, brightness, species, entity);
+		tessellator.draw();
+	}
+	
+	/**
+	 * Puts the quads into a buffer that has already begun.  For the tree itself this only runs when it's model is
+	 * compiled so the colors from {@link Species#colorTreeQuads} are fixed for the whole fall.
+	 */
+	public void putBakedQuads(BufferBuilder buffer, List<ModelEntityFallingTree.TreeQuadData> inQuads, int brightness, Species species, EntityFallingTree entity) {
 		for (ModelEntityFallingTree.TreeQuadData treeQuad: inQuads) {
 			int color = species==null ? treeQuad.color : species.colorTreeQuads(treeQuad.color, treeQuad, entity);
 			this.drawBakedQuad(buffer, treeQuad.bakedQuad, brightness, color);
 		}
-		
-		tessellator.draw();
 	}
 	
 	public void drawBakedQuad (BufferBuilder buffer, BakedQuad bakedQuad, int brightness, int color) {
@@ -2,6 +2,7 @@ package com.ferreusveritas.dynamictrees.seasons;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 
@@ -11,11 +12,16 @@ import com.ferreusveritas.dynamictrees.api.seasons.ISeasonManager;
 
 import net.minecraft.util.Tuple;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 
 public class SeasonManager implements ISeasonManager {
 	
 	private Map<Integer, SeasonContext> seasonContextMap = new HashMap<>();
+	private Map<World, WorldClimate> worldClimateMap = new ConcurrentHashMap<>();//Keyed by instance so client and server worlds are kept apart
+	private volatile WorldClimate lastClimate;
+	private long climateHits = 0;
+	private long climateMisses = 0;
 	private Function<World, Tuple<ISeasonProvider, ISeasonGrowthCalculator> > seasonMapper = w -> new Tuple(new SeasonProviderNull(), new SeasonGrowthCalculatorNull());
 	
 	public SeasonManager() {}
@@ -41,6 +47,102 @@ public class SeasonManager implements ISeasonManager {
 	
 	public void flushMappings() {
 		seasonContextMap.clear();
+		worldClimateMap.clear();
+		lastClimate = null;
+	}
+	
+	
+	////////////////////////////////////////////////////////////////
+	// Climate Cache
+	////////////////////////////////////////////////////////////////
+	
+	private static final byte UNKNOWN = 0;
+	private static final byte TEMPERATE = 1;
+	private static final byte TROPICAL = 2;
+	
+	/**
+	 * The season context of a world along with the climate zone of every block column that's been asked about.  Zones
+	 * are held per chunk in an array of 256 columns that's filled in as it's used.  The tropical predicate is assumed to
+	 * only depend on the column, which is true of anything that goes by biome.
+	 * 
+	 * Only ever used from the thread of the world it belongs to.
+	 */
+	private static class WorldClimate {
+		private final World world;
+		private final SeasonContext context;
+		private final Map<Long, byte[]> chunkZones = new HashMap<>();
+		private long lastChunk;
+		private byte[] lastZones;
+		
+		private WorldClimate(World world, SeasonContext context) {
+			this.world = world;
+			this.context = context;
+		}
+		
+		private byte[] getZones(int chunkX, int chunkZ) {
+			long key = ChunkPos.asLong(chunkX, chunkZ);
+			if(lastZones == null || lastChunk != key) {
+				lastZones = chunkZones.computeIfAbsent(key, k -> new byte[256]);
+				lastChunk = key;
+			}
+			return lastZones;
+		}
+		
+		private void unloadChunk(int chunkX, int chunkZ) {
+			long key = ChunkPos.asLong(chunkX, chunkZ);
+			chunkZones.remove(key);
+			if(lastChunk == key) {
+				lastZones = null;
+			}
+		}
+	}
+	
+	private WorldClimate getClimate(World world) {
+		WorldClimate climate = lastClimate;
+		if(climate == null || climate.world != world) {
+			climate = worldClimateMap.computeIfAbsent(world, w -> new WorldClimate(w, getContext(w)));
+			lastClimate = climate;
+		}
+		return climate;
+	}
+	
+	/** @return true if the column is tropical.  Worked out with the tropical predicate once per column */
+	private boolean isTropicalCached(WorldClimate climate, BlockPos rootPos) {
+		byte[] zones = climate.getZones(rootPos.getX() >> 4, rootPos.getZ() >> 4);
+		int column = (rootPos.getZ() & 15) << 4 | (rootPos.getX() & 15);
+		byte zone = zones[column];
+		if(zone == UNKNOWN) {
+			climateMisses++;
+			zone = isTropical.test(climate.world, rootPos) ? TROPICAL : TEMPERATE;
+			zones[column] = zone;
+		} else {
+			climateHits++;
+		}
+		return zone == TROPICAL;
+	}
+	
+	@Override
+	public void unloadChunk(World world, int chunkX, int chunkZ) {
+		WorldClimate climate = worldClimateMap.get(world);
+		if(climate != null) {
+			climate.unloadChunk(chunkX, chunkZ);
+		}
+	}
+	
+	@Override
+	public void unloadWorld(World world) {
+		worldClimateMap.remove(world);
+		lastClimate = null;
+	}
+	
+	/** @return The number of climate zone lookups answered by the cache.  Counted loosely across threads */
+	public long getClimateCacheHits() {
+		return climateHits;
+	}
+	
+	/** @return The number of climate zone lookups that had to run the tropical predicate */
+	public long getClimateCacheMisses() {
+		return climateMisses;
 	}
 	
 	
@@ -58,10 +160,12 @@ public class SeasonManager implements ISeasonManager {
 	 */
 	public void setTropicalPredicate(BiPredicate<World, BlockPos> predicate) {
 		isTropical = predicate;
+		worldClimateMap.clear();//The cached zones came from the old predicate
+		lastClimate = null;
 	}
 	
 	public boolean isTropical(World world, BlockPos rootPos) {
-		return isTropical.test(world, rootPos);
+		return isTropicalCached(getClimate(world), rootPos);
 	}
 	
 	
@@ -74,13 +178,13 @@ public class SeasonManager implements ISeasonManager {
 	}
 	
 	public float getGrowthFactor (World world, BlockPos rootPos, float offset) {
-		SeasonContext context = getContext(world);
-		return isTropical(world, rootPos) ? context.getTropicalGrowthFactor(offset) : context.getTemperateGrowthFactor(offset);
+		WorldClimate climate = getClimate(world);
+		return isTropicalCached(climate, rootPos) ? climate.context.getTropicalGrowthFactor(offset) : climate.context.getTemperateGrowthFactor(offset);
 	}
 	
 	public float getSeedDropFactor(World world, BlockPos rootPos, float offset) {
-		SeasonContext context = getContext(world);
-		return isTropical(world, rootPos) ? context.getTropicalSeedDropFactor(offset) : context.getTemperateSeedDropFactor(offset);
+		WorldClimate climate = getClimate(world);
+		return isTropicalCached(climate, rootPos) ? climate.context.getTropicalSeedDropFactor(offset) : climate.context.getTemperateSeedDropFactor(offset);
 	}
 	
 	@Override
@@ -90,8 +194,8 @@ public class SeasonManager implements ISeasonManager {
 			return getFruitProductionFactorAsScan(world, rootPos, offset);
 		}
 		
-		SeasonContext context = getContext(world);
-		return isTropical(world, rootPos) ? context.getTropicalFruitProductionFactor(offset) : context.getTemperateFruitProductionFactor(offset);
+		WorldClimate climate = getClimate(world);
+		return isTropicalCached(climate, rootPos) ? climate.context.getTropicalFruitProductionFactor(offset) : climate.context.getTemperateFruitProductionFactor(offset);
 	}
 	
 	public Float getSeasonValue(World world, BlockPos pos) {
@@ -1,11 +1,15 @@
 package com.ferreusveritas.dynamictrees.systems;
 
+import java.util.Arrays;
 import java.util.Random;
 
 import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.RandomXOR;
 
+import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 
 public class GrowSignal {
 	
@@ -17,7 +21,7 @@ public class GrowSignal {
 	private Species species;
 	
 	public BlockPos rootPos;
-	public BlockPos delta;
+	private final BlockPos.MutableBlockPos delta = new BlockPos.MutableBlockPos();
 	
 	//Back data
 	public float radius;
@@ -29,7 +33,40 @@ public class GrowSignal {
 	//Utility
 	public Random rand;
 	
+	//Reused from pulse to pulse so growing doesn't allocate
+	private final int[] probMap = new int[6];
+	private Random ownRand;
+	private boolean inUse;
+	private final RandomXOR seededRand = new RandomXOR();//Only used from the pooled signal
+	private boolean seededRandInUse;
+	
+	//Block states read by the signal during this pulse.  An open addressing table keyed by packed position.  Entries
+	//from earlier pulses are told apart by their stamp so nothing has to be cleared between pulses
+	private long[] cacheKeys;
+	private IBlockState[] cacheStates;
+	private int[] cacheStamps;
+	private int cacheStamp;
+	private int cacheSize;
+	private int worldReads;
+	private int readsSaved;
+	
+	//Totals for every pulse that was given back to the pool.  Counted loosely across threads
+	private static long totalPulses;
+	private static long totalWorldReads;
+	private static long totalReadsSaved;
+	
+	private static final ThreadLocal<GrowSignal> pool = ThreadLocal.withInitial(GrowSignal::new);
+	
+	private GrowSignal() {
+		ownRand = new RandomXOR();
+	}
+	
 	public GrowSignal(Species species, BlockPos rootPos, float energy) {
+		ownRand = new Random();
+		reset(species, rootPos, energy, null);
+	}
+	
+	private void reset(Species species, BlockPos rootPos, float energy, Random rand) {
 		this.species = species;
 		this.energy = energy;
 		dir = EnumFacing.UP;
@@ -37,22 +74,221 @@ public class GrowSignal {
 		numTurns = 0;
 		numSteps = 0;
 		tapering = 0.3f;
-		rand = new Random();
+		this.rand = rand != null ? rand : ownRand;
 		success = true;
 		choked = false;
 		
 		this.rootPos = rootPos;
-		delta = new BlockPos(0, 0, 0);
+		delta.setPos(0, 0, 0);
+		
+		invalidateAll();
+		worldReads = 0;
+		readsSaved = 0;
+	}
+	
+	/**
+	 * Gets this thread's reusable signal ready for a pulse.  Give it back with {@link #release()} once the pulse is
+	 * done.  If it's still out(a tree grew while another was growing) a new signal is made instead.
+	 *
+	 * @param rand The random for the signal's decisions or null for the signal's own
+	 */
+	public static GrowSignal obtain(Species species, BlockPos rootPos, float energy, Random rand) {
+		GrowSignal signal = pool.get();
+		if(signal.inUse) {
+			signal = new GrowSignal();
+		}
+		signal.inUse = true;
+		signal.reset(species, rootPos, energy, rand);
+		return signal;
+	}
+	
+	public void release() {
+		totalPulses++;
+		totalWorldReads += worldReads;
+		totalReadsSaved += readsSaved;
+		inUse = false;
+	}
+	
+	/**
+	 * This thread's random for deterministic growth.  It's seeded from the world seed, the world time and the position
+	 * of the tree so a tree grown in the same world at the same time always makes the same decisions.  Give it back
+	 * with {@link #releaseDeterministicRandom(Random)} once the tree is done.  If it's still out(a tree grew during
+	 * another tree's update) a new random is made instead so the other tree isn't disturbed.
+	 */
+	public static Random obtainDeterministicRandom(World world, BlockPos rootPos) {
+		long seed = world.getSeed();
+		seed = mix(seed ^ world.getTotalWorldTime());
+		seed = mix(seed ^ rootPos.toLong());//Mixed so neighboring trees don't get neighboring seeds
+		
+		GrowSignal pooled = pool.get();
+		if(pooled.seededRandInUse) {
+			return new Random(seed);
+		}
+		pooled.seededRandInUse = true;
+		pooled.seededRand.setXOR(0);
+		pooled.seededRand.setSeed(seed);//Same sequence as a new Random(seed)
+		return pooled.seededRand;
+	}
+	
+	public static void releaseDeterministicRandom(Random rand) {
+		GrowSignal pooled = pool.get();
+		if(rand == pooled.seededRand) {
+			pooled.seededRandInUse = false;
+		}
+	}
+	
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+		return key;
 	}
 	
 	public Species getSpecies() {
 		return species;
 	}
 	
+	/** @return How far the signal has traveled from the tree base.  Changes with every step so copy it to keep it */
+	public BlockPos getDelta() {
+		return delta;
+	}
+	
+	/** @return A zeroed probability map for choosing a direction.  Only good until the next call */
+	public int[] getProbMap() {
+		Arrays.fill(probMap, 0);
+		return probMap;
+	}
+	
+	
+	///////////////////////////////////////////
+	// Block state cache
+	///////////////////////////////////////////
+	
+	/**
+	 * Reads a block state for the growth path.  Every node looks at its neighbors, its target and itself several
+	 * times over so each position is only read from the world once per pulse.
+	 *
+	 * Nothing is written while the signal travels forward so forward reads are always good.  Whatever writes a block
+	 * on the way back must {@link #invalidate(BlockPos)} it so the nodes before it read the new state.
+	 */
+	public IBlockState getBlockState(World world, BlockPos pos) {
+		if(cacheKeys == null || (cacheSize + 1) * 4 > cacheKeys.length * 3) {
+			growCache();
+		}
+		
+		long key = pos.toLong();
+		int slot = findSlot(key);
+		if(cacheStamps[slot] == cacheStamp) {
+			IBlockState state = cacheStates[slot];
+			if(state != null) {
+				readsSaved++;
+				return state;
+			}
+		} else {
+			cacheKeys[slot] = key;
+			cacheStamps[slot] = cacheStamp;
+			cacheSize++;
+		}
+		
+		worldReads++;
+		return cacheStates[slot] = world.getBlockState(pos);
+	}
+	
+	/** The next read of the position will come from the world.  Call after the signal changes a block */
+	public void invalidate(BlockPos pos) {
+		if(cacheKeys != null) {
+			int slot = findSlot(pos.toLong());
+			if(cacheStamps[slot] == cacheStamp) {
+				cacheStates[slot] = null;//The key stays put so positions probed past it can still be found
+			}
+		}
+	}
+	
+	/** Forgets everything read so far.  For when blocks may have changed in unknown places */
+	public void invalidateAll() {
+		if(++cacheStamp == 0) {//Wrapped around so old stamps could match again
+			if(cacheStamps != null) {
+				Arrays.fill(cacheStamps, 0);
+			}
+			cacheStamp = 1;
+		}
+		cacheSize = 0;
+	}
+	
+	private int findSlot(long key) {
+		int mask = cacheKeys.length - 1;
+		int i = hash(key) & mask;
+		while(cacheStamps[i] == cacheStamp && cacheKeys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+	
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+	
+	private void growCache() {
+		long[] oldKeys = cacheKeys;
+		IBlockState[] oldStates = cacheStates;
+		int[] oldStamps = cacheStamps;
+		int capacity = oldKeys == null ? 256 : oldKeys.length * 2;
+		
+		cacheKeys = new long[capacity];
+		cacheStates = new IBlockState[capacity];
+		cacheStamps = new int[capacity];
+		
+		if(oldKeys != null) {
+			for(int i = 0; i < oldKeys.length; i++) {
+				if(oldStamps[i] == cacheStamp) {
+					int slot = findSlot(oldKeys[i]);
+					cacheKeys[slot] = oldKeys[i];
+					cacheStates[slot] = oldStates[i];
+					cacheStamps[slot] = cacheStamp;
+				}
+			}
+		}
+	}
+	
+	/** @return The number of block states read from the world by this pulse */
+	public int getWorldReads() {
+		return worldReads;
+	}
+	
+	/** @return The number of block state reads by this pulse that didn't have to go to the world */
+	public int getReadsSaved() {
+		return readsSaved;
+	}
+	
+	/** @return The number of pulses given back to the pool */
+	public static long getTotalPulses() {
+		return totalPulses;
+	}
+	
+	/** @return The number of block states read from the world by all pooled pulses */
+	public static long getTotalWorldReads() {
+		return totalWorldReads;
+	}
+	
+	/** @return The number of block state reads saved by all pooled pulses */
+	public static long getTotalReadsSaved() {
+		return totalReadsSaved;
+	}
+	
+	
+	///////////////////////////////////////////
+	// Travel
+	///////////////////////////////////////////
+	
 	public boolean step() {
 		numSteps++;
 		
-		delta = delta.offset(dir);
+		delta.move(dir);
 		
 		if(--energy <= 0.0f) {
 			success = false;//Ran out of energy before it could grow
@@ -0,0 +1,165 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.util.CoordUtils;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Catches trees up on the growth they missed while their chunk was unloaded.
+ *
+ * Every chunk is saved with the world time.  When it's loaded again the time that passed is turned into the number of
+ * updates a tree would have had from random ticks.  The trees in the chunk are found and are given those updates a few
+ * at a time within a time budget each tick.  No tree gets more than {@link ModConfigs#growthCatchUpMaxUpdates} at once
+ * so a chunk that was away for ages doesn't turn into a forest of giants all at once.
+ *
+ * Updates owed to a tree whose chunk unloads again before they're run are lost.  The time is measured from the next
+ * save instead.
+ */
+public class GrowthCatchUp {
+
+	public static final String TIMETAG = "DTGrowTime";
+
+	private static final Map<Integer, GrowthCatchUp> catchUps = new HashMap<>();
+
+	//Chunks loaded since the last tick and the world time they were saved at.  Chunks can be loaded off the main thread
+	private final Map<ChunkPos, Long> loadedChunks = new ConcurrentHashMap<>();
+	private final LinkedHashMap<BlockPos, Integer> pending = new LinkedHashMap<>();
+
+	private long chunksCaughtUp;
+	private long updatesRun;
+	private long updatesLost;
+
+	/**
+	 * @param world The world
+	 * @return The growth catch up for the world or null if catching up is disabled or the world is remote
+	 */
+	public static GrowthCatchUp get(World world) {
+		if(!ModConfigs.growthCatchUp || world.isRemote) {
+			return null;
+		}
+		synchronized(catchUps) {
+			return catchUps.computeIfAbsent(world.provider.getDimension(), d -> new GrowthCatchUp());
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		synchronized(catchUps) {
+			catchUps.remove(world.provider.getDimension());
+		}
+	}
+
+	/**
+	 * Called when a chunk's data is loaded.
+	 *
+	 * @param savedTime The world time when the chunk was saved
+	 */
+	public void chunkLoaded(int chunkX, int chunkZ, long savedTime) {
+		loadedChunks.put(new ChunkPos(chunkX, chunkZ), savedTime);
+	}
+
+	/**
+	 * Finds the trees in newly loaded chunks and runs owed updates within the configured budget.  Should be called once
+	 * per world tick.
+	 */
+	public void process(World world) {
+		long start = System.nanoTime();
+		long budgetNanos = (long) (ModConfigs.growthCatchUpBudgetMillis * 1000000L);
+
+		if(!loadedChunks.isEmpty()) {
+			float updatesPerTick = world.getGameRules().getInt("randomTickSpeed") / 4096.0f / ModConfigs.treeGrowthFolding;//The rate BlockRooty.randomTick updates a tree
+			Iterator<Map.Entry<ChunkPos, Long>> iter = loadedChunks.entrySet().iterator();
+			while(iter.hasNext() && System.nanoTime() - start < budgetNanos) {
+				Map.Entry<ChunkPos, Long> entry = iter.next();
+				iter.remove();
+				Chunk chunk = world.getChunkProvider().getLoadedChunk(entry.getKey().x, entry.getKey().z);
+				float updates = (world.getTotalWorldTime() - entry.getValue()) * updatesPerTick;
+				if(chunk != null && updates > 0) {
+					findTrees(world, chunk, updates);
+					chunksCaughtUp++;
+				}
+			}
+		}
+
+		int rounds = pending.size();//Visit each tree at most once per round
+
+		while(!pending.isEmpty() && rounds-- > 0 && System.nanoTime() - start < budgetNanos) {
+			Iterator<Map.Entry<BlockPos, Integer>> iter = pending.entrySet().iterator();
+			Map.Entry<BlockPos, Integer> entry = iter.next();
+			BlockPos rootPos = entry.getKey();
+			int count = entry.getValue();
+			iter.remove();
+
+			if(world.isBlockLoaded(rootPos)) {
+				IBlockState rootyState = world.getBlockState(rootPos);
+				if(TreeHelper.isRooty(rootyState)) {
+					if(CoordUtils.isSurroundedByLoadedChunks(world, rootPos)) {
+						TreeHelper.getRooty(rootyState).updateTree(rootyState, world, rootPos, world.rand, true);
+						updatesRun++;
+						count--;
+					}
+					if(count > 0) {
+						pending.put(rootPos, count);//Back of the line for round-robin fairness
+					}
+					continue;
+				}
+			}
+
+			updatesLost += count;//The tree is gone or unloaded
+		}
+	}
+
+	private void findTrees(World world, Chunk chunk, float updates) {
+		int minX = chunk.x << 4;
+		int minZ = chunk.z << 4;
+		for(ExtendedBlockStorage section: chunk.getBlockStorageArray()) {
+			if(section != Chunk.NULL_BLOCK_STORAGE && !section.isEmpty()) {
+				for(int y = 0; y < 16; y++) {
+					for(int z = 0; z < 16; z++) {
+						for(int x = 0; x < 16; x++) {
+							if(TreeHelper.isRooty(section.get(x, y, z))) {
+								int count = Math.min((int) (updates + world.rand.nextFloat()), ModConfigs.growthCatchUpMaxUpdates);//The fraction is a chance of one more
+								if(count > 0) {
+									pending.put(new BlockPos(minX | x, section.getYLocation() | y, minZ | z), count);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/** @return The number of trees with updates owed */
+	public int getQueueDepth() {
+		return pending.size();
+	}
+
+	/** @return The number of loaded chunks that were searched for trees to catch up */
+	public long getChunksCaughtUp() {
+		return chunksCaughtUp;
+	}
+
+	/** @return The number of owed updates that were run */
+	public long getUpdatesRun() {
+		return updatesRun;
+	}
+
+	/** @return The number of owed updates lost to trees being removed or unloaded first */
+	public long getUpdatesLost() {
+		return updatesLost;
+	}
+
+}
@@ -0,0 +1,407 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.cells.ICell;
+import com.ferreusveritas.dynamictrees.api.cells.ICellKit;
+import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Ages a whole volume of leaves blocks at once.
+ *
+ * Aging leaves one block at a time with {@link BlockDynamicLeaves#age} costs six block state lookups per leaves
+ * block per iteration and every change is written to the world straight away.  Instead this takes a snapshot of the
+ * leaves in a volume.  The hydration of each leaves block goes into a primitive array and the cells of the non-leaves
+ * blocks around them are looked up only once.  The cellular automata is then run to a fixed point entirely in memory
+ * and only the leaves whose hydration actually changed are written back to the world.
+ *
+ * Aging a leaf map with {@link #ageChanged} instead follows the old leaf map loop.  Leaves are only aged while their
+ * hydration or that of a neighbor keeps changing and the leaves grown around them aren't aged at all.  Only the block
+ * lookups are saved so the canopy comes out exactly as it always has.
+ *
+ * Only leaves that age like stock leaves are handled.  See {@link BlockDynamicLeaves#isBatchAgeable()}.
+ */
+public class LeafHydrationSolver {
+
+	/** The most passes that will be made over the cells looking for a fixed point.  The automata normally settles in a few */
+	public static final int MAX_PASSES = 16;
+
+	private static final int UNTRACKED = -1;
+
+	private final World world;
+	private final SafeChunkBounds safeBounds;
+	private final boolean worldGen;
+
+	//The snapshot grid covers the volume plus a one block margin so leaves can grow just outside of it
+	private final int minX, minY, minZ;
+	private final int lenX, lenY, lenZ;
+	private final IBlockState[] states;
+	private final int[] cellIndex;//Cell number + 1 for each grid position.  0 is untracked
+
+	//Per cell data
+	private int numCells;
+	private BlockPos[] positions = new BlockPos[64];
+	private ILeavesProperties[] properties = new ILeavesProperties[64];
+	private byte[] hydro = new byte[64];
+	private byte[] written = new byte[64];//The hydration currently in the world
+	private boolean[] lit = new boolean[64];
+	private boolean[] dirty = new boolean[64];
+	private boolean[] awake = new boolean[64];//Still to be aged by ageChanged()
+	private int[] neighbors = new int[64 * 6];//Cell number of the neighbor on each side or UNTRACKED
+	private ICell[] fixedCells = new ICell[64 * 6];//The cells of untracked neighbors.  These don't change while solving
+
+	private final ICell[] cells = new ICell[6];
+
+	/**
+	 * @param world The world
+	 * @param volume The volume of blocks to be aged
+	 * @param safeBounds The defined boundaries where it is safe to make block changes
+	 */
+	public LeafHydrationSolver(World world, BlockBounds volume, SafeChunkBounds safeBounds) {
+		this.world = world;
+		this.safeBounds = safeBounds;
+		this.worldGen = safeBounds != SafeChunkBounds.ANY;
+
+		BlockPos min = volume.getMin();
+		minX = min.getX() - 1;
+		minY = min.getY() - 1;
+		minZ = min.getZ() - 1;
+		lenX = volume.getXSize() + 2;
+		lenY = volume.getYSize() + 2;
+		lenZ = volume.getZSize() + 2;
+		states = new IBlockState[lenX * lenY * lenZ];
+		cellIndex = new int[lenX * lenY * lenZ];
+	}
+
+	private int gridIndex(BlockPos pos) {
+		int x = pos.getX() - minX;
+		int y = pos.getY() - minY;
+		int z = pos.getZ() - minZ;
+		if(x < 0 || x >= lenX || y < 0 || y >= lenY || z < 0 || z >= lenZ) {
+			return UNTRACKED;
+		}
+		return (y * lenZ + z) * lenX + x;
+	}
+
+	/**
+	 * Gets a block state from the snapshot.  The world is only consulted the first time a position is requested.
+	 */
+	public IBlockState getBlockState(BlockPos pos) {
+		int g = gridIndex(pos);
+		if(g == UNTRACKED) {
+			return world.getBlockState(pos);
+		}
+		IBlockState state = states[g];
+		if(state == null) {
+			state = states[g] = world.getBlockState(pos);
+		}
+		return state;
+	}
+
+	private void setBlockState(BlockPos pos, IBlockState state) {
+		int g = gridIndex(pos);
+		if(g != UNTRACKED) {
+			states[g] = state;
+		}
+	}
+
+	private int getCell(BlockPos pos) {
+		int g = gridIndex(pos);
+		return g == UNTRACKED ? UNTRACKED : cellIndex[g] - 1;
+	}
+
+	/**
+	 * @param pos A position in the world
+	 * @return The current hydration of the leaves at pos, 0 if they died or -1 if the position isn't tracked
+	 */
+	public int getHydro(BlockPos pos) {
+		int c = getCell(pos);
+		return c == UNTRACKED ? -1 : hydro[c];
+	}
+
+	public int getNumCells() {
+		return numCells;
+	}
+
+	/**
+	 * Adds a leaves block to the solver.
+	 *
+	 * @param pos The position of the block
+	 * @param state The state of the block
+	 * @return true if the block is now handled by the solver.  false if it must be aged some other way
+	 */
+	public boolean add(BlockPos pos, IBlockState state) {
+		if(!(state.getBlock() instanceof BlockDynamicLeaves) || !((BlockDynamicLeaves)state.getBlock()).isBatchAgeable()) {
+			return false;
+		}
+
+		int g = gridIndex(pos);
+		if(g == UNTRACKED) {
+			return false;
+		}
+
+		int c = cellIndex[g] - 1;
+		if(c == UNTRACKED) {
+			c = numCells++;
+			ensureCapacity(numCells);
+			cellIndex[g] = c + 1;
+			positions[c] = pos.toImmutable();
+		}
+		states[g] = state;
+
+		BlockDynamicLeaves leaves = (BlockDynamicLeaves) state.getBlock();
+		properties[c] = leaves.getProperties(state);
+		hydro[c] = written[c] = state.getValue(BlockDynamicLeaves.HYDRO).byteValue();
+		lit[c] = worldGen || leaves.hasAdequateLight(state, world, properties[c], positions[c]);//Light doesn't work right during worldgen
+		dirty[c] = true;
+		awake[c] = true;
+
+		link(c);
+		return true;
+	}
+
+	/** Connects a cell to it's neighbors.  Tracked neighbors are linked both ways and the rest are snapshotted as fixed cells */
+	private void link(int c) {
+		BlockPos pos = positions[c];
+		int base = c * 6;
+
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			BlockPos dPos = pos.offset(dir);
+			int n = getCell(dPos);
+			if(n != UNTRACKED) {
+				neighbors[base + dir.getIndex()] = n;
+				fixedCells[base + dir.getIndex()] = null;
+				neighbors[n * 6 + dir.getOpposite().getIndex()] = c;
+				fixedCells[n * 6 + dir.getOpposite().getIndex()] = null;
+				dirty[n] = true;
+			} else {
+				neighbors[base + dir.getIndex()] = UNTRACKED;
+				fixedCells[base + dir.getIndex()] = getFixedCell(c, dPos, dir);
+			}
+		}
+	}
+
+	private ICell getFixedCell(int c, BlockPos dPos, EnumFacing dir) {
+		IBlockState state = getBlockState(dPos);
+		return TreeHelper.getTreePart(state).getHydrationCell(world, dPos, state, dir, properties[c]);
+	}
+
+	private void ensureCapacity(int size) {
+		if(size > positions.length) {
+			int capacity = positions.length * 2;
+			positions = Arrays.copyOf(positions, capacity);
+			properties = Arrays.copyOf(properties, capacity);
+			hydro = Arrays.copyOf(hydro, capacity);
+			written = Arrays.copyOf(written, capacity);
+			lit = Arrays.copyOf(lit, capacity);
+			dirty = Arrays.copyOf(dirty, capacity);
+			awake = Arrays.copyOf(awake, capacity);
+			neighbors = Arrays.copyOf(neighbors, capacity * 6);
+			fixedCells = Arrays.copyOf(fixedCells, capacity * 6);
+		}
+	}
+
+	/**
+	 * Performs one aging cycle.  Hydration is solved to a fixed point, the changes are written to the world and then
+	 * new leaves are grown around the survivors just as {@link BlockDynamicLeaves#age} would.
+	 *
+	 * @param rand Random number generator
+	 */
+	public void age(Random rand) {
+		solve();
+		writeBack();
+		grow(rand);
+	}
+
+	/**
+	 * Performs one aging cycle of a leaf map the same way {@link TreeHelper#ageVolumeByBlock(World, SimpleVoxmap, int, SafeChunkBounds)}
+	 * does.  The cells are aged in order and each change is written straight away.  A cell whose hydration changes
+	 * stays awake along with it's living neighbors.  Every other cell is put to sleep once it's been aged.  Living cells
+	 * grow new leaves as they're aged but those new leaves are never aged themselves.
+	 *
+	 * @param rand Random number generator
+	 */
+	public void ageChanged(Random rand) {
+		for(int c = 0; c < numCells; c++) {//Cells woken ahead of this one are aged on this cycle and the rest on the next
+			if(!awake[c]) {
+				continue;
+			}
+			awake[c] = false;
+			if(hydro[c] == 0) {
+				continue;//Dead leaves stay dead
+			}
+
+			int newHydro = lit[c] ? solveCell(c) : 0;//No water, no light .. no leaves
+			if(newHydro == hydro[c]) {
+				grow(c, rand, false);
+				continue;
+			}
+
+			hydro[c] = (byte) newHydro;
+			write(c);
+			if(newHydro == 0) {
+				continue;//The old loop didn't wake the neighbors of leaves that died
+			}
+
+			awake[c] = true;
+			for(int d = 0; d < 6; d++) {//The neighbors now have the potential to change
+				int n = neighbors[c * 6 + d];
+				if(n != UNTRACKED && hydro[n] != 0) {
+					awake[n] = true;
+				}
+			}
+			grow(c, rand, false);
+		}
+	}
+
+	/**
+	 * Runs the cellular automata in memory until no more cells change.
+	 *
+	 * @return true if any cell changed
+	 */
+	public boolean solve() {
+		boolean changed = false;
+
+		for(int pass = 0; pass < MAX_PASSES; pass++) {
+			boolean passChanged = false;
+
+			for(int c = 0; c < numCells; c++) {
+				if(dirty[c]) {
+					dirty[c] = false;
+					if(hydro[c] == 0) {
+						continue;//Dead leaves stay dead
+					}
+					int newHydro = lit[c] ? solveCell(c) : 0;//No water, no light .. no leaves
+					if(newHydro != hydro[c]) {
+						hydro[c] = (byte) newHydro;
+						passChanged = true;
+						for(int d = 0; d < 6; d++) {//The neighbors now have the potential to change
+							int n = neighbors[c * 6 + d];
+							if(n != UNTRACKED) {
+								dirty[n] = true;
+							}
+						}
+					}
+				}
+			}
+
+			if(!passChanged) {
+				break;
+			}
+			changed = true;
+		}
+
+		return changed;
+	}
+
+	private int solveCell(int c) {
+		ICellKit kit = properties[c].getCellKit();
+		int base = c * 6;
+
+		for(int d = 0; d < 6; d++) {
+			int n = neighbors[base + d];
+			cells[d] = n != UNTRACKED ? kit.getCellForLeaves(hydro[n]) : fixedCells[base + d];
+		}
+
+		return kit.getCellSolver().solve(cells);
+	}
+
+	/** Writes only the leaves whose hydration has changed back to the world */
+	public void writeBack() {
+		for(int c = 0; c < numCells; c++) {
+			if(hydro[c] != written[c]) {
+				write(c);
+			}
+		}
+	}
+
+	private void write(int c) {
+		BlockPos pos = positions[c];
+		if(hydro[c] == 0) {
+			world.setBlockToAir(pos);
+			setBlockState(pos, Blocks.AIR.getDefaultState());
+		} else {
+			ILeavesProperties leavesProperties = properties[c];
+			IBlockState newState = leavesProperties.getDynamicLeavesState(hydro[c]);
+			//Same flags as BlockDynamicLeaves.age().  The clients don't need to know about hydration unless it changes appearance
+			world.setBlockState(pos, newState, leavesProperties.appearanceChangesWithHydro() ? 2 : 4);
+			setBlockState(pos, newState);
+		}
+		written[c] = hydro[c];
+	}
+
+	/** Grows new leaves on the sides of living leaves that aren't already covered by living leaves */
+	private void grow(Random rand) {
+		for(int c = 0, num = numCells; c < num; c++) {//Leaves grown here are grown from on the next cycle
+			if(hydro[c] != 0) {
+				grow(c, rand, true);
+			}
+		}
+	}
+
+	/**
+	 * Grows new leaves around a living cell.
+	 *
+	 * @param track true if the new leaves become cells of their own.  Otherwise they're only seen by their neighbors
+	 */
+	private void grow(int c, Random rand, boolean track) {
+		int sides = 0;
+		for(int d = 0; d < 6; d++) {
+			int n = neighbors[c * 6 + d];
+			if(n == UNTRACKED || hydro[n] == 0) {
+				sides |= 1 << d;
+			}
+		}
+
+		if(hydro[c] == 1 && !track) {
+			sides = BlockDynamicLeaves.ALLSIDES;//Weak leaves roll for every side so the same random numbers are drawn as when aged by block
+		}
+
+		if(sides != 0) {
+			BlockPos pos = positions[c];
+			IBlockState state = getBlockState(pos);
+			int grown = ((BlockDynamicLeaves)state.getBlock()).growNewLeaves(world, pos, state, hydro[c], rand, safeBounds, sides);
+
+			for(int d = 0; grown != 0; d++, grown >>= 1) {
+				if((grown & 1) != 0) {
+					EnumFacing dir = EnumFacing.getFront(d);
+					BlockPos offPos = pos.offset(dir);
+					IBlockState newState = world.getBlockState(offPos);
+					setBlockState(offPos, newState);
+					if(!track) {
+						unlink(offPos);
+					} else if(!add(offPos, newState)) {//Outside of the grid so just refresh the neighbor
+						fixedCells[c * 6 + d] = getFixedCell(c, offPos, dir);
+						dirty[c] = true;
+					}
+				}
+			}
+		}
+	}
+
+	/** The neighbors of a position see whatever's there now as a fixed cell.  A dead cell there is cut off from them */
+	private void unlink(BlockPos pos) {
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			int n = getCell(pos.offset(dir));
+			if(n != UNTRACKED) {
+				int i = n * 6 + dir.getOpposite().getIndex();
+				neighbors[i] = UNTRACKED;
+				fixedCells[i] = getFixedCell(n, pos, dir.getOpposite());
+				dirty[n] = true;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Spreads tree updates over server ticks with a fixed budget.
+ *
+ * Rooty blocks register themselves from their random tick with the same 1 in {@link ModConfigs#treeGrowthFolding}
+ * chance that used to trigger an immediate update.  Each registration is one pending update so the average growth
+ * rate per tree is unchanged.  A tree that's registered again before it's been updated just has the update added to
+ * the count on it's entry so nothing is lost and the queue never holds more than one entry per tree.  At the end of every world tick the pending updates are run in round-robin order until
+ * the time budget or the tree count budget is spent.  Whatever is left over waits for the next tick.  If the world
+ * tick has already run longer than {@link ModConfigs#growthSchedulerDeferMillis} then no updates are run at all.
+ */
+public class TreeGrowthScheduler {
+
+	private static final Map<Integer, TreeGrowthScheduler> schedulers = new HashMap<>();
+
+	private final LinkedHashMap<BlockPos, Integer> pending = new LinkedHashMap<>();
+	private long tickStartNanos;
+
+	private long lastTickNanos;
+	private int lastTickUpdates;
+	private long deferredTicks;
+	private long pendingUpdates;
+
+	/**
+	 * @param world The world
+	 * @return The growth scheduler for the world or null if the scheduler is disabled or the world is remote
+	 */
+	public static TreeGrowthScheduler get(World world) {
+		if(!ModConfigs.enableGrowthScheduler || world.isRemote) {
+			return null;
+		}
+		return schedulers.computeIfAbsent(world.provider.getDimension(), d -> new TreeGrowthScheduler());
+	}
+
+	public static void unloadWorld(World world) {
+		schedulers.remove(world.provider.getDimension());
+	}
+
+	/**
+	 * Request an update for the tree on the rooty block at rootPos.
+	 */
+	public void schedule(BlockPos rootPos) {
+		pending.merge(rootPos, 1, Integer::sum);//Extra updates are counted on the tree's entry
+		pendingUpdates++;
+	}
+
+	public void startTick() {
+		tickStartNanos = System.nanoTime();
+	}
+
+	/**
+	 * Runs pending tree updates within the configured budget.  Should be called once per world tick.
+	 */
+	public void process(World world) {
+		long start = System.nanoTime();
+		lastTickUpdates = 0;
+		lastTickNanos = 0;
+
+		if(pending.isEmpty()) {
+			return;
+		}
+
+		if(tickStartNanos != 0 && (start - tickStartNanos) > ModConfigs.growthSchedulerDeferMillis * 1000000L) {
+			deferredTicks++;//The tick is already over budget so leave the growth for later
+			return;
+		}
+
+		long budgetNanos = (long) (ModConfigs.growthSchedulerBudgetMillis * 1000000L);
+		int maxUpdates = ModConfigs.growthSchedulerMaxTrees;
+		int rounds = pending.size();//Visit each tree at most once per round
+
+		while(!pending.isEmpty() && rounds-- > 0 && lastTickUpdates < maxUpdates && System.nanoTime() - start < budgetNanos) {
+			Iterator<Map.Entry<BlockPos, Integer>> iter = pending.entrySet().iterator();
+			Map.Entry<BlockPos, Integer> entry = iter.next();
+			BlockPos rootPos = entry.getKey();
+			int count = entry.getValue();
+			iter.remove();
+
+			if(count > 1) {
+				pending.put(rootPos, count - 1);//Back of the line for round-robin fairness
+			}
+
+			if(world.isBlockLoaded(rootPos)) {
+				IBlockState rootyState = world.getBlockState(rootPos);
+				if(TreeHelper.isRooty(rootyState)) {
+					TreeHelper.getRooty(rootyState).updateTree(rootyState, world, rootPos, world.rand, true);
+					lastTickUpdates++;
+					pendingUpdates--;
+					continue;
+				}
+			}
+
+			pending.remove(rootPos);//The tree is gone or unloaded
+			pendingUpdates -= count;
+		}
+
+		lastTickNanos = System.nanoTime() - start;
+	}
+
+	/** @return The number of trees waiting for an update */
+	public int getQueueDepth() {
+		return pending.size();
+	}
+
+	/** @return The time spent running updates during the last tick in nanoseconds */
+	public long getLastTickNanos() {
+		return lastTickNanos;
+	}
+
+	/** @return The number of tree updates run during the last tick */
+	public int getLastTickUpdates() {
+		return lastTickUpdates;
+	}
+
+	/** @return The number of ticks where updates were skipped because the tick was already over budget */
+	public long getDeferredTicks() {
+		return deferredTicks;
+	}
+
+	/** @return The number of updates waiting across all of the trees */
+	public long getPendingUpdates() {
+		return pendingUpdates;
+	}
+
+}
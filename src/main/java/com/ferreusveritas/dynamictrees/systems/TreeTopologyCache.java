@@ -0,0 +1,381 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Holds the topology(endpoints, trunk height, volume and root direction) of trees so that routine updates don't need
+ * to analyse the entire branch network every time.
+ *
+ * A topology is created by a full analysis the first time it's requested.  After that the endpoint list is patched as
+ * branches come and go.  While a grow signal from Species.grow() is running through a tree, new branches replace the
+ * endpoint they grew out of.  Outside of growth a branch placed against a single endpoint does the same, and when an
+ * endpoint is removed(rot mostly) the branch it came out of becomes an endpoint if it has no other children.  Any
+ * other change inside a tree's bounds, like a branch cut from the middle of a tree, can't be patched and discards the
+ * topology.  Radius changes only mark the volume and trunk height as stale since they can't alter the endpoints.
+ *
+ * Nothing is persisted.  Topologies are rebuilt lazily after a chunk or world loads.
+ */
+public class TreeTopologyCache {
+
+	private static final Map<Integer, TreeTopologyCache> caches = new HashMap<>();
+
+	private final Map<BlockPos, TreeTopology> topologies = new HashMap<>();
+	private final Map<Long, List<TreeTopology>> chunkIndex = new HashMap<>();
+	private TreeTopology growing;
+	private GrowSignal growSignal;
+
+	public static class TreeTopology {
+		public final BlockPos rootPos;
+		public final EnumFacing rootDir;
+		private final List<BlockPos> ends;
+		private final BlockBounds bounds;
+		private final List<Long> chunks = new ArrayList<>(4);
+		private int trunkHeight;
+		private float volume;
+		private boolean stale;
+
+		private TreeTopology(BlockPos rootPos, EnumFacing rootDir, List<BlockPos> ends, BlockBounds bounds, int trunkHeight, float volume) {
+			this.rootPos = rootPos;
+			this.rootDir = rootDir;
+			this.ends = ends;
+			this.bounds = bounds;
+			this.trunkHeight = trunkHeight;
+			this.volume = volume;
+		}
+
+		/** @return A mutable copy of the branch endpoints */
+		public List<BlockPos> getEnds() {
+			return new ArrayList<>(ends);
+		}
+
+		public int getTrunkHeight() {
+			return trunkHeight;
+		}
+
+		public float getVolume() {
+			return volume;
+		}
+
+		/** @return true if a radius changed since the volume and trunk height were measured */
+		public boolean isStale() {
+			return stale;
+		}
+
+		private boolean isAffectedBy(BlockPos pos) {
+			return bounds.inBounds(pos);
+		}
+	}
+
+	/**
+	 * @param world The world
+	 * @return The topology cache for the world or null if caching is disabled or the world is remote
+	 */
+	public static TreeTopologyCache get(World world) {
+		if(!ModConfigs.enableTopologyCache || world.isRemote) {
+			return null;
+		}
+		return caches.computeIfAbsent(world.provider.getDimension(), d -> new TreeTopologyCache());
+	}
+
+	public static void unloadWorld(World world) {
+		caches.remove(world.provider.getDimension());
+	}
+
+	/**
+	 * Gets the cached topology for a tree or performs a full analysis if there isn't one.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 * @param rootDir The direction from the rooty block to the trunk
+	 * @param treeBase The tree part at the base of the trunk
+	 * @return The topology of the tree
+	 */
+	public TreeTopology getTopology(World world, BlockPos rootPos, EnumFacing rootDir, ITreePart treeBase) {
+		TreeTopology topology = topologies.get(rootPos);
+		if(topology == null || topology.rootDir != rootDir) {
+			remove(topology);
+			topology = analyse(world, rootPos, rootDir, treeBase);
+			add(topology);
+		}
+		return topology;
+	}
+
+	public TreeTopology getCachedTopology(BlockPos rootPos) {
+		return topologies.get(rootPos);
+	}
+
+	/**
+	 * Measures the topology of a tree with a full analysis of the branch network.  The result isn't cached.
+	 */
+	public static TreeTopology analyse(World world, BlockPos rootPos, EnumFacing rootDir, ITreePart treeBase) {
+		BlockPos treePos = rootPos.offset(rootDir);
+		BlockBounds bounds = new BlockBounds(rootPos);
+		NodeFindEnds endFinder = new NodeFindEnds();
+		NodeNetVolume volumeSum = new NodeNetVolume();
+		INodeInspector boundsFinder = new INodeInspector() {
+			@Override
+			public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+				bounds.union(pos);
+				return false;
+			}
+
+			@Override
+			public boolean returnRun(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+				return false;
+			}
+		};
+		treeBase.analyse(world.getBlockState(treePos), world, treePos, null, new MapSignal(endFinder, volumeSum, boundsFinder));
+
+		return new TreeTopology(rootPos, rootDir, endFinder.getEnds(), bounds.expand(1), measureTrunkHeight(world, treePos, rootDir), volumeSum.getVolume());
+	}
+
+	private static int measureTrunkHeight(World world, BlockPos treePos, EnumFacing rootDir) {
+		int trunkHeight = 0;
+		for(BlockPos iter = treePos; TreeHelper.isBranch(world.getBlockState(iter)); iter = iter.offset(rootDir)) {
+			trunkHeight++;
+		}
+		return trunkHeight;
+	}
+
+	/**
+	 * Brings the volume and trunk height of a topology up to date if a radius has changed since it was measured.
+	 */
+	public void refresh(World world, TreeTopology topology, ITreePart treeBase) {
+		if(topology.stale) {
+			TreeTopology measured = analyse(world, topology.rootPos, topology.rootDir, treeBase);
+			topology.volume = measured.volume;
+			topology.trunkHeight = measured.trunkHeight;
+			topology.stale = false;
+		}
+	}
+
+	/**
+	 * Marks the start of a growth operation.  Branches added by the signal until {@link #endGrowth()} is called are
+	 * patched into this tree's topology rather than discarding it.
+	 */
+	public void beginGrowth(BlockPos rootPos, GrowSignal signal) {
+		growing = topologies.get(rootPos);
+		growSignal = signal;
+	}
+
+	public void endGrowth() {
+		growing = null;
+		growSignal = null;
+	}
+
+	/** Called when a branch block appears in the world */
+	public void onBranchAdded(World world, BlockPos pos) {
+		if(growing != null && growing.isAffectedBy(pos)) {
+			addEnd(growing, pos, pos.offset(growSignal.dir.getOpposite()));// The branch this one grew out of is no longer an endpoint
+			invalidate(pos, growing);
+		} else if(!patchAdded(world, pos)) {
+			invalidate(pos, null);
+		}
+	}
+
+	/** Called when a branch block is removed from the world */
+	public void onBranchRemoved(World world, BlockPos pos) {
+		if(!patchRemoved(world, pos)) {
+			invalidate(pos, null);
+		}
+	}
+
+	/** Called when the radius of a branch changes */
+	public void onRadiusChanged(BlockPos pos) {
+		List<TreeTopology> list = chunkIndex.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+		if(list != null) {
+			for(TreeTopology topology: list) {
+				if(topology.isAffectedBy(pos)) {
+					topology.stale = true;
+				}
+			}
+		}
+	}
+
+	/** Called when a rooty block is removed from the world */
+	public void onRootRemoved(BlockPos rootPos) {
+		remove(topologies.get(rootPos));
+	}
+
+	public void unloadChunk(int chunkX, int chunkZ) {
+		List<TreeTopology> list = chunkIndex.get(ChunkPos.asLong(chunkX, chunkZ));
+		if(list != null) {
+			for(TreeTopology topology : new ArrayList<>(list)) {
+				if(topology.rootPos.getX() >> 4 == chunkX && topology.rootPos.getZ() >> 4 == chunkZ) {
+					remove(topology);
+				}
+			}
+		}
+	}
+
+	public int size() {
+		return topologies.size();
+	}
+
+	private void addEnd(TreeTopology topology, BlockPos pos, BlockPos parent) {
+		topology.ends.remove(parent);
+		topology.ends.add(pos);
+		topology.bounds.union(pos.add(-1, -1, -1)).union(pos.add(1, 1, 1));
+		topology.stale = true;
+		for(int i = 0; i < 4; i++) {// Index the chunks of all four corners in case the tree grew across a chunk border
+			index(topology, pos.add((i & 1) * 2 - 1, 0, (i & 2) - 1));
+		}
+	}
+
+	/**
+	 * A branch placed against a single endpoint simply takes it's place.  The new branch touches no other branches so
+	 * no other tree can be affected.
+	 *
+	 * @return true if the topology was patched
+	 */
+	private boolean patchAdded(World world, BlockPos pos) {
+		BlockPos parent = getOnlyBranchNeighbor(world, pos);
+		TreeTopology topology = parent != null ? findEndOwner(parent) : null;
+		if(topology == null) {
+			return false;
+		}
+		addEnd(topology, pos, parent);
+		return true;
+	}
+
+	/**
+	 * When an endpoint is removed the branch it came out of becomes an endpoint if it has no other children.  The
+	 * removed branch belonged to this tree alone so no other tree can be affected.
+	 *
+	 * @return true if the topology was patched
+	 */
+	private boolean patchRemoved(World world, BlockPos pos) {
+		TreeTopology topology = findEndOwner(pos);
+		if(topology == null) {
+			return false;
+		}
+
+		BlockPos treePos = topology.rootPos.offset(topology.rootDir);
+		BlockPos parent = getOnlyBranchNeighbor(world, pos);
+		if(parent == null || pos.equals(treePos)) {
+			return false;
+		}
+
+		int others = 0;// The branches still attached to the parent
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			if(TreeHelper.isBranch(world.getBlockState(parent.offset(dir)))) {
+				others++;
+			}
+		}
+
+		topology.ends.remove(pos);
+		if(others == 0 || (others == 1 && !parent.equals(treePos))) {// Only the branch below it is left or it's a bare trunk base
+			topology.ends.add(parent);
+		}
+		topology.stale = true;
+		return true;
+	}
+
+	/** @return The position of the only branch beside pos or null if there are none or more than one */
+	private static BlockPos getOnlyBranchNeighbor(World world, BlockPos pos) {
+		BlockPos found = null;
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			BlockPos dPos = pos.offset(dir);
+			if(TreeHelper.isBranch(world.getBlockState(dPos))) {
+				if(found != null) {
+					return null;
+				}
+				found = dPos;
+			}
+		}
+		return found;
+	}
+
+	/** @return The topology that has an endpoint at pos or null if there isn't exactly one */
+	private TreeTopology findEndOwner(BlockPos pos) {
+		List<TreeTopology> list = chunkIndex.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+		TreeTopology found = null;
+		if(list != null) {
+			for(TreeTopology topology: list) {
+				if(topology.isAffectedBy(pos) && topology.ends.contains(pos)) {
+					if(found != null) {
+						return null;
+					}
+					found = topology;
+				}
+			}
+		}
+		return found;
+	}
+
+	private void invalidate(BlockPos pos, TreeTopology exempt) {
+		List<TreeTopology> list = chunkIndex.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+		if(list != null) {
+			for(int i = list.size() - 1; i >= 0; i--) {// Backwards since removal shrinks the list
+				TreeTopology topology = list.get(i);
+				if(topology != exempt && topology.isAffectedBy(pos)) {
+					remove(topology);
+				}
+			}
+		}
+	}
+
+	private void add(TreeTopology topology) {
+		topologies.put(topology.rootPos, topology);
+		BlockPos min = topology.bounds.getMin();
+		BlockPos max = topology.bounds.getMax();
+		for(int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++) {
+			for(int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++) {
+				index(topology, cx, cz);
+			}
+		}
+	}
+
+	private void index(TreeTopology topology, BlockPos pos) {
+		index(topology, pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	private void index(TreeTopology topology, int chunkX, int chunkZ) {
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		if(!topology.chunks.contains(key)) {
+			topology.chunks.add(key);
+			chunkIndex.computeIfAbsent(key, k -> new ArrayList<>(4)).add(topology);
+		}
+	}
+
+	private void remove(TreeTopology topology) {
+		if(topology != null) {
+			if(topologies.get(topology.rootPos) == topology) {
+				topologies.remove(topology.rootPos);
+			}
+			for(Long key : topology.chunks) {
+				List<TreeTopology> list = chunkIndex.get(key);
+				if(list != null) {
+					list.remove(topology);
+					if(list.isEmpty()) {
+						chunkIndex.remove(key);
+					}
+				}
+			}
+			topology.chunks.clear();
+			if(growing == topology) {
+				growing = null;
+				growSignal = null;
+			}
+		}
+	}
+
+}
@@ -2,13 +2,12 @@ package com.ferreusveritas.dynamictrees.systems.featuregen;
 
 import java.util.List;
 
+import com.ferreusveritas.dynamictrees.api.GrowContext;
 import com.ferreusveritas.dynamictrees.api.IPostGenFeature;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
-import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.blocks.BlockFruit;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
@@ -70,14 +69,20 @@ public class FeatureGenFruit implements IPostGrowFeature, IPostGenFeature {
 	
 	@Override
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural) {
-		IBlockState blockState = world.getBlockState(treePos);
+		return postGrow(new GrowContext(world, rootPos, treePos, species, soilLife, natural));
+	}
+	
+	@Override
+	public boolean postGrow(GrowContext context) {
+		World world = context.getWorld();
+		BlockPos rootPos = context.getRootPos();
+		Species species = context.getSpecies();
+		IBlockState blockState = context.getTrunkState();
 		BlockBranch branch = TreeHelper.getBranch(blockState);
 		
-		if(branch != null && branch.getRadius(blockState) >= fruitingRadius && natural) {
+		if(branch != null && branch.getRadius(blockState) >= fruitingRadius && context.isNatural()) {
 			if(species.seasonalFruitProductionFactor(world, rootPos) > world.rand.nextFloat()) {
-				NodeFindEnds endFinder = new NodeFindEnds();
-				TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(endFinder));
-				List<BlockPos> endPoints = endFinder.getEnds();
+				List<BlockPos> endPoints = context.getEnds();
 				int qty = getQuantity(false);
 				
 				if(!endPoints.isEmpty()) {
@@ -5,11 +5,9 @@ import java.util.Random;
 
 import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.GrowContext;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
-import com.ferreusveritas.dynamictrees.api.TreeHelper;
-import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
 import com.ferreusveritas.dynamictrees.trees.Species;
 
 import net.minecraft.block.Block;
@@ -29,10 +27,14 @@ public class FeatureGenPodzol implements IPostGrowFeature {
 	
 	@Override
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural) {
+		return postGrow(new GrowContext(world, rootPos, treePos, species, soilLife, natural));
+	}
+	
+	@Override
+	public boolean postGrow(GrowContext context) {
 		if(ModConfigs.podzolGen) {
-			NodeFindEnds endFinder = new NodeFindEnds();
-			TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(endFinder));
-			List<BlockPos> endPoints = endFinder.getEnds();
+			World world = context.getWorld();
+			List<BlockPos> endPoints = context.getEnds();
 			if(!endPoints.isEmpty()) {
 				
 				Random random = world.rand;
@@ -57,6 +59,7 @@ public class FeatureGenPodzol implements IPostGrowFeature {
 							if(block instanceof BlockFlower || block instanceof BlockTallGrass || block instanceof BlockDoublePlant) {//Kill Plants
 								if(world.getLightFor(EnumSkyBlock.SKY, offPos) <= darkThreshold) {
 									world.setBlockToAir(pos);
+									context.invalidate();
 								}
 								continue;
 							}
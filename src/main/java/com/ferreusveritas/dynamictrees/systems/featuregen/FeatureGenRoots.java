@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.function.BiFunction;
 
 import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.api.GrowContext;
 import com.ferreusveritas.dynamictrees.api.IPostGenFeature;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
@@ -89,9 +90,17 @@ public class FeatureGenRoots implements IPostGrowFeature, IPostGenFeature {
 	
 	@Override
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural) {
-		int trunkRadius = TreeHelper.getRadius(world, treePos);
+		return postGrow(new GrowContext(world, rootPos, treePos, species, soilLife, natural));
+	}
+	
+	@Override
+	public boolean postGrow(GrowContext context) {
+		World world = context.getWorld();
+		BlockPos treePos = context.getTreePos();
+		Species species = context.getSpecies();
+		int trunkRadius = context.getTrunkRadius();
 		
-		if(soilLife > 0 && trunkRadius >= minTrunkRadius) {
+		if(context.getSoilLife() > 0 && trunkRadius >= minTrunkRadius) {
 			Surround surr = Surround.values()[world.rand.nextInt(8)];
 			BlockPos dPos = treePos.add(surr.getOffset());
 			if(world.getBlockState(dPos).getBlock() instanceof BlockSurfaceRoot) {
@@ -0,0 +1,136 @@
+package com.ferreusveritas.dynamictrees.systems.nodemappers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.property.IExtendedBlockState;
+
+/**
+* Gathers everything needed to harvest a tree in a single pass over the whole network.
+*
+* This does the work of {@link NodeSpecies}, {@link NodeExtState}, {@link NodeNetVolume} and {@link NodeDestroyer}.
+* Since the species and the direction of the root are only known once the analysis is complete every branch node
+* is recorded along with the side of the origin it was reached from.  The nodes on the root side of the cut are
+* then discarded and the destruction is deferred until {@link #harvest} is called.  Nodes are still processed in
+* the order they were visited so the results are the same as those from the separate analyses.
+*/
+public class NodeHarvester implements INodeInspector {
+
+	private static final byte ORIGIN = -1;
+
+	private final BlockPos origin;
+	private final NodeSpecies nodeSpecies = new NodeSpecies();
+	private final List<BlockPos> nodePositions = new ArrayList<>(64);
+	private final List<IBlockState> nodeStates = new ArrayList<>(64);
+	private byte[] nodeSides = new byte[64];
+	private byte currentSide = ORIGIN;
+
+	private final Map<BlockPos, IExtendedBlockState> extStateMap = new HashMap<>();
+	private final List<BlockPos> endPoints = new ArrayList<BlockPos>(32);
+	private int volume;
+
+	public NodeHarvester(BlockPos origin) {
+		this.origin = origin;
+	}
+
+	@Override
+	public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		nodeSpecies.run(blockState, world, pos, fromDir);
+
+		//A node whose parent is the origin starts a new side of the network
+		if(fromDir != null && isOrigin(pos, fromDir)) {
+			currentSide = (byte) fromDir.getOpposite().getIndex();
+		}
+
+		if(TreeHelper.isBranch(blockState)) {
+			int index = nodePositions.size();
+			if(index == nodeSides.length) {
+				nodeSides = Arrays.copyOf(nodeSides, index * 2);
+			}
+			nodePositions.add(pos);
+			nodeStates.add(blockState);
+			nodeSides[index] = fromDir == null ? ORIGIN : currentSide;
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean returnRun(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		return false;
+	}
+
+	private boolean isOrigin(BlockPos pos, EnumFacing fromDir) {
+		return	pos.getX() + fromDir.getFrontOffsetX() == origin.getX() &&
+				pos.getY() + fromDir.getFrontOffsetY() == origin.getY() &&
+				pos.getZ() + fromDir.getFrontOffsetZ() == origin.getZ();
+	}
+
+	public Species getSpecies() {
+		return nodeSpecies.getSpecies();
+	}
+
+	/**
+	 * Maps the extended block states and volume for every branch node not on the excluded side of the origin
+	 * and then destroys them.  Extended states are all mapped before anything is destroyed so that they include
+	 * accurate connections.
+	 *
+	 * @param world The world
+	 * @param species The species of the tree.  Only branches of the same family are destroyed
+	 * @param excludeDir The side of the origin that should be left intact.  Null to harvest the whole network
+	 */
+	public void harvest(World world, Species species, EnumFacing excludeDir) {
+		byte exclude = excludeDir == null ? ORIGIN : (byte) excludeDir.getIndex();
+		int numNodes = nodePositions.size();
+
+		for(int i = 0; i < numNodes; i++) {
+			if(exclude == ORIGIN || nodeSides[i] != exclude) {
+				BlockPos pos = nodePositions.get(i);
+				IBlockState blockState = nodeStates.get(i);
+				extStateMap.put(pos.subtract(origin), (IExtendedBlockState) blockState.getBlock().getExtendedState(blockState, world, pos));
+				int radius = TreeHelper.getTreePart(blockState).getRadius(blockState);
+				volume += radius * radius * 64;//Integrate volume of this tree part into the total volume calculation
+			}
+		}
+
+		for(int i = 0; i < numNodes; i++) {
+			if(exclude == ORIGIN || nodeSides[i] != exclude) {
+				BlockPos pos = nodePositions.get(i);
+				IBlockState blockState = nodeStates.get(i);
+				BlockBranch branch = TreeHelper.getBranch(blockState);
+				if(branch != null && species.getFamily() == branch.getFamily()) {
+					if(branch.getRadius(blockState) == species.getFamily().getPrimaryThickness()) {
+						endPoints.add(pos);
+					}
+					world.setBlockState(pos, Blocks.AIR.getDefaultState(), 0);//Destroy the branch without notifying the client
+				}
+			}
+		}
+	}
+
+	public Map<BlockPos, IExtendedBlockState> getExtStateMap() {
+		return extStateMap;
+	}
+
+	public List<BlockPos> getEnds() {
+		return endPoints;
+	}
+
+	public float getVolume() {
+		return volume / (float)NodeNetVolume.VOXELSPERLOG;
+	}
+
+}
@@ -9,6 +9,7 @@ public class PoissonDisc extends Vec2i {
 	public int radius;
 	public int arc;
 	public boolean real;
+	int slot;//Position in the list of all discs while solving.  Maintained by PoissonDiscGrid
 	
 	private static SimpleBitmap[] cbm = new SimpleBitmap[9];//Bitmaps of whole circles 
 	private static SimpleBitmap[] icbm = new SimpleBitmap[9];//Bitmaps of the interiors of circles(Non-edge)
@@ -52,6 +52,11 @@ public class PoissonDiscChunkSet {
 	}
 
 	public List<PoissonDisc> getDiscs(List<PoissonDisc> discs, int chunkX, int chunkZ) {
+		return getDiscs(discData, discs, chunkX, chunkZ);
+	}
+
+	/** Unpacks the discs from 16 bytes of disc data without needing a set */
+	public static List<PoissonDisc> getDiscs(byte[] discData, List<PoissonDisc> discs, int chunkX, int chunkZ) {
 		for(int tile = 0; tile < 16; tile++) {
 			byte cd = discData[tile];
 			if(cd != 0) {//No data in the tile
@@ -0,0 +1,254 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A coarse spatial hash over the 3x3 chunk stage that a chunk's discs are solved on.
+ *
+ * Discs have a radius of at most 8 so only the discs in the few cells around a disc can possibly touch it.  Queries
+ * return their candidates ordered by their slot in the list of all discs.  That way the solver visits them in exactly
+ * the same order as it would by walking the whole list and the solved discs come out identical.  With the grid
+ * disabled a query simply returns every disc which is handy for checking the results against the brute force approach.
+ *
+ * The list of all discs must only be added to or removed from through the grid so the slots stay correct.
+ */
+class PoissonDiscGrid {
+
+	public static final int MAXRADIUS = 8;
+
+	/** How far past it's own edge a disc of the given radius can intersect with another disc */
+	public static int intersectReach(int radius) {
+		return radius;
+	}
+
+	/** How far past it's own edge a disc of the given radius can be masked by {@link PoissonDiscHelper#maskDiscs} against another disc */
+	public static int maskReach(int radius) {
+		return radius + 2;//The adjacency test looks 2 blocks past the edge of the disc
+	}
+
+	private static final int CELLBITS = 3;//8x8 block cells
+	private static final int MARGIN = 16;//Discs are sometimes pushed a little outside of the stage
+	private static final int CELLS = (48 + MARGIN * 2) >> CELLBITS;
+
+	private final PoissonDisc[][] cells = new PoissonDisc[CELLS * CELLS][];
+	private final int[] counts = new int[CELLS * CELLS];
+	private int originX;
+	private int originZ;
+	private boolean enabled;
+	private List<PoissonDisc> allDiscs;
+
+	private PoissonDisc[] found = new PoissonDisc[64];
+	private int numFound;
+
+	//Reusable sort buffer for discs ordered by penetration depth.  Each entry is the sort key in the upper 32 bits and the disc index in the lower
+	private long[] sortKeys = new long[64];
+	private PoissonDisc[] sortDiscs = new PoissonDisc[64];
+	private int numSorted;
+
+	public PoissonDiscGrid() {
+		for(int i = 0; i < cells.length; i++) {
+			cells[i] = new PoissonDisc[8];
+		}
+	}
+
+	/**
+	 * Prepares the grid for solving a new chunk.  Discs already in the list are given their slots and are hashed.
+	 *
+	 * @param allDiscs The list of all discs on the stage
+	 * @param chunkX The x coordinate of the chunk being solved
+	 * @param chunkZ The z coordinate of the chunk being solved
+	 * @param enabled false to make every query return all of the discs
+	 */
+	public void reset(List<PoissonDisc> allDiscs, int chunkX, int chunkZ, boolean enabled) {
+		for(int i = 0; i < cells.length; i++) {
+			Arrays.fill(cells[i], 0, counts[i], null);//Don't hang on to the discs of the last chunk
+			counts[i] = 0;
+		}
+		Arrays.fill(sortDiscs, 0, numSorted, null);
+		numSorted = 0;
+
+		this.allDiscs = allDiscs;
+		this.enabled = enabled;
+		originX = ((chunkX - 1) << 4) - MARGIN;
+		originZ = ((chunkZ - 1) << 4) - MARGIN;
+
+		for(int i = 0; i < allDiscs.size(); i++) {
+			PoissonDisc disc = allDiscs.get(i);
+			disc.slot = i;
+			insert(disc);
+		}
+	}
+
+	/** Adds a disc to the end of the list of all discs */
+	public void add(PoissonDisc disc) {
+		disc.slot = allDiscs.size();
+		allDiscs.add(disc);
+		insert(disc);
+	}
+
+	/** Removes a disc from the list of all discs the same way as {@link PoissonDiscHelper#fastRemove} */
+	public void remove(int index) {
+		PoissonDisc disc = allDiscs.get(index);
+		if(enabled) {
+			int cell = cellIndex(disc.x, disc.z);
+			PoissonDisc[] discs = cells[cell];
+			int last = --counts[cell];
+			for(int i = 0; i <= last; i++) {
+				if(discs[i] == disc) {
+					discs[i] = discs[last];
+					discs[last] = null;
+					break;
+				}
+			}
+		}
+
+		PoissonDiscHelper.fastRemove(allDiscs, index);
+		if(index < allDiscs.size()) {
+			allDiscs.get(index).slot = index;//The last disc was moved into the gap
+		}
+	}
+
+	private void insert(PoissonDisc disc) {
+		if(enabled) {
+			int cell = cellIndex(disc.x, disc.z);
+			if(counts[cell] == cells[cell].length) {
+				cells[cell] = Arrays.copyOf(cells[cell], counts[cell] * 2);
+			}
+			cells[cell][counts[cell]++] = disc;
+		}
+	}
+
+	private int cellX(int x) {
+		return Math.max(0, Math.min(CELLS - 1, (x - originX) >> CELLBITS));//Discs off the grid go in the edge cells
+	}
+
+	private int cellZ(int z) {
+		return Math.max(0, Math.min(CELLS - 1, (z - originZ) >> CELLBITS));
+	}
+
+	private int cellIndex(int x, int z) {
+		return cellZ(z) * CELLS + cellX(x);
+	}
+
+	/**
+	 * Finds the discs that reach into a square around a point.  The results are available from {@link #getFound} in
+	 * slot order.
+	 *
+	 * @param x X-Axis
+	 * @param z Z-Axis
+	 * @param reach Half the width of the square.  Each disc's radius is added to this
+	 * @return The number of discs found
+	 */
+	public int query(int x, int z, int reach) {
+		numFound = 0;
+
+		if(!enabled) {
+			for(PoissonDisc disc: allDiscs) {
+				addFound(disc);
+			}
+			return numFound;
+		}
+
+		int cellReach = reach + MAXRADIUS;
+		int minX = cellX(x - cellReach);
+		int maxX = cellX(x + cellReach);
+		int maxZ = cellZ(z + cellReach);
+		for(int cz = cellZ(z - cellReach); cz <= maxZ; cz++) {
+			for(int cx = minX; cx <= maxX; cx++) {
+				int cell = cz * CELLS + cx;
+				PoissonDisc[] discs = cells[cell];
+				for(int i = 0; i < counts[cell]; i++) {
+					PoissonDisc disc = discs[i];
+					int discReach = reach + disc.radius;
+					if(Math.abs(disc.x - x) <= discReach && Math.abs(disc.z - z) <= discReach) {
+						addFound(disc);
+					}
+				}
+			}
+		}
+
+		//Insertion sort by slot.  There's rarely more than a handful of discs
+		for(int i = 1; i < numFound; i++) {
+			PoissonDisc disc = found[i];
+			int j = i - 1;
+			while(j >= 0 && found[j].slot > disc.slot) {
+				found[j + 1] = found[j];
+				j--;
+			}
+			found[j + 1] = disc;
+		}
+
+		return numFound;
+	}
+
+	private void addFound(PoissonDisc disc) {
+		if(numFound == found.length) {
+			found = Arrays.copyOf(found, numFound * 2);
+		}
+		found[numFound++] = disc;
+	}
+
+	public PoissonDisc getFound(int i) {
+		return found[i];
+	}
+
+	/** Overwrites a found disc.  Lets the solver reorder the results while it works through them */
+	public void setFound(int i, PoissonDisc disc) {
+		found[i] = disc;
+	}
+
+	/**
+	 * @param disc A disc to test
+	 * @return true if the disc intersects with any disc on the stage
+	 */
+	public boolean doesDiscIntersect(PoissonDisc disc) {
+		int num = query(disc.x, disc.z, intersectReach(disc.radius));
+		for(int i = 0; i < num; i++) {
+			if(disc.doCirclesIntersectPadding(found[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collects the discs that intersect with a disc and sorts them by penetration depth.  Ties are broken by slot.
+	 * The results are available from {@link #getSorted} and stay valid until the next call.
+	 *
+	 * @param disc The disc to test against
+	 * @return The number of intersecting discs
+	 */
+	public int sortIntersecting(PoissonDisc disc) {
+		Arrays.fill(sortDiscs, 0, numSorted, null);
+		numSorted = 0;
+
+		int num = query(disc.x, disc.z, intersectReach(disc.radius));
+		for(int i = 0; i < num; i++) {
+			PoissonDisc c = found[i];
+			if(disc.doCirclesIntersectPadding(c)) {
+				if(numSorted == sortKeys.length) {
+					sortKeys = Arrays.copyOf(sortKeys, numSorted * 2);
+					sortDiscs = Arrays.copyOf(sortDiscs, numSorted * 2);
+				}
+				int depth = 16 + (int)c.discPenetration(disc);
+				int key = depth << 8 | numSorted;
+				sortKeys[numSorted] = (long)key << 32 | numSorted;
+				sortDiscs[numSorted++] = c;
+			}
+		}
+
+		Arrays.sort(sortKeys, 0, numSorted);
+		return numSorted;
+	}
+
+	public PoissonDisc getSorted(int i) {
+		return sortDiscs[(int)sortKeys[i]];
+	}
+
+	/** @return The penetration depth sort key of a sorted disc */
+	public int getSortedKey(int i) {
+		return (int)(sortKeys[i] >> 32);
+	}
+
+}
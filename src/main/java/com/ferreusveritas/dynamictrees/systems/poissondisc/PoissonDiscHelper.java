@@ -192,10 +192,10 @@ public class PoissonDiscHelper {
 		}
 
 		Vec2i delta = new Vec2i(c2.x - c1.x, c2.z - c1.z);
-		double angle = delta.angle();
 		double dist = delta.len();
 
 		if(force || c2.isInside(c1.x + (int)(delta.x * (c1.radius + 2) / dist), c1.z + (int)(delta.z * (c1.radius + 2) / dist))) {//If this is true then the circles c1 & c2 are adjacent(enough)
+			double angle = delta.angle();
 			if(c1.hasFreeAngles()) {
 				double ang = Math.asin((c2.radius + 1.5) / dist);
 				c1.maskArc(angle - ang, angle + ang);
@@ -1,13 +1,19 @@
 package com.ferreusveritas.dynamictrees.systems.poissondisc;
 
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDebug;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDiscProvider;
 import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
@@ -22,17 +28,29 @@ import net.minecraft.util.math.Vec3i;
 /**
  * Manages and creates all the Poisson discs in a single dimension.
  * 
+ * The discs of a chunk depend on the discs of the 8 chunks around it so no two chunks that are touching may be
+ * solved at the same time.  Every solve claims it's chunk first and waits if a neighbor is claimed.  This lets chunks
+ * be solved ahead of time on worker threads(see {@link #precompute}) while the server thread can still solve any chunk
+ * that wasn't ready when it was decorated.
+ * 
  * @author ferreusveritas
  */
 public class PoissonDiscProvider implements IPoissonDiscProvider {
 	
+	private static ExecutorService workers;
+	
 	private final IRadiusCoordinator radiusCoordinator;
-	private final HashMap<ChunkPos, PoissonDiscChunkSet> chunkDiscs;
+	private final PoissonDiscStore store;
+	private final Set<Long> solving = new HashSet<>();//Chunks being solved right now.  Guarded by itself
+	private final Set<ChunkPos> queued = ConcurrentHashMap.newKeySet();//Chunks waiting for a worker
+	private volatile boolean closed = false;
 	private RandomXOR random = new RandomXOR();
+	private long worldSeed;
 	private IPoissonDebug debug;
+	private boolean spatialGrid = true;
 	
 	public PoissonDiscProvider(IRadiusCoordinator radCoord) {
-		chunkDiscs = new HashMap<ChunkPos, PoissonDiscChunkSet>();
+		store = new PoissonDiscStore(ModConfigs.poissonDiscCacheSize);
 		radiusCoordinator = radCoord;
 	}
 	
@@ -42,36 +60,175 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		}
 	}
 	
+	/** The world seed is mixed into the random number generators used for precomputed chunks */
+	public void setWorldSeed(long worldSeed) {
+		this.worldSeed = worldSeed;
+	}
+	
+	/** Disc data is also kept in files in the given directory.  See {@link PoissonDiscRegionFiles} */
+	public void setRegionDirectory(File directory) {
+		store.setRegionFiles(new PoissonDiscRegionFiles(directory));
+	}
+	
 	public void setDebug(IPoissonDebug debug) {
 		this.debug = debug;
 	}
 	
+	/** Disabling the spatial grid makes the solver test every disc against every other.  Only useful for benchmarking */
+	public void setSpatialGrid(boolean spatialGrid) {
+		this.spatialGrid = spatialGrid;
+	}
+	
 	@Override
 	public List<PoissonDisc> getPoissonDiscs(int chunkX, int chunkY, int chunkZ) {
-		random.setXOR(new BlockPos(chunkX, chunkY, chunkZ));
-		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
-		if(cSet.generated) {
+		if(isGenerated(chunkX, chunkZ)) {//Possibly precomputed by a worker
 			return getChunkPoissonDiscs(chunkX, chunkZ);
-		} else {
+		}
+		
+		if(ModConfigs.poissonDiscPrecompute) {
+			//Solve it here the same way a worker would have so the result doesn't depend on who got to it first
+			Random chunkRandom = createChunkRandom(chunkX, chunkZ);
+			IRadiusCoordinator detached = radiusCoordinator.detach(chunkX, chunkZ, chunkRandom);
+			if(detached != null) {
+				return solve(chunkRandom, detached, debug, chunkX, chunkZ);
+			}
+		}
+		
+		random.setXOR(new BlockPos(chunkX, chunkY, chunkZ));
+		return solve(random, radiusCoordinator, debug, chunkX, chunkZ);
+	}
+	
+	/**
+	 * Queues the discs of a chunk to be solved on a worker thread.  The result is picked up by
+	 * {@link #getPoissonDiscs} when the chunk is decorated.  Must be called from the server thread.
+	 * 
+	 * @param chunkX The x coordinate of the chunk
+	 * @param chunkZ The z coordinate of the chunk
+	 */
+	public void precompute(int chunkX, int chunkZ) {
+		ChunkPos key = new ChunkPos(chunkX, chunkZ);
+		if(closed || isGenerated(chunkX, chunkZ) || !queued.add(key)) {
+			return;
+		}
+		
+		Random chunkRandom = createChunkRandom(chunkX, chunkZ);
+		IRadiusCoordinator detached = radiusCoordinator.detach(chunkX, chunkZ, chunkRandom);
+		if(detached == null) {//This coordinator can't work off of the server thread
+			queued.remove(key);
+			return;
+		}
+		
+		getWorkers().execute(() -> {
+			try {
+				if(!closed) {
+					solve(chunkRandom, detached, null, chunkX, chunkZ);
+				}
+			} finally {
+				queued.remove(key);
+			}
+		});
+	}
+	
+	/** Pending precomputations for this provider are abandoned and the region files are closed */
+	public void close() {
+		closed = true;
+		store.close();
+	}
+	
+	private static synchronized ExecutorService getWorkers() {
+		if(workers == null) {
+			workers = Executors.newFixedThreadPool(ModConfigs.poissonDiscWorkerThreads, r -> {
+				Thread thread = new Thread(r, "DynamicTrees Poisson Disc Worker");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.NORM_PRIORITY - 1);//Stay out of the way of the server thread
+				return thread;
+			});
+		}
+		return workers;
+	}
+	
+	/** A random number generator that only depends on the world seed and chunk position */
+	private Random createChunkRandom(int chunkX, int chunkZ) {
+		RandomXOR chunkRandom = new RandomXOR(worldSeed ^ ChunkPos.asLong(chunkX, chunkZ));
+		chunkRandom.setXOR(new BlockPos(chunkX, 0, chunkZ));
+		return chunkRandom;
+	}
+	
+	/** Claims the chunk, runs every pass of the solver and releases the chunk */
+	private List<PoissonDisc> solve(Random random, IRadiusCoordinator coordinator, IPoissonDebug debug, int chunkX, int chunkZ) {
+		claim(chunkX, chunkZ);
+		try {
+			if(isGenerated(chunkX, chunkZ)) {//Solved by someone else while we waited
+				return getChunkPoissonDiscs(chunkX, chunkZ);
+			}
+			
 			int i = 0;
 			List<PoissonDisc> output = null;
-			while(radiusCoordinator.runPass(chunkX, chunkZ, i++)) {
-				output = generatePoissonDiscs(random, chunkX, chunkZ);
+			while(coordinator.runPass(chunkX, chunkZ, i++)) {
+				output = generatePoissonDiscs(random, coordinator, debug, chunkX, chunkZ);
 			}
 			
 			return output;
+		} finally {
+			release(chunkX, chunkZ);
 		}
 	}
 	
+	private void claim(int chunkX, int chunkZ) {
+		boolean interrupted = false;
+		synchronized (solving) {
+			while(isNeighborSolving(chunkX, chunkZ)) {
+				try {
+					solving.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;//We can't continue without the claim so keep waiting
+				}
+			}
+			solving.add(ChunkPos.asLong(chunkX, chunkZ));
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private boolean isNeighborSolving(int chunkX, int chunkZ) {
+		for(int dz = -1; dz <= 1; dz++) {
+			for(int dx = -1; dx <= 1; dx++) {
+				if(solving.contains(ChunkPos.asLong(chunkX + dx, chunkZ + dz))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	private void release(int chunkX, int chunkZ) {
+		synchronized (solving) {
+			solving.remove(ChunkPos.asLong(chunkX, chunkZ));
+			solving.notifyAll();
+		}
+	}
+	
+	private boolean isGenerated(int chunkX, int chunkZ) {
+		return store.isGenerated(chunkX, chunkZ);
+	}
+	
 	//A set of caches so we needn't create the lists from scratch for every chunk
-	private List<PoissonDisc> discCache1 = new ArrayList<PoissonDisc>(64);//64 is above the typical range to expect for 9 chunks
-	private List<PoissonDisc> discCache2 = new ArrayList<PoissonDisc>(64);
+	private static final ThreadLocal<List<PoissonDisc>> discCache1 = ThreadLocal.withInitial(() -> new ArrayList<PoissonDisc>(64));//64 is above the typical range to expect for 9 chunks
+	private static final ThreadLocal<List<PoissonDisc>> discCache2 = ThreadLocal.withInitial(() -> new ArrayList<PoissonDisc>(64));
+	private static final ThreadLocal<PoissonDiscGrid> gridCache = ThreadLocal.withInitial(PoissonDiscGrid::new);
+	private static final ThreadLocal<byte[]> dataCache = ThreadLocal.withInitial(() -> new byte[16]);
 	
 	public List<PoissonDisc> generatePoissonDiscs(Random random, int chunkX, int chunkZ) {
+		return generatePoissonDiscs(random, radiusCoordinator, debug, chunkX, chunkZ);
+	}
+	
+	private List<PoissonDisc> generatePoissonDiscs(Random random, IRadiusCoordinator radiusCoordinator, IPoissonDebug debug, int chunkX, int chunkZ) {
 		
 		// Step 0.) Clear the temporary caches
-		List<PoissonDisc> allDiscs = discCache1;
-		List<PoissonDisc> unsolvedDiscs = discCache2;
+		List<PoissonDisc> allDiscs = discCache1.get();
+		List<PoissonDisc> unsolvedDiscs = discCache2.get();
+		PoissonDiscGrid grid = gridCache.get();
 		allDiscs.clear();
 		unsolvedDiscs.clear();
 		if(debug != null) { debug.begin(chunkX, chunkZ); }
@@ -83,6 +240,7 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			Vec3i dir = surr.getOffset();
 			getChunkPoissonDiscs(allDiscs, chunkX + dir.getX(), chunkZ + dir.getZ());
 		}
+		grid.reset(allDiscs, chunkX, chunkZ, spatialGrid);
 		if(debug != null) { debug.collectSolved(allDiscs); }
 
 		
@@ -96,10 +254,15 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 		if(debug != null) { debug.doEdgeMasking(allDiscs); }
 		
 		
-		// Step 3.) Mask out circles against one another
+		// Step 3.) Mask out circles against one another.  Masking only ever sets arc bits so only the nearby pairs matter
 		for(int i = 0; i < allDiscs.size() - 1; i++) {
-			for(int j = i + 1; j < allDiscs.size(); j++) {
-				PoissonDiscHelper.maskDiscs(allDiscs.get(i), allDiscs.get(j));
+			PoissonDisc c = allDiscs.get(i);
+			int num = grid.query(c.x, c.z, PoissonDiscGrid.maskReach(c.radius));
+			for(int j = 0; j < num; j++) {
+				PoissonDisc other = grid.getFound(j);
+				if(other.slot > i) {
+					PoissonDiscHelper.maskDiscs(c, other);
+				}
 			}
 		}
 		if(debug != null) { debug.maskSolvedDiscs(allDiscs); }
@@ -112,7 +275,7 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			int radius = radiusCoordinator.getRadiusAtCoords(x, z);
 			PoissonDisc rootDisc = new PoissonDisc(x, z, radius);
 			rootDisc.real = true;
-			allDiscs.add(rootDisc);
+			grid.add(rootDisc);
 			if(debug != null) { debug.createRootDisc(allDiscs, rootDisc); }
 		}
 		
@@ -153,7 +316,7 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 				slavePos = new Vec2i(slave);//Cache slave position
 				if(debug != null) { debug.findSecondDisc(master, slave, unsolvedDiscs, allDiscs); }
 				
-				if(doesDiscIntersectWith(slave, allDiscs)) {
+				if(grid.doesDiscIntersect(slave)) {
 					break;
 				}
 			}
@@ -164,21 +327,20 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			if(debug != null) { debug.maskMasterSlave(master, slave, unsolvedDiscs, allDiscs); }
 
 			// Step 10.) Create a list of existing circles that are intersecting with this circle.  List is ordered by penetration depth.
-			int i = 0;
-			Map<Integer, PoissonDisc> intersecting = new TreeMap<Integer, PoissonDisc>();
-			for(PoissonDisc c: allDiscs) {
-				if(slave.doCirclesIntersectPadding(c)) {
-					int depth = 16 + (int)c.discPenetration(slave);
-					intersecting.put(depth << 8 | i++, c);
+			int numIntersecting = grid.sortIntersecting(slave);
+			if(debug != null) {
+				Map<Integer, PoissonDisc> intersecting = new TreeMap<Integer, PoissonDisc>();
+				for(int i = 0; i < numIntersecting; i++) {
+					intersecting.put(grid.getSortedKey(i), grid.getSorted(i));
 				}
+				debug.intersectingList(slave, intersecting, allDiscs);
 			}
-			if(debug != null) { debug.intersectingList(slave, intersecting, allDiscs); }
 
 			
 			//Run through all of the circles that were intersecting
-			for(Entry<Integer, PoissonDisc> entry: intersecting.entrySet()) {
+			for(int i = 0; i < numIntersecting; i++) {
 				PoissonDisc master1 = master;//Cache master value because we do swapping later
-				PoissonDisc master2 = entry.getValue();
+				PoissonDisc master2 = grid.getSorted(i);
 				
 				//Determine handedness of 3rd circle interaction
 				int cross = Vec2i.crossProduct(new Vec2i(slavePos).sub(master1),new Vec2i(master2).sub(master1));
@@ -192,8 +354,10 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 				if(debug != null) { debug.findThirdDiscCandidate(master1, master2, slave, unsolvedDiscs, allDiscs); }
 				if(slave != null) {//Found a 3rd circle candidate
 					//System.out.println("slave is not null");
-					for(int ci = 0; ci < allDiscs.size(); ci++) {
-						PoissonDisc c = allDiscs.get(ci);
+					//The nearby circles are visited in the order they appear in the full list
+					int end = grid.query(slave.x, slave.z, PoissonDiscGrid.intersectReach(slave.radius));
+					for(int ci = 0; ci < end; ci++) {
+						PoissonDisc c = grid.getFound(ci);
 						if(slave.doCirclesIntersectPadding(c)){//See if this new circle intersects with any of the existing circles. If it does then..
 							if(debug != null) { debug.thirdCircleCandidateIntersects(master1, master2, slave, c, unsolvedDiscs, allDiscs); }
 							if(c.real || (!c.real && !slave.isInCenterChunk(chunkXStart, chunkZStart)) ) {
@@ -202,7 +366,12 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 								break;//We needn't continue since we've proven that the circle intersects with any circle
 							} else {//The overlapping circle is not real.. but the slave circle is.
 								//System.out.println("Delete the offending non-real circle.");
-								PoissonDiscHelper.fastRemove(allDiscs, ci--);//Delete the offending non-real circle. The order of the circles is unimportant
+								PoissonDisc last = allDiscs.get(allDiscs.size() - 1);
+								grid.remove(c.slot);//Delete the offending non-real circle. The order of the circles is unimportant
+								if(last != c && grid.getFound(end - 1) == last) {//The last circle took the deleted circle's place so it's up next
+									grid.setFound(ci--, last);
+									end--;
+								}
 							} 
 						}
 					}
@@ -218,8 +387,8 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 				slave.edgeMask(chunkXStart, chunkZStart);//Set the proper mask for whatever chunk this circle resides.
 				slave.real = slave.isInCenterChunk(chunkXStart, chunkZStart);//Only circles created in the center chunk are real
 				unsolvedDiscs.add(slave);//The new circle is necessarily unsolved and we need it in this list for the next step.
-				PoissonDiscHelper.solveDiscs(unsolvedDiscs, allDiscs);//run all of the unsolved circles again
-				allDiscs.add(slave);//add the new circle to the full list
+				solveDiscs(unsolvedDiscs, grid);//run all of the unsolved circles again
+				grid.add(slave);//add the new circle to the full list
 				if(debug != null) { debug.solveDiscs(unsolvedDiscs, allDiscs); }
 			}
 			
@@ -234,9 +403,9 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			
 		}
 		
-		//Add circles to circle set
-		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
-		cSet.generated = true;
+		//Add circles to a new circle set.  It's only published once complete since other threads may be reading it
+		byte[] oldData = dataCache.get();
+		PoissonDiscChunkSet cSet = new PoissonDiscChunkSet(store.get(chunkX, chunkZ, oldData) ? oldData : null);//Keeps discs from earlier passes
 		
 		for(PoissonDisc c: allDiscs) {
 			if(c.isInCenterChunk(chunkXStart, chunkZStart)) {
@@ -244,46 +413,41 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 			}
 		}
 		
+		store.put(chunkX, chunkZ, cSet.getDiscData(), true);
+		
 		return cSet.getDiscs(new ArrayList<PoissonDisc>(16), chunkX, chunkZ);
 	}
 	
-	private boolean doesDiscIntersectWith(PoissonDisc disc, List<PoissonDisc> others) {
-		for(PoissonDisc other  : others) {
-			if(disc.doCirclesIntersectPadding(other)) {
-				return true;
+	/** Same as {@link PoissonDiscHelper#solveDiscs} but only masks against the nearby discs */
+	private void solveDiscs(List<PoissonDisc> unsolved, PoissonDiscGrid grid) {
+		for(PoissonDisc u: unsolved) {
+			int num = grid.query(u.x, u.z, PoissonDiscGrid.maskReach(u.radius));
+			for(int i = 0; i < num; i++) {
+				PoissonDiscHelper.maskDiscs(u, grid.getFound(i));
 			}
 		}
-		
-		return false;
-	}
-	
-	private PoissonDiscChunkSet getChunkDiscSet(int chunkX, int chunkZ) {
-		ChunkPos key = new ChunkPos(chunkX, chunkZ);
-		PoissonDiscChunkSet cSet;
-		
-		if(chunkDiscs.containsKey(key)) {
-			cSet = chunkDiscs.get(key);
-		} else {
-			cSet = new PoissonDiscChunkSet();
-			chunkDiscs.put(key, cSet);
-		}
-		
-		return cSet;
 	}
 	
 	@Override
 	public byte[] getChunkPoissonData(int chunkX, int chunkY, int chunkZ) {
-		return getChunkDiscSet(chunkX, chunkZ).getDiscData();
+		byte[] data = new byte[16];
+		store.get(chunkX, chunkZ, data);
+		return data;
 	}
 	
 	@Override
 	public void setChunkPoissonData(int chunkX, int chunkY, int chunkZ, byte[] circleData) {
-		getChunkDiscSet(chunkX, chunkZ).setDiscData(circleData);
+		store.put(chunkX, chunkZ, Arrays.copyOf(circleData, 16), false);
+	}
+	
+	@Override
+	public void chunkPoissonDataSaved(int chunkX, int chunkY, int chunkZ) {
+		store.markSaved(chunkX, chunkZ);
 	}
 	
 	@Override
 	public void unloadChunkPoissonData(int chunkX, int chunkY, int chunkZ) {
-		chunkDiscs.remove(new ChunkPos(chunkX, chunkZ));
+		store.remove(chunkX, chunkZ);
 	}
 	
 	private List<PoissonDisc> getChunkPoissonDiscs(int chunkX, int chunkZ) {
@@ -291,8 +455,10 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 	}
 	
 	private List<PoissonDisc> getChunkPoissonDiscs(List<PoissonDisc> discs, int chunkX, int chunkZ) {
-		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
-		cSet.getDiscs(discs, chunkX, chunkZ);
+		byte[] data = dataCache.get();
+		if(store.get(chunkX, chunkZ, data)) {
+			PoissonDiscChunkSet.getDiscs(data, discs, chunkX, chunkZ);
+		}
 		return discs;
 	}
 
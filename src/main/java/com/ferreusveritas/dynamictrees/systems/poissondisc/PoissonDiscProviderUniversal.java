@@ -1,9 +1,11 @@
 package com.ferreusveritas.dynamictrees.systems.poissondisc;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDiscProvider;
 import com.ferreusveritas.dynamictrees.event.PoissonDiscProviderCreateEvent;
 import com.ferreusveritas.dynamictrees.worldgen.BiomeRadiusCoordinator;
@@ -18,12 +20,26 @@ public class PoissonDiscProviderUniversal {
 	
 	protected IPoissonDiscProvider createCircleProvider(World world) {
 		BiomeRadiusCoordinator radiusCoordinator = new BiomeRadiusCoordinator(TreeGenerator.getTreeGenerator(), world);
-		IPoissonDiscProvider candidate = new PoissonDiscProvider(radiusCoordinator);
+		PoissonDiscProvider candidate = new PoissonDiscProvider(radiusCoordinator);
+		candidate.setWorldSeed(world.getSeed());
+		if(ModConfigs.poissonDiscRegionFiles) {
+			candidate.setRegionDirectory(getRegionDirectory(world));
+		}
 		PoissonDiscProviderCreateEvent poissonDiscProviderCreateEvent = new PoissonDiscProviderCreateEvent(world, candidate);
 		MinecraftForge.EVENT_BUS.post(poissonDiscProviderCreateEvent);
 		return poissonDiscProviderCreateEvent.getPoissonDiscProvider();
 	}
 	
+	/** Disc region files go in the dimension's save folder next to the region folder */
+	protected File getRegionDirectory(World world) {
+		File dimDir = world.getSaveHandler().getWorldDirectory();
+		String saveFolder = world.provider.getSaveFolder();
+		if(saveFolder != null) {
+			dimDir = new File(dimDir, saveFolder);
+		}
+		return new File(dimDir, "dtdiscs");
+	}
+	
 	public IPoissonDiscProvider getProvider(World world) {
 		return providerMap.computeIfAbsent(world.provider.getDimension(), d -> createCircleProvider(world));
 	}
@@ -38,7 +54,20 @@ public class PoissonDiscProviderUniversal {
 	}
 	
 	public void unloadWorld(World world) {
-		providerMap.remove(world.provider.getDimension());
+		IPoissonDiscProvider provider = providerMap.remove(world.provider.getDimension());
+		if(provider instanceof PoissonDiscProvider) {
+			((PoissonDiscProvider) provider).close();
+		}
+	}
+	
+	/**
+	 * Starts solving the discs of a chunk on a worker thread if the provider supports it.
+	 */
+	public void precompute(World world, int chunkX, int chunkZ) {
+		IPoissonDiscProvider provider = getProvider(world);
+		if(provider instanceof PoissonDiscProvider) {
+			((PoissonDiscProvider) provider).precompute(chunkX, chunkZ);
+		}
 	}
 	
 	public void setChunkPoissonData(World world, int chunkX, int chunkY, int chunkZ, byte[] circleData) {
@@ -49,6 +78,10 @@ public class PoissonDiscProviderUniversal {
 		return getProvider(world).getChunkPoissonData(chunkX, chunkY, chunkZ);
 	}
 	
+	public void chunkPoissonDataSaved(World world, int chunkX, int chunkY, int chunkZ) {
+		getProvider(world).chunkPoissonDataSaved(chunkX, chunkY, chunkZ);
+	}
+	
 	public void unloadChunkPoissonData(World world, int chunkX, int chunkY, int chunkZ) {
 		getProvider(world).unloadChunkPoissonData(chunkX, chunkY, chunkZ);
 	}
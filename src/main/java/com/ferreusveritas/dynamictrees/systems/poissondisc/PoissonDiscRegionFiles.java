@@ -0,0 +1,169 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Keeps the disc data of chunks in memory mapped files alongside the region files.  Each file covers a 32x32 chunk
+ * region just like the region files do.  Every chunk gets a flags byte followed by it's 16 bytes of disc data so a
+ * region file is always exactly 17KiB.  Files are only created when something is written to them.
+ *
+ * Not thread safe.  {@link PoissonDiscStore} does the locking.
+ */
+public class PoissonDiscRegionFiles {
+
+	public static final byte PRESENT = 1;
+	public static final byte GENERATED = 2;
+
+	private static final int ENTRYSIZE = 17;
+	private static final int FILESIZE = 32 * 32 * ENTRYSIZE;
+	private static final int MAXOPEN = 8;
+
+	private final File directory;
+	private final Map<Long, Region> regions = new LinkedHashMap<Long, Region>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Region> eldest) {
+			if(size() > MAXOPEN) {
+				eldest.getValue().close();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	public PoissonDiscRegionFiles(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param chunkX The x coordinate of the chunk
+	 * @param chunkZ The z coordinate of the chunk
+	 * @param data Receives the 16 bytes of disc data if the chunk is present
+	 * @return The flags of the chunk.  0 if the chunk isn't in a region file
+	 */
+	public int read(int chunkX, int chunkZ, byte[] data) {
+		Region region = getRegion(chunkX, chunkZ, false);
+		if(region == null) {
+			return 0;
+		}
+
+		int pos = entryPos(chunkX, chunkZ);
+		int flags = region.buffer.get(pos);
+		if((flags & PRESENT) != 0) {
+			for(int i = 0; i < 16; i++) {
+				data[i] = region.buffer.get(pos + 1 + i);
+			}
+		}
+		return flags;
+	}
+
+	public void write(int chunkX, int chunkZ, byte[] data, boolean generated) {
+		Region region = getRegion(chunkX, chunkZ, true);
+		if(region != null) {
+			int pos = entryPos(chunkX, chunkZ);
+			for(int i = 0; i < 16; i++) {
+				region.buffer.put(pos + 1 + i, data[i]);
+			}
+			region.buffer.put(pos, (byte) (PRESENT | (generated ? GENERATED : 0)));//Flags last so a torn write looks absent
+		}
+	}
+
+	/** Writes everything to disk and closes all of the files */
+	public void close() {
+		for(Iterator<Region> iter = regions.values().iterator(); iter.hasNext();) {
+			iter.next().close();
+			iter.remove();
+		}
+	}
+
+	private static int entryPos(int chunkX, int chunkZ) {
+		return (((chunkZ & 31) << 5) | (chunkX & 31)) * ENTRYSIZE;
+	}
+
+	private Region getRegion(int chunkX, int chunkZ, boolean create) {
+		int regionX = chunkX >> 5;
+		int regionZ = chunkZ >> 5;
+		Long key = ChunkPos.asLong(regionX, regionZ);
+
+		Region region = regions.get(key);
+		if(region == null) {
+			File file = new File(directory, "r." + regionX + "." + regionZ + ".dtd");
+			if(!create && !file.exists()) {
+				return null;
+			}
+			try {
+				region = new Region(file);
+			} catch (IOException e) {
+				LogManager.getLogger().warn("Could not open Poisson disc region file {}: {}", file, e.getMessage());
+				return null;
+			}
+			regions.put(key, region);
+		}
+
+		return region;
+	}
+
+	private static class Region {
+		private final RandomAccessFile file;
+		private final MappedByteBuffer buffer;
+
+		public Region(File path) throws IOException {
+			path.getParentFile().mkdirs();
+			file = new RandomAccessFile(path, "rw");
+			if(file.length() != FILESIZE) {
+				file.setLength(FILESIZE);//New or damaged.  Anything missing reads as absent
+			}
+			buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILESIZE);
+		}
+
+		public void close() {
+			try {
+				buffer.force();
+				unmap(buffer);
+				file.close();
+			} catch (IOException e) {
+				LogManager.getLogger().warn("Could not close Poisson disc region file: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Releases the mapping of a buffer right away instead of whenever it's garbage collected.  Until then the file
+	 * stays open, which on Windows also means it can't be deleted or replaced.  The buffer mustn't be used after this.
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			try {
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);//Java 9 and up
+			} catch (NoSuchMethodException e) {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");//Java 8
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if(cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			LogManager.getLogger().debug("Could not unmap Poisson disc region file: {}", e.toString());//It'll be unmapped when it's collected
+		}
+	}
+
+}
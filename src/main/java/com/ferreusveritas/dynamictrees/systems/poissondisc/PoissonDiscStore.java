@@ -0,0 +1,339 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import java.util.Arrays;
+
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Holds the 16 bytes of disc data for each chunk of a dimension.
+ *
+ * The data lives in an open addressing hash table keyed on {@link ChunkPos#asLong} with the 16 bytes packed into two
+ * longs so nothing is allocated per chunk.  The entries are also threaded on a least recently used list.  With region
+ * files attached, once there are more than maxEntries chunks the least recently used entries are dropped, but only if
+ * their data is safely stored there.  Without region files there's nowhere else for the data to be.  The chunk's NBT
+ * is rewritten from memory on every save so the data of a chunk has to stay until the chunk unloads.  The cap doesn't
+ * apply at all then and nothing is ever looked at for eviction.
+ *
+ * With {@link PoissonDiscRegionFiles} attached everything is written through to the region files and the data of
+ * chunks that aren't in memory is looked up there.  That way the discs of unloaded neighbor chunks are known when
+ * solving a new chunk.
+ *
+ * All methods are synchronized since discs are solved on worker threads.
+ */
+public class PoissonDiscStore {
+
+	private static final byte GENERATED = 1;//The discs have been solved for the chunk
+	private static final byte UNSAVED = 2;//The data isn't in a region file so it mustn't be dropped
+	private static final int NONE = -1;
+	private static final int EVICTSCAN = 64;//The most entries looked at for one that can be dropped
+
+	private final int maxEntries;
+	private PoissonDiscRegionFiles regionFiles;
+
+	private long[] keys;
+	private long[] tiles;//Two longs per entry hold the 16 tile bytes
+	private byte[] flags;
+	private boolean[] used;
+	private int[] prev;//Toward the most recently used entry
+	private int[] next;//Toward the least recently used entry
+	private int head = NONE;
+	private int tail = NONE;
+	private int size;
+
+	private final byte[] scratch = new byte[16];
+
+	public PoissonDiscStore(int maxEntries) {
+		this.maxEntries = maxEntries;
+		allocate(capacityFor(maxEntries));
+	}
+
+	public synchronized void setRegionFiles(PoissonDiscRegionFiles regionFiles) {
+		this.regionFiles = regionFiles;
+	}
+
+	private static int capacityFor(int entries) {
+		int capacity = 16;
+		while(capacity * 3 / 4 < entries) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		tiles = new long[capacity * 2];
+		flags = new byte[capacity];
+		used = new boolean[capacity];
+		prev = new int[capacity];
+		next = new int[capacity];
+		head = tail = NONE;
+		size = 0;
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private int find(long key) {
+		int mask = keys.length - 1;
+		for(int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+			if(keys[i] == key) {
+				return i;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return true if the discs of the chunk have been solved
+	 */
+	public synchronized boolean isGenerated(int chunkX, int chunkZ) {
+		int i = lookup(chunkX, chunkZ);
+		return i != NONE && (flags[i] & GENERATED) != 0;
+	}
+
+	/**
+	 * Gets the disc data of a chunk.
+	 *
+	 * @param chunkX The x coordinate of the chunk
+	 * @param chunkZ The z coordinate of the chunk
+	 * @param data Receives the 16 bytes of disc data.  All zeros if the chunk has no data
+	 * @return true if the chunk has data
+	 */
+	public synchronized boolean get(int chunkX, int chunkZ, byte[] data) {
+		int i = lookup(chunkX, chunkZ);
+		if(i == NONE) {
+			Arrays.fill(data, 0, 16, (byte) 0);
+			return false;
+		}
+		unpack(i, data);
+		return true;
+	}
+
+	/**
+	 * Sets the disc data of a chunk.
+	 *
+	 * @param chunkX The x coordinate of the chunk
+	 * @param chunkZ The z coordinate of the chunk
+	 * @param data The 16 bytes of disc data
+	 * @param generated true if the discs of the chunk are completely solved
+	 */
+	public synchronized void put(int chunkX, int chunkZ, byte[] data, boolean generated) {
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		int i = find(key);
+		if(i == NONE) {
+			i = insert(key);
+		} else {
+			touch(i);
+		}
+
+		pack(i, data);
+
+		if(regionFiles != null) {
+			regionFiles.write(chunkX, chunkZ, data, generated);//This is also how data from chunk NBT gets migrated
+		}
+		flags[i] = (byte) ((generated ? GENERATED : 0) | (regionFiles != null ? 0 : UNSAVED));
+
+		evict();
+	}
+
+	/**
+	 * Marks the data of a chunk as saved with it's chunk.  Only the region files make it safe to drop.  A chunk that's
+	 * still loaded is saved again from memory so it's data stays until {@link #remove(int, int)}.
+	 */
+	public synchronized void markSaved(int chunkX, int chunkZ) {
+		int i = find(ChunkPos.asLong(chunkX, chunkZ));
+		if(i != NONE && regionFiles != null) {
+			flags[i] &= ~UNSAVED;
+		}
+	}
+
+	/** Drops the data of a chunk from memory.  Anything in a region file stays there */
+	public synchronized void remove(int chunkX, int chunkZ) {
+		int i = find(ChunkPos.asLong(chunkX, chunkZ));
+		if(i != NONE) {
+			delete(i);
+		}
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	/** Closes the region files */
+	public synchronized void close() {
+		if(regionFiles != null) {
+			regionFiles.close();
+			regionFiles = null;
+		}
+	}
+
+	/** Finds the entry for a chunk, loading it from the region files if need be */
+	private int lookup(int chunkX, int chunkZ) {
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		int i = find(key);
+		if(i != NONE) {
+			touch(i);
+			return i;
+		}
+
+		if(regionFiles != null) {
+			int regionFlags = regionFiles.read(chunkX, chunkZ, scratch);
+			if((regionFlags & PoissonDiscRegionFiles.PRESENT) != 0) {
+				i = insert(key);
+				pack(i, scratch);
+				flags[i] = (regionFlags & PoissonDiscRegionFiles.GENERATED) != 0 ? GENERATED : 0;
+				evict();
+				return find(key);//Evicting may have moved it
+			}
+		}
+
+		return NONE;
+	}
+
+	private void evict() {
+		if(regionFiles == null) {
+			return;//Nothing can be dropped so there's no cap
+		}
+
+		int i = tail;
+		for(int scanned = 0; size > maxEntries && i != NONE && scanned < EVICTSCAN; scanned++) {
+			int older = prev[i];
+			if((flags[i] & UNSAVED) == 0) {
+				long olderKey = older != NONE ? keys[older] : 0;
+				delete(i);
+				older = older != NONE ? find(olderKey) : NONE;//Deleting shifts entries around
+			}
+			i = older;
+		}
+	}
+
+	private void pack(int i, byte[] data) {
+		long lo = 0, hi = 0;
+		for(int b = 0; b < 8; b++) {
+			lo |= (data[b] & 0xFFL) << (b * 8);
+			hi |= (data[b + 8] & 0xFFL) << (b * 8);
+		}
+		tiles[i * 2] = lo;
+		tiles[i * 2 + 1] = hi;
+	}
+
+	private void unpack(int i, byte[] data) {
+		long lo = tiles[i * 2];
+		long hi = tiles[i * 2 + 1];
+		for(int b = 0; b < 8; b++) {
+			data[b] = (byte) (lo >>> (b * 8));
+			data[b + 8] = (byte) (hi >>> (b * 8));
+		}
+	}
+
+	private int insert(long key) {
+		if(size + 1 > keys.length * 3 / 4) {
+			grow();
+		}
+
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while(used[i]) {
+			i = (i + 1) & mask;
+		}
+
+		used[i] = true;
+		keys[i] = key;
+		size++;
+		linkHead(i);
+		return i;
+	}
+
+	/** Removes an entry.  Later entries of the probe sequence are shifted back so lookups never hit a hole */
+	private void delete(int i) {
+		unlink(i);
+		used[i] = false;
+		size--;
+
+		int mask = keys.length - 1;
+		int gap = i;
+		for(int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+			int home = hash(keys[j]) & mask;
+			if(((j - home) & mask) >= ((j - gap) & mask)) {//The entry at j may be moved back to the gap
+				move(j, gap);
+				gap = j;
+			}
+		}
+	}
+
+	private void move(int from, int to) {
+		keys[to] = keys[from];
+		tiles[to * 2] = tiles[from * 2];
+		tiles[to * 2 + 1] = tiles[from * 2 + 1];
+		flags[to] = flags[from];
+		used[to] = true;
+		used[from] = false;
+
+		prev[to] = prev[from];
+		next[to] = next[from];
+		if(prev[to] != NONE) {
+			next[prev[to]] = to;
+		} else {
+			head = to;
+		}
+		if(next[to] != NONE) {
+			prev[next[to]] = to;
+		} else {
+			tail = to;
+		}
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		long[] oldTiles = tiles;
+		byte[] oldFlags = flags;
+		int[] oldPrev = prev;
+		int oldTail = tail;
+
+		allocate(keys.length * 2);
+
+		for(int o = oldTail; o != NONE; o = oldPrev[o]) {//Oldest first so the order of use is kept
+			int i = insert(oldKeys[o]);
+			tiles[i * 2] = oldTiles[o * 2];
+			tiles[i * 2 + 1] = oldTiles[o * 2 + 1];
+			flags[i] = oldFlags[o];
+		}
+	}
+
+	private void touch(int i) {
+		if(head != i) {
+			unlink(i);
+			linkHead(i);
+		}
+	}
+
+	private void linkHead(int i) {
+		prev[i] = NONE;
+		next[i] = head;
+		if(head != NONE) {
+			prev[head] = i;
+		}
+		head = i;
+		if(tail == NONE) {
+			tail = i;
+		}
+	}
+
+	private void unlink(int i) {
+		if(prev[i] != NONE) {
+			next[prev[i]] = next[i];
+		} else {
+			head = next[i];
+		}
+		if(next[i] != NONE) {
+			prev[next[i]] = prev[i];
+		} else {
+			tail = prev[i];
+		}
+	}
+
+}
@@ -0,0 +1,231 @@
+package com.ferreusveritas.dynamictrees.systems.substances;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.ferreusveritas.dynamictrees.ModConstants;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.substances.ISubstanceEffect;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.storage.MapStorage;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.util.Constants.NBT;
+import net.minecraftforge.common.util.INBTSerializable;
+
+/**
+ * Runs lingering substance effects(like the potion of burgeoning) on the trees they were applied to.
+ *
+ * Each world has a table of the effects keyed by the position of the rooty block.  The table is ticked from the world
+ * tick so an effect costs nothing more than an entry in a map.  On the server the table is kept in the world's saved
+ * data so effects carry on after a restart.  On the client the table only runs the particles.
+ *
+ * Only effects with a factory registered through {@link #registerEffect(String, Supplier)} can be saved.  Effects that
+ * implement {@link INBTSerializable} have their data saved with them.
+ */
+public class SubstanceEffectTicker {
+
+	public static final String DATANAME = ModConstants.MODID + "_substances";
+
+	private static final Map<World, SubstanceEffectTicker> tickers = new ConcurrentHashMap<>();
+	private static final Map<String, Supplier<? extends ISubstanceEffect>> factories = new HashMap<>();
+
+	static {
+		registerEffect("growth", SubstanceGrowth::new);
+	}
+
+	private final Map<BlockPos, List<Lingering>> effects = new LinkedHashMap<>();
+	private SavedData savedData;
+
+	private static class Lingering {
+		private final ISubstanceEffect effect;
+		private int ticks;
+
+		private Lingering(ISubstanceEffect effect, int ticks) {
+			this.effect = effect;
+			this.ticks = ticks;
+		}
+	}
+
+	/**
+	 * Registers a way to make a lingering effect when it's loaded from a save.
+	 *
+	 * @param name The name of the effect as returned by {@link ISubstanceEffect#getName()}
+	 * @param factory Makes a new effect that's then given its saved data if it has any
+	 */
+	public static void registerEffect(String name, Supplier<? extends ISubstanceEffect> factory) {
+		factories.put(name, factory);
+	}
+
+	public static SubstanceEffectTicker get(World world) {
+		return tickers.computeIfAbsent(world, SubstanceEffectTicker::create);
+	}
+
+	private static SubstanceEffectTicker create(World world) {
+		if(world.isRemote) {
+			return new SubstanceEffectTicker();
+		}
+
+		MapStorage storage = world.getPerWorldStorage();
+		SavedData data = (SavedData) storage.getOrLoadData(SavedData.class, DATANAME);
+		if(data == null) {
+			data = new SavedData(DATANAME);
+			storage.setData(DATANAME, data);
+		}
+		return data.ticker;
+	}
+
+	/** Picks up the effects saved with a server world.  Nothing is made for a world that never had a substance applied */
+	public static void loadWorld(World world) {
+		if(!world.isRemote) {
+			SavedData data = (SavedData) world.getPerWorldStorage().getOrLoadData(SavedData.class, DATANAME);
+			if(data != null) {
+				tickers.put(world, data.ticker);
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		tickers.remove(world);
+	}
+
+	/** @return The ticker for the world if one has been made */
+	public static SubstanceEffectTicker getExisting(World world) {
+		return tickers.get(world);
+	}
+
+	/**
+	 * Starts a lingering effect on the tree.  An effect with the same name already on the tree is replaced.
+	 */
+	public void add(BlockPos rootPos, ISubstanceEffect effect) {
+		add(rootPos.toImmutable(), effect, 0);
+		markDirty();
+	}
+
+	private void add(BlockPos rootPos, ISubstanceEffect effect, int ticks) {
+		List<Lingering> list = effects.computeIfAbsent(rootPos, p -> new ArrayList<>(1));
+		list.removeIf(l -> l.effect.getName().equals(effect.getName()));
+		list.add(new Lingering(effect, ticks));
+	}
+
+	/**
+	 * Updates every effect in the world.  Effects on unloaded trees wait for them to load.  Should be called once per
+	 * world tick.
+	 */
+	public void tick(World world) {
+		if(effects.isEmpty()) {
+			return;
+		}
+
+		Iterator<Map.Entry<BlockPos, List<Lingering>>> iter = effects.entrySet().iterator();
+		while(iter.hasNext()) {
+			Map.Entry<BlockPos, List<Lingering>> entry = iter.next();
+			BlockPos rootPos = entry.getKey();
+			if(!world.isBlockLoaded(rootPos)) {
+				continue;
+			}
+
+			List<Lingering> list = entry.getValue();
+			boolean changed;
+			if(TreeHelper.isRooty(world.getBlockState(rootPos))) {
+				changed = list.removeIf(l -> !l.effect.update(world, rootPos, ++l.ticks));
+			} else {
+				list.clear();//The tree is gone
+				changed = true;
+			}
+
+			if(list.isEmpty()) {
+				iter.remove();
+			}
+			if(changed) {//Only saved when an effect comes or goes.  The tick counts are saved along with it
+				markDirty();
+			}
+		}
+	}
+
+	private void markDirty() {
+		if(savedData != null) {
+			savedData.markDirty();
+		}
+	}
+
+	/** @return The number of trees with lingering effects */
+	public int getTreeCount() {
+		return effects.size();
+	}
+
+
+	///////////////////////////////////////////
+	// Saving
+	///////////////////////////////////////////
+
+	@SuppressWarnings("unchecked")
+	private void readFromNBT(NBTTagCompound tag) {
+		effects.clear();
+		NBTTagList list = tag.getTagList("effects", NBT.TAG_COMPOUND);
+		for(int i = 0; i < list.tagCount(); i++) {
+			NBTTagCompound entry = list.getCompoundTagAt(i);
+			Supplier<? extends ISubstanceEffect> factory = factories.get(entry.getString("name"));
+			if(factory != null) {
+				ISubstanceEffect effect = factory.get();
+				if(effect instanceof INBTSerializable && entry.hasKey("data")) {
+					((INBTSerializable<NBTTagCompound>) effect).deserializeNBT(entry.getCompoundTag("data"));
+				}
+				add(BlockPos.fromLong(entry.getLong("pos")), effect, entry.getInteger("ticks"));
+			}
+		}
+	}
+
+	private NBTTagCompound writeToNBT(NBTTagCompound tag) {
+		NBTTagList list = new NBTTagList();
+		effects.forEach((rootPos, lingerings) -> {
+			for(Lingering lingering : lingerings) {
+				String name = lingering.effect.getName();
+				if(factories.containsKey(name)) {
+					NBTTagCompound entry = new NBTTagCompound();
+					entry.setLong("pos", rootPos.toLong());
+					entry.setString("name", name);
+					entry.setInteger("ticks", lingering.ticks);
+					if(lingering.effect instanceof INBTSerializable) {
+						entry.setTag("data", ((INBTSerializable<?>) lingering.effect).serializeNBT());
+					}
+					list.appendTag(entry);
+				}
+			}
+		});
+		tag.setTag("effects", list);
+		return tag;
+	}
+
+	/** Keeps a server world's effects in its saved data */
+	public static class SavedData extends WorldSavedData {
+
+		private final SubstanceEffectTicker ticker = new SubstanceEffectTicker();
+
+		public SavedData(String name) {
+			super(name);
+			ticker.savedData = this;
+		}
+
+		@Override
+		public void readFromNBT(NBTTagCompound tag) {
+			ticker.readFromNBT(tag);
+		}
+
+		@Override
+		public NBTTagCompound writeToNBT(NBTTagCompound tag) {
+			return ticker.writeToNBT(tag);
+		}
+
+	}
+
+}
@@ -3,11 +3,13 @@ package com.ferreusveritas.dynamictrees.systems.substances;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.api.substances.ISubstanceEffect;
 
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraftforge.common.util.INBTSerializable;
 
-public class SubstanceGrowth implements ISubstanceEffect{
+public class SubstanceGrowth implements ISubstanceEffect, INBTSerializable<NBTTagCompound> {
 	
 	int duration = 1600;
 	
@@ -51,4 +53,16 @@ public class SubstanceGrowth implements ISubstanceEffect{
 		return this;
 	}
 	
+	@Override
+	public NBTTagCompound serializeNBT() {
+		NBTTagCompound tag = new NBTTagCompound();
+		tag.setInteger("duration", duration);
+		return tag;
+	}
+	
+	@Override
+	public void deserializeNBT(NBTTagCompound tag) {
+		duration = tag.getInteger("duration");
+	}
+	
 }
@@ -6,6 +6,7 @@ import java.util.function.Consumer;
 import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.ModConstants;
+import com.ferreusveritas.dynamictrees.api.GrowContext;
 import com.ferreusveritas.dynamictrees.api.IFullGenFeature;
 import com.ferreusveritas.dynamictrees.api.IGenFeature;
 import com.ferreusveritas.dynamictrees.api.IPostGenFeature;
@@ -31,7 +32,6 @@ import com.ferreusveritas.dynamictrees.blocks.BlockFruit;
 import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
 import com.ferreusveritas.dynamictrees.blocks.LeavesProperties;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
-import com.ferreusveritas.dynamictrees.entities.EntityLingeringEffector;
 import com.ferreusveritas.dynamictrees.entities.animation.IAnimationHandler;
 import com.ferreusveritas.dynamictrees.event.BiomeSuitabilityEvent;
 import com.ferreusveritas.dynamictrees.growthlogic.GrowthLogicKits;
@@ -41,6 +41,7 @@ import com.ferreusveritas.dynamictrees.models.ModelEntityFallingTree;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
 import com.ferreusveritas.dynamictrees.systems.DirtHelper;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorLogs;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorSeed;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorStorage;
@@ -49,6 +50,7 @@ import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeInflator;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeShrinker;
 import com.ferreusveritas.dynamictrees.systems.substances.SubstanceFertilize;
+import com.ferreusveritas.dynamictrees.systems.substances.SubstanceEffectTicker;
 import com.ferreusveritas.dynamictrees.tileentity.TileEntitySpecies;
 import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.Deprecatron;
@@ -166,6 +168,11 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	//WorldGen
 	/** A map of environmental biome factors that change a tree's suitability */
 	protected Map <Type, Float> envFactors = new HashMap<Type, Float>();//Environmental factors
+	/** Memoized suitability of each biome id.  NaN until worked out.  Null when suitability depends on more than the biome */
+	private float[] biomeSuitabilityTable;
+	private int biomeSuitabilityTableGeneration;
+	private boolean biomeSuitabilityPositionDependent = false;
+	private static int biomeSuitabilityGeneration = 0;//Plus the config load count
 	/** A list of JoCodes for world generation. Initialized in addJoCodes()*/
 	protected JoCodeStore joCodeStore = new JoCodeStore(this);
 	
@@ -770,7 +777,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	public boolean update(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos, Random random, boolean natural) {
 		
 		//Analyze structure to gather all of the endpoints.  They will be useful for this entire update
-		List<BlockPos> ends = getEnds(world, treePos, treeBase);
+		List<BlockPos> ends = getEnds(world, rootyDirt, rootPos, treePos, treeBase);
 		
 		//This will prune rotted positions from the world and the end point list
 		if(handleRot(world, ends, rootPos, treePos, soilLife, SafeChunkBounds.ANY)) {
@@ -804,6 +811,24 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 		return endFinder.getEnds();
 	}
 	
+	/**
+	 * Gets the branch endpoints from the {@link TreeTopologyCache} if it's enabled.  Otherwise analyzes the tree.
+	 * 
+	 * @param world The world
+	 * @param rootyDirt The {@link BlockRooty} that is supporting this tree
+	 * @param rootPos The {@link BlockPos} of the {@link BlockRooty} type in the world
+	 * @param treePos The {@link BlockPos} of the base of the {@link TreeFamily} trunk
+	 * @param treeBase The tree part that is the base of the {@link TreeFamily} trunk.  Provided for easy analysis.
+	 * @return A list of all branch endpoints for the {@link TreeFamily} that is safe to modify
+	 */
+	final public List<BlockPos> getEnds(World world, BlockRooty rootyDirt, BlockPos rootPos, BlockPos treePos, ITreePart treeBase) {
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(world);
+		if(topologyCache != null) {
+			return topologyCache.getTopology(world, rootPos, rootyDirt.getTrunkDirection(world, rootPos), treeBase).getEnds();
+		}
+		return getEnds(world, treePos, treeBase);
+	}
+	
 	/**
 	 * A rot handler.
 	 * 
@@ -903,27 +928,46 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	public boolean grow(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos, Random random, boolean natural) {
 		
 		float growthRate = getGrowthRate(world, rootPos) * ModConfigs.treeGrowthMultiplier * ModConfigs.treeGrowthFolding;
+		TreeTopologyCache topologyCache = TreeTopologyCache.get(world);
+		Random signalRandom = null;//Each signal uses it's own random unless growth is deterministic
+		if(ModConfigs.deterministicGrowth) {
+			random = signalRandom = GrowSignal.obtainDeterministicRandom(world, rootPos);
+		}
 		do {
 			if(soilLife > 0){
 				if(growthRate > random.nextFloat()) {
-					GrowSignal signal = new GrowSignal(this, rootPos, getEnergy(world, rootPos));
-					boolean success = treeBase.growSignal(world, treePos, signal).success;
-					
-					int soilLongevity = getSoilLongevity(world, rootPos) * (success ? 1 : 16);//Don't deplete the soil as much if the grow operation failed
-					
-					if(soilLongevity <= 0 || random.nextInt(soilLongevity) == 0) {//1 in X(soilLongevity) chance to draw nutrients from soil
-						rootyDirt.setSoilLife(world, rootPos, soilLife - 1);//decrement soil life
+					GrowSignal signal = GrowSignal.obtain(this, rootPos, getEnergy(world, rootPos), signalRandom);
+					if(topologyCache != null) {
+						topologyCache.beginGrowth(rootPos, signal);//New branches are patched into the cached topology
 					}
-					
-					if(signal.choked) {
-						soilLife = 0;
-						rootyDirt.setSoilLife(world, rootPos, soilLife);
-						TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(signal.getSpecies())));
+					try {
+						boolean success = treeBase.growSignal(world, treePos, signal).success;
+						
+						int soilLongevity = getSoilLongevity(world, rootPos) * (success ? 1 : 16);//Don't deplete the soil as much if the grow operation failed
+						
+						if(soilLongevity <= 0 || random.nextInt(soilLongevity) == 0) {//1 in X(soilLongevity) chance to draw nutrients from soil
+							rootyDirt.setSoilLife(world, rootPos, soilLife - 1);//decrement soil life
+						}
+						
+						if(signal.choked) {
+							soilLife = 0;
+							rootyDirt.setSoilLife(world, rootPos, soilLife);
+							TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(signal.getSpecies())));
+						}
+					} finally {
+						if(topologyCache != null) {
+							topologyCache.endGrowth();
+						}
+						signal.release();
 					}
 				}
 			}
 		} while(--growthRate > 0.0f);
 		
+		if(signalRandom != null) {
+			GrowSignal.releaseDeterministicRandom(signalRandom);
+		}
+		
 		return postGrow(world, rootPos, treePos, soilLife, natural);
 	}
 	
@@ -963,7 +1007,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 			return EnumFacing.UP;
 		}
 		
-		int probMap[] = new int[6];//6 directions possible DUNSWE
+		int probMap[] = signal.getProbMap();//6 directions possible DUNSWE
 		
 		//Probability taking direction into account
 		probMap[EnumFacing.UP.ordinal()] = signal.dir != EnumFacing.DOWN ? getUpProbability(): 0;//Favor up
@@ -975,13 +1019,13 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 				BlockPos deltaPos = pos.offset(dir);
 				//Check probability for surrounding blocks
 				//Typically Air:1, Leaves:2, Branches: 2+r
-				IBlockState deltaBlockState = world.getBlockState(deltaPos);
+				IBlockState deltaBlockState = signal.getBlockState(world, deltaPos);
 				probMap[dir.getIndex()] += TreeHelper.getTreePart(deltaBlockState).probabilityForBlock(deltaBlockState, world, deltaPos, branch);
 			}
 		}
 		
 		//Do custom stuff or override probability map for various species
-		probMap = customDirectionManipulation(world, pos, branch.getRadius(world.getBlockState(pos)), signal, probMap);
+		probMap = customDirectionManipulation(world, pos, branch.getRadius(signal.getBlockState(world, pos)), signal, probMap);
 		
 		//Select a direction from the probability map
 		int choice = com.ferreusveritas.dynamictrees.util.MathHelper.selectRandomFromDistribution(signal.rand, probMap);//Select a direction from the probability map
@@ -1012,8 +1056,9 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	 */
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, int soilLife, boolean natural) {
 		if(postGrowFeatures != null) {
+			GrowContext context = new GrowContext(world, rootPos, treePos, this, soilLife, natural);//Shared so the tree is only analyzed once
 			for(IPostGrowFeature feature: postGrowFeatures) {
-				feature.postGrow(world, rootPos, treePos, this, soilLife, natural);
+				feature.postGrow(context);
 			}
 		}
 		return true;
@@ -1044,10 +1089,32 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	
 	public Species envFactor(Type type, float factor) {
 		envFactors.put(type, factor);
+		biomeSuitabilityTable = null;//Worked out again with the new factor
 		return this;
 	}
 	
 	/**
+	 * Forgets the memoized biome suitability of every species.  This happens by itself whenever the config is loaded.
+	 */
+	public static void invalidateBiomeSuitability() {
+		biomeSuitabilityGeneration++;
+	}
+	
+	/** @return The memoized suitability table or null if suitability can't be memoized for this species */
+	private float[] getBiomeSuitabilityTable() {
+		int generation = biomeSuitabilityGeneration + ModConfigs.loadCount;
+		if(biomeSuitabilityTable == null || biomeSuitabilityTableGeneration != generation) {
+			biomeSuitabilityTableGeneration = generation;
+			biomeSuitabilityPositionDependent = false;//Handlers have to declare themselves again
+			biomeSuitabilityTable = new float[256];
+			Arrays.fill(biomeSuitabilityTable, Float.NaN);
+		}
+		return biomeSuitabilityPositionDependent ? null : biomeSuitabilityTable;
+	}
+	
+	/**
+	* The suitability only depends on the biome unless a {@link BiomeSuitabilityEvent} handler says otherwise so it's
+	* worked out once for each biome id and remembered.
 	*
 	* @param world The World
 	* @param pos
@@ -1056,14 +1123,36 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	public float biomeSuitability(World world, BlockPos pos) {
 		
 		Biome biome = world.getBiome(pos);
+		int biomeId = Biome.getIdForBiome(biome);//This should only return 0 - 255 because of Minecraft limitations
+		boolean memoizable = biomeId >= 0 && biomeId < 256;
+		
+		float[] table = getBiomeSuitabilityTable();
+		if(table != null && memoizable && !Float.isNaN(table[biomeId])) {
+			return table[biomeId];
+		}
 		
 		//An override to allow other mods to change the behavior of the suitability for a world location. Such as Terrafirmacraft.
 		BiomeSuitabilityEvent suitabilityEvent = new BiomeSuitabilityEvent(world, biome, this, pos);
 		MinecraftForge.EVENT_BUS.post(suitabilityEvent);
-		if(suitabilityEvent.isHandled()) {
-			return suitabilityEvent.getSuitability();
+		float suit = suitabilityEvent.isHandled() ? suitabilityEvent.getSuitability() : biomeSuitability(biome);
+		
+		if(suitabilityEvent.isPositionDependent()) {
+			biomeSuitabilityPositionDependent = true;//Post the event every time from now on
+		} else if(table != null && memoizable) {
+			table[biomeId] = suit;
 		}
 		
+		return suit;
+	}
+	
+	/**
+	* The suitability of a biome for this species without consulting any {@link BiomeSuitabilityEvent} handlers.
+	*
+	* @param biome The biome
+	* @return range from 0.0 - 1.0.  (0.0f for completely unsuited.. 1.0f for perfectly suited)
+	*/
+	public float biomeSuitability(Biome biome) {
+		
 		float ugs = ModConfigs.scaleBiomeGrowthRate;//universal growth scalar
 		
 		if(ugs == 1.0f || isBiomePerfect(biome)) {
@@ -1223,7 +1312,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 		
 		if(effect != null) {
 			if(effect.isLingering()) {
-				world.spawnEntity(new EntityLingeringEffector(world, rootPos, effect));
+				SubstanceEffectTicker.get(world).add(rootPos, effect);
 				return true;
 			} else {
 				return effect.apply(world, rootPos);
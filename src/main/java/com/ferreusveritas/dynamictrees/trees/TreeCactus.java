@@ -111,7 +111,7 @@ public class TreeCactus extends TreeFamily {
 			
 			//Alter probability map for direction change
 			probMap[0] = 0;//Down is always disallowed for cactus
-			probMap[1] = signal.delta.getX() % 2 == 0 || signal.delta.getZ() % 2 == 0 ? getUpProbability() : 0;
+			probMap[1] = signal.getDelta().getX() % 2 == 0 || signal.getDelta().getZ() % 2 == 0 ? getUpProbability() : 0;
 			probMap[2] = probMap[3] = probMap[4] = probMap[5] = signal.isInTrunk() && (signal.energy > 1) ? 1 : 0;
 			if (signal.dir != EnumFacing.UP) probMap[signal.dir.ordinal()] = 0;//Disable the current direction, unless that direction is up
 			probMap[originDir.ordinal()] = 0;//Disable the direction we came from
@@ -0,0 +1,133 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * A set of block positions packed into longs with {@link BlockPos#toLong()}.  Positions are kept in an open addressing
+ * table so nothing is boxed and no BlockPos objects are made.  Meant for the large throw away sets of positions that
+ * come from felling a tree.
+ *
+ * Long.MIN_VALUE marks an empty slot.  It's the packed form of a position far outside the world border so it never
+ * comes up.
+ */
+public class BlockPosLongSet {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] table;
+	private int size;
+
+	public BlockPosLongSet() {
+		this(16);
+	}
+
+	/** @param expected The number of positions expected.  The table is sized so it won't need to grow */
+	public BlockPosLongSet(int expected) {
+		int capacity = 16;
+		while(capacity * 3 < expected * 4) {//Keep the load under 75%
+			capacity <<= 1;
+		}
+		table = new long[capacity];
+		Arrays.fill(table, EMPTY);
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	/** @return true if the position wasn't already in the set */
+	public boolean add(long pos) {
+		int mask = table.length - 1;
+		int i = hash(pos) & mask;
+		for(long key; (key = table[i]) != EMPTY; i = (i + 1) & mask) {
+			if(key == pos) {
+				return false;
+			}
+		}
+
+		table[i] = pos;
+		if(++size * 4 > table.length * 3) {
+			grow();
+		}
+		return true;
+	}
+
+	public boolean add(int x, int y, int z) {
+		return add(pack(x, y, z));
+	}
+
+	public boolean contains(long pos) {
+		int mask = table.length - 1;
+		for(int i = hash(pos) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+			if(table[i] == pos) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public boolean contains(int x, int y, int z) {
+		return contains(pack(x, y, z));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/** Runs the action on every packed position in no particular order.  The set mustn't be changed while this runs */
+	public void forEach(LongConsumer action) {
+		for(long key: table) {
+			if(key != EMPTY) {
+				action.accept(key);
+			}
+		}
+	}
+
+	private void grow() {
+		long[] old = table;
+		table = new long[old.length * 2];
+		Arrays.fill(table, EMPTY);
+		int mask = table.length - 1;
+		for(long key: old) {
+			if(key != EMPTY) {
+				int i = hash(key) & mask;
+				while(table[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				table[i] = key;
+			}
+		}
+	}
+
+	///////////////////////////////////////////
+	// Packing.  Same layout as BlockPos.toLong
+	///////////////////////////////////////////
+
+	private static final int XZBITS = 26;
+	private static final int YBITS = 12;
+	private static final long XZMASK = (1L << XZBITS) - 1;
+	private static final long YMASK = (1L << YBITS) - 1;
+
+	public static long pack(int x, int y, int z) {
+		return ((x & XZMASK) << (YBITS + XZBITS)) | ((y & YMASK) << XZBITS) | (z & XZMASK);
+	}
+
+	public static int getX(long packed) {
+		return (int) (packed << (64 - XZBITS - YBITS - XZBITS) >> (64 - XZBITS));
+	}
+
+	public static int getY(long packed) {
+		return (int) (packed << (64 - XZBITS - YBITS) >> (64 - YBITS));
+	}
+
+	public static int getZ(long packed) {
+		return (int) (packed << (64 - XZBITS) >> (64 - XZBITS));
+	}
+
+}
@@ -0,0 +1,342 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.ferreusveritas.dynamictrees.api.TreeRegistry;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * A compact binary form of {@link BranchDestructionData} for sending felled trees to the clients.  The NBT form is
+ * still used for saving.
+ *
+ * Relative positions are sorted and stored as varint deltas of their packed form so neighboring blocks usually take a
+ * single byte.  The first branch is always the cut block so it stays put.  Branch radii, the 6 connection radii and
+ * the leaves hydration are bit packed.  A connection radius only takes up space if it isn't 0.  Large trees are
+ * deflated if that makes them smaller.
+ *
+ * The format starts with a version byte so it can change later without clients misreading it.
+ */
+public class BranchDestructionCodec {
+
+	public static final int VERSION = 1;
+
+	private static final int DEFLATED = 1;
+	private static final int DEFLATETHRESHOLD = 512;//Below this many bytes deflating rarely pays off
+	private static final int MAXINFLATED = 1 << 22;//4MiB.  Far more than a tree can possibly need
+
+	private static final int POSMASK = 0xFFFFFF;
+	private static final int ORIGIN = (64 << 16) | (64 << 8) | 64;//Packed relative position of the cut block
+
+	/**
+	 * Writes destruction data to a buffer.  The leaves drops aren't written since the clients don't need them.
+	 *
+	 * @param buf The buffer to write to
+	 * @param data The data to encode
+	 */
+	public static void write(ByteBuf buf, BranchDestructionData data) {
+		PacketBuffer body = new PacketBuffer(Unpooled.buffer(256));
+		writeBody(body, data);
+
+		int length = body.readableBytes();
+		byte[] deflated = length >= DEFLATETHRESHOLD ? deflate(body.array(), body.arrayOffset() + body.readerIndex(), length) : null;
+
+		PacketBuffer out = new PacketBuffer(buf);
+		out.writeByte(VERSION);
+		if(deflated != null) {
+			out.writeByte(DEFLATED);
+			out.writeVarInt(length);
+			out.writeVarInt(deflated.length);
+			out.writeBytes(deflated);
+		} else {
+			out.writeByte(0);
+			out.writeBytes(body);
+		}
+		body.release();
+	}
+
+	/**
+	 * Reads destruction data from a buffer.
+	 *
+	 * @param buf The buffer to read from
+	 * @return The decoded data
+	 * @throws IllegalArgumentException if the data is from an unknown version or is malformed
+	 */
+	public static BranchDestructionData read(ByteBuf buf) {
+		PacketBuffer in = new PacketBuffer(buf);
+		int version = in.readUnsignedByte();
+		if(version != VERSION) {
+			throw new IllegalArgumentException("Unknown falling tree data version " + version);
+		}
+
+		int flags = in.readUnsignedByte();
+		if((flags & DEFLATED) != 0) {
+			int length = in.readVarInt();
+			int deflatedLength = in.readVarInt();
+			if(length < 0 || length > MAXINFLATED || deflatedLength < 0 || deflatedLength > in.readableBytes()) {
+				throw new IllegalArgumentException("Bad falling tree data lengths " + length + ", " + deflatedLength);
+			}
+			byte[] deflated = new byte[deflatedLength];
+			in.readBytes(deflated);
+			PacketBuffer body = new PacketBuffer(Unpooled.wrappedBuffer(inflate(deflated, length)));
+			return readBody(body);
+		}
+
+		return readBody(in);
+	}
+
+	private static void writeBody(PacketBuffer out, BranchDestructionData data) {
+		out.writeString(data.species.getRegistryName().toString());
+		out.writeLong(data.cutPos.toLong());
+		out.writeByte(data.cutDir.getIndex());
+		out.writeByte(data.toolDir.getIndex());
+		out.writeVarInt(data.trunkHeight);
+		out.writeFloat(data.woodVolume);
+
+		//Branches.  The cut block stays first and the rest are sorted
+		int numBranches = data.destroyedBranchesRadiusPosition.length;
+		int[] branchOrder = sortedOrder(data.destroyedBranchesRadiusPosition, numBranches > 0 && (data.destroyedBranchesRadiusPosition[0] & POSMASK) == ORIGIN ? 1 : 0);
+		out.writeVarInt(numBranches);
+		writePositions(out, data.destroyedBranchesRadiusPosition, branchOrder);
+		BitPacker bits = new BitPacker(out);
+		for(int i: branchOrder) {
+			bits.write(data.destroyedBranchesRadiusPosition[i] >>> 24, 5);
+			int connections = data.destroyedBranchesConnections[i];
+			int mask = 0;
+			for(int face = 0; face < 6; face++) {
+				if(((connections >>> (face * 5)) & 0x1F) != 0) {
+					mask |= 1 << face;
+				}
+			}
+			bits.write(mask, 6);
+			for(int face = 0; face < 6; face++) {
+				if((mask & (1 << face)) != 0) {
+					bits.write(connections >>> (face * 5), 5);
+				}
+			}
+		}
+		bits.flush();
+		writeIndices(out, data.destroyedBranchesBlockIndex, branchOrder);
+
+		//Leaves
+		int[] leavesOrder = sortedOrder(data.destroyedLeaves, 0);
+		out.writeVarInt(leavesOrder.length);
+		writePositions(out, data.destroyedLeaves, leavesOrder);
+		for(int i: leavesOrder) {
+			bits.write(data.destroyedLeaves[i] >>> 24, 4);
+		}
+		bits.flush();
+		writeIndices(out, data.destroyedLeavesBlockIndex, leavesOrder);
+
+		//End points
+		int[] endsOrder = sortedOrder(data.endPoints, 0);
+		out.writeVarInt(endsOrder.length);
+		writePositions(out, data.endPoints, endsOrder);
+	}
+
+	private static BranchDestructionData readBody(PacketBuffer in) {
+		Species species = TreeRegistry.findSpecies(new ResourceLocation(in.readString(256)));
+		BlockPos cutPos = BlockPos.fromLong(in.readLong());
+		EnumFacing cutDir = EnumFacing.getFront(in.readUnsignedByte());
+		EnumFacing toolDir = EnumFacing.getFront(in.readUnsignedByte());
+		int trunkHeight = in.readVarInt();
+		float woodVolume = in.readFloat();
+
+		int numBranches = readCount(in);
+		int[] branchRadiusPosition = readPositions(in, numBranches);
+		int[] branchConnections = new int[numBranches];
+		BitUnpacker bits = new BitUnpacker(in);
+		for(int i = 0; i < numBranches; i++) {
+			branchRadiusPosition[i] |= bits.read(5) << 24;
+			int mask = bits.read(6);
+			int connections = 0;
+			for(int face = 0; face < 6; face++) {
+				if((mask & (1 << face)) != 0) {
+					connections |= bits.read(5) << (face * 5);
+				}
+			}
+			branchConnections[i] = connections;
+		}
+		bits.reset();
+		int[] branchBlockIndex = readIndices(in, numBranches);
+
+		int numLeaves = readCount(in);
+		int[] leaves = readPositions(in, numLeaves);
+		for(int i = 0; i < numLeaves; i++) {
+			leaves[i] |= bits.read(4) << 24;
+		}
+		bits.reset();
+		int[] leavesBlockIndex = readIndices(in, numLeaves);
+
+		int[] endPoints = readPositions(in, readCount(in));
+
+		return new BranchDestructionData(species, branchRadiusPosition, branchConnections, branchBlockIndex, leaves, leavesBlockIndex, new ArrayList<>(0), endPoints, woodVolume, cutPos, cutDir, toolDir, trunkHeight);
+	}
+
+	/** @return The indices of the values sorted by their packed position.  Indices before start are left in place */
+	private static int[] sortedOrder(int[] values, int start) {
+		long[] keys = new long[values.length - start];
+		for(int i = start; i < values.length; i++) {
+			keys[i - start] = (long)(values[i] & POSMASK) << 32 | i;
+		}
+		Arrays.sort(keys);
+
+		int[] order = new int[values.length];
+		for(int i = 0; i < start; i++) {
+			order[i] = i;
+		}
+		for(int i = start; i < values.length; i++) {
+			order[i] = (int) keys[i - start];
+		}
+		return order;
+	}
+
+	private static void writePositions(PacketBuffer out, int[] values, int[] order) {
+		int last = 0;
+		for(int i: order) {
+			int pos = values[i] & POSMASK;
+			int delta = pos - last;
+			out.writeVarInt((delta << 1) ^ (delta >> 31));//Zigzag so the odd negative step is still small
+			last = pos;
+		}
+	}
+
+	private static int[] readPositions(PacketBuffer in, int count) {
+		int[] positions = new int[count];
+		int last = 0;
+		for(int i = 0; i < count; i++) {
+			int zigzag = in.readVarInt();
+			last = (last + ((zigzag >>> 1) ^ -(zigzag & 1))) & POSMASK;
+			positions[i] = last;
+		}
+		return positions;
+	}
+
+	/** Block indices are almost always 0 so a single flag covers that case */
+	private static void writeIndices(PacketBuffer out, int[] indices, int[] order) {
+		boolean allZero = true;
+		for(int index: indices) {
+			allZero &= index == 0;
+		}
+		out.writeBoolean(allZero);
+		if(!allZero) {
+			for(int i: order) {
+				out.writeVarInt(indices[i]);
+			}
+		}
+	}
+
+	private static int[] readIndices(PacketBuffer in, int count) {
+		int[] indices = new int[count];
+		if(!in.readBoolean()) {
+			for(int i = 0; i < count; i++) {
+				indices[i] = in.readVarInt();
+			}
+		}
+		return indices;
+	}
+
+	/** Every entry takes at least a byte so a count larger than what's left is garbage */
+	private static int readCount(PacketBuffer in) {
+		int count = in.readVarInt();
+		if(count < 0 || count > in.readableBytes()) {
+			throw new IllegalArgumentException("Bad falling tree data count " + count);
+		}
+		return count;
+	}
+
+	private static byte[] deflate(byte[] data, int offset, int length) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		deflater.setInput(data, offset, length);
+		deflater.finish();
+		byte[] out = new byte[length];
+		int size = deflater.deflate(out);
+		boolean smaller = deflater.finished();//Didn't fit in the original size so it's no good
+		deflater.end();
+		return smaller ? Arrays.copyOf(out, size) : null;
+	}
+
+	private static byte[] inflate(byte[] data, int length) {
+		Inflater inflater = new Inflater();
+		inflater.setInput(data);
+		byte[] out = new byte[length];
+		try {
+			int size = inflater.inflate(out);
+			if(size != length || !inflater.finished()) {
+				throw new IllegalArgumentException("Falling tree data inflated to " + size + " bytes instead of " + length);
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("Corrupt falling tree data", e);
+		} finally {
+			inflater.end();
+		}
+		return out;
+	}
+
+	private static class BitPacker {
+		private final ByteBuf out;
+		private long bits;
+		private int numBits;
+
+		public BitPacker(ByteBuf out) {
+			this.out = out;
+		}
+
+		public void write(int value, int count) {
+			bits |= (long)(value & ((1 << count) - 1)) << numBits;
+			numBits += count;
+			while(numBits >= 8) {
+				out.writeByte((int) bits);
+				bits >>>= 8;
+				numBits -= 8;
+			}
+		}
+
+		/** Writes out any leftover bits padded to a whole byte */
+		public void flush() {
+			if(numBits > 0) {
+				out.writeByte((int) bits);
+			}
+			bits = 0;
+			numBits = 0;
+		}
+	}
+
+	private static class BitUnpacker {
+		private final ByteBuf in;
+		private long bits;
+		private int numBits;
+
+		public BitUnpacker(ByteBuf in) {
+			this.in = in;
+		}
+
+		public int read(int count) {
+			while(numBits < count) {
+				bits |= (long) in.readUnsignedByte() << numBits;
+				numBits += 8;
+			}
+			int value = (int) (bits & ((1 << count) - 1));
+			bits >>>= count;
+			numBits -= count;
+			return value;
+		}
+
+		/** Skips the padding at the end of a run of bits */
+		public void reset() {
+			bits = 0;
+			numBits = 0;
+		}
+	}
+
+}
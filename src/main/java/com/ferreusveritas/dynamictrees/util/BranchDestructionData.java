@@ -73,7 +73,24 @@ public class BranchDestructionData {
 		this.cutPos = cutPos;
 		this.cutDir = cutDir;
 		this.toolDir = toolDir;
-		this.trunkHeight = trunkHeight; 
+		this.trunkHeight = trunkHeight;
+	}
+	
+	/** Takes already encoded data.  Used by the {@link BranchDestructionCodec} */
+	BranchDestructionData(Species species, int[] branchesRadiusPosition, int[] branchesConnections, int[] branchesBlockIndex, int[] leaves, int[] leavesBlockIndex, List<BlockItemStack> leavesDrops, int[] endPoints, float volume, BlockPos cutPos, EnumFacing cutDir, EnumFacing toolDir, int trunkHeight) {
+		this.species = species;
+		this.destroyedBranchesRadiusPosition = branchesRadiusPosition;
+		this.destroyedBranchesConnections = branchesConnections;
+		this.destroyedBranchesBlockIndex = branchesBlockIndex;
+		this.destroyedLeaves = leaves;
+		this.destroyedLeavesBlockIndex = leavesBlockIndex;
+		this.leavesDrops = leavesDrops;
+		this.endPoints = endPoints;
+		this.woodVolume = volume;
+		this.cutPos = cutPos;
+		this.cutDir = cutDir;
+		this.toolDir = toolDir;
+		this.trunkHeight = trunkHeight;
 	}
 	
 	public BranchDestructionData(NBTTagCompound nbt) {
@@ -358,6 +375,33 @@ public class BranchDestructionData {
 	}
 	
 	
+	/**
+	 * Get the absolute positions of a position type packed into longs like {@link BlockPos#toLong()}.  Avoids making a
+	 * BlockPos for every block of big trees.
+	 * 
+	 * @param posType
+	 * @return
+	 */
+	public long[] getPackedPositions(PosType posType) {
+		final int[] encoded;
+		switch(posType) {
+			default:
+			case BRANCHES: encoded = destroyedBranchesRadiusPosition; break;
+			case ENDPOINTS: encoded = endPoints; break;
+			case LEAVES: encoded = destroyedLeaves; break;
+		}
+		
+		long[] packed = new long[encoded.length];
+		for(int i = 0; i < encoded.length; i++) {
+			int enc = encoded[i];
+			packed[i] = BlockPosLongSet.pack(
+				cutPos.getX() + ((enc >> 16) & 0xFF) - 64,
+				cutPos.getY() + ((enc >> 8) & 0xFF) - 64,
+				cutPos.getZ() + (enc & 0xFF) - 64);
+		}
+		return packed;
+	}
+	
 	///////////////////////////////////////////////////////////
 	// Generic
 	///////////////////////////////////////////////////////////	
@@ -13,11 +13,6 @@ public class SimpleBitmap {
 	
 	public boolean touched;//useful for ruling out entire layers for the voxelmap 
 	
-	//Not thread safe at all but whatevers.
-	private static int dstOffsety;
-	private static int srcOffsety;
-	private static int runH;
-	
 	/**
 	* @param w Width not to exceed 32
 	* @param h Height 
@@ -73,6 +68,9 @@ public class SimpleBitmap {
 	
 	public boolean isColliding(int relX, int relY, SimpleBitmap src) {
 		if(prepBlit(relX, relY, src)) {
+			int dstOffsety = getDstOffsetY(relY);
+			int srcOffsety = getSrcOffsetY(relY);
+			int runH = getRunH(relY, src);
 			if(relX < 0) {
 				relX = -relX;
 				while(runH-- > 0) {
@@ -93,6 +91,9 @@ public class SimpleBitmap {
 	
 	public void BlitOr(int relX, int relY, SimpleBitmap src) {
 		if(prepBlit(relX, relY, src)) {
+			int dstOffsety = getDstOffsetY(relY);
+			int srcOffsety = getSrcOffsetY(relY);
+			int runH = getRunH(relY, src);
 			if(relX < 0) {
 				relX = -relX;
 				while(runH-- > 0) {
@@ -109,6 +110,9 @@ public class SimpleBitmap {
 	
 	public void BlitSub(int relX, int relY, SimpleBitmap src) {
 		if(prepBlit(relX, relY, src)) {
+			int dstOffsety = getDstOffsetY(relY);
+			int srcOffsety = getSrcOffsetY(relY);
+			int runH = getRunH(relY, src);
 			if(relX < 0) {
 				relX = -relX;
 				while(runH-- > 0) {
@@ -125,6 +129,9 @@ public class SimpleBitmap {
 	
 	public void BlitAnd(int relX, int relY, SimpleBitmap src) {
 		if(prepBlit(relX, relY, src)) {
+			int dstOffsety = getDstOffsetY(relY);
+			int srcOffsety = getSrcOffsetY(relY);
+			int runH = getRunH(relY, src);
 			if(relX < 0) {
 				relX = -relX;
 				while(runH-- > 0) {
@@ -140,23 +147,21 @@ public class SimpleBitmap {
 		
 	}
 	
+	//The blit offsets are kept in locals so bitmaps can be shared between threads
 	private boolean prepBlit(int relX, int relY, SimpleBitmap src) {
-
-		if(relX <= -src.w || relX >= this.w || relY <= -src.h || relY >= this.h || (!touched && !src.touched)) {
-			return false;
-		}
-		
-		if(relY >= 0) {
-			dstOffsety = relY;
-			srcOffsety = 0;
-		} else {
-			dstOffsety = 0;
-			srcOffsety = -relY;
-		}
-		
-		runH = Math.min(this.h - dstOffsety, Math.min(src.h, this.h - relY) - srcOffsety);
-		
-		return true;
+		return !(relX <= -src.w || relX >= this.w || relY <= -src.h || relY >= this.h || (!touched && !src.touched));
+	}
+	
+	private static int getDstOffsetY(int relY) {
+		return relY >= 0 ? relY : 0;
+	}
+	
+	private static int getSrcOffsetY(int relY) {
+		return relY >= 0 ? 0 : -relY;
+	}
+	
+	private int getRunH(int relY, SimpleBitmap src) {
+		return Math.min(this.h - getDstOffsetY(relY), Math.min(src.h, this.h - relY) - getSrcOffsetY(relY));
 	}
 	
 	/**
@@ -9,6 +9,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeProvider;
 import net.minecraft.world.gen.NoiseGeneratorPerlin;
 
 public class BiomeRadiusCoordinator implements IRadiusCoordinator {
@@ -20,7 +21,12 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 	protected Function<Integer, Integer> chunkMultipass;
 	
 	public BiomeRadiusCoordinator(TreeGenerator treeGenerator, World world) {
-		noiseGenerator = new NoiseGeneratorPerlin(new Random(96), 1);
+		this(treeGenerator, world, new NoiseGeneratorPerlin(new Random(96), 1));
+	}
+	
+	/** For sharing the noise generator of another coordinator.  It's read only once made so it's safe to share */
+	protected BiomeRadiusCoordinator(TreeGenerator treeGenerator, World world, NoiseGeneratorPerlin noiseGenerator) {
+		this.noiseGenerator = noiseGenerator;
 		this.world = world;
 		this.treeGenerator = treeGenerator;
 	}
@@ -34,9 +40,9 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 		}
 		
 		double scale = 128;//Effectively scales up the noisemap
-		Biome biome = world.getBiome(new BlockPos(x + 8, 0, z + 8));//Placement is offset by +8,+8
+		Biome biome = getBiome(x + 8, z + 8);//Placement is offset by +8,+8
 		double noiseDensity = (noiseGenerator.getValue(x / scale, z / scale) + 1D) / 2.0D;//Gives 0.0 to 1.0
-		double density = treeGenerator.getBiomeDataBase(world).getDensity(biome).getDensity(world.rand, noiseDensity);
+		double density = treeGenerator.getBiomeDataBase(world).getDensity(biome).getDensity(getRandom(), noiseDensity);
 		double size = ((1.0 - density) * 9);//Size is the inverse of density(Gives 0 to 9)
 		
 		//Oh Joy. Random can potentially start with the same number for each chunk. Let's just 
@@ -53,11 +59,76 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 		this.pass = pass;
 		
 		if(pass == 0) {
-			Biome biome = world.getBiome(new BlockPos((chunkX << 4) + 8, 0, (chunkZ << 4) + 8));//Aim at center of chunk
+			Biome biome = getBiome((chunkX << 4) + 8, (chunkZ << 4) + 8);//Aim at center of chunk
 			chunkMultipass = treeGenerator.getBiomeDataBase(world).getMultipass(biome);
 		}
 		
 		return chunkMultipass.apply(pass) >= 0;
 	}
 	
+	protected Biome getBiome(int x, int z) {
+		return world.getBiome(new BlockPos(x, 0, z));
+	}
+	
+	protected Random getRandom() {
+		return world.rand;
+	}
+	
+	@Override
+	public IRadiusCoordinator detach(int chunkX, int chunkZ, Random random) {
+		return new Detached(this, chunkX, chunkZ, random);
+	}
+	
+	/**
+	 * A coordinator for solving a single chunk on a worker thread.  The biomes for a 5x5 chunk area around the chunk
+	 * are copied up front so the world is never touched after construction.  Discs in the 3x3 chunk stage can probe
+	 * a little beyond it but positions outside of the copied area are clamped to it's edge.
+	 */
+	protected static class Detached extends BiomeRadiusCoordinator {
+		
+		private static final int SPAN = 5;//Chunks
+		private static final int SIZE = SPAN * 16;//Blocks
+		
+		private final Biome[] biomes = new Biome[SIZE * SIZE];
+		private final int startX;
+		private final int startZ;
+		private final Random random;
+		
+		protected Detached(BiomeRadiusCoordinator source, int chunkX, int chunkZ, Random random) {
+			super(source.treeGenerator, source.world, source.noiseGenerator);
+			this.random = random;
+			this.startX = (chunkX - SPAN / 2) << 4;
+			this.startZ = (chunkZ - SPAN / 2) << 4;
+			
+			BiomeProvider biomeProvider = world.getBiomeProvider();
+			Biome[] chunkBiomes = null;
+			for(int cz = 0; cz < SPAN; cz++) {
+				for(int cx = 0; cx < SPAN; cx++) {
+					chunkBiomes = biomeProvider.getBiomes(chunkBiomes, startX + (cx << 4), startZ + (cz << 4), 16, 16, true);//Cached by the biome provider
+					for(int z = 0; z < 16; z++) {
+						System.arraycopy(chunkBiomes, z << 4, biomes, ((cz << 4) + z) * SIZE + (cx << 4), 16);
+					}
+				}
+			}
+		}
+		
+		@Override
+		protected Biome getBiome(int x, int z) {
+			x = MathHelper.clamp(x - startX, 0, SIZE - 1);
+			z = MathHelper.clamp(z - startZ, 0, SIZE - 1);
+			return biomes[z * SIZE + x];
+		}
+		
+		@Override
+		protected Random getRandom() {
+			return random;
+		}
+		
+		@Override
+		public IRadiusCoordinator detach(int chunkX, int chunkZ, Random random) {
+			return null;
+		}
+		
+	}
+	
 }
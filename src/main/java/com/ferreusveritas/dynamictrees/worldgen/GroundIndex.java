@@ -0,0 +1,190 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * The ground of every column in the area decorated for a chunk.  Trees are placed in the "stage", which is offset 8
+ * blocks from the chunk being decorated, so the 256 columns span the corners of four chunks.
+ *
+ * Surfaces and subterranean layers are each found for all 256 columns the first time a tree asks for one.  The columns
+ * are read straight out of the chunk sections and the answers to the ground and replaceable tests are remembered for
+ * each block state.  The results match {@link WorldGeneratorTrees.GroundFinder} as long as those tests only depend on
+ * the state, which is true of every vanilla block.
+ *
+ * Trees generated earlier in the same chunk can change the world under the index.  The finder checks a column's index
+ * entry is still good before it's used.
+ */
+public class GroundIndex {
+
+	public static final int NONE = -1;
+	private static final int NETHERTOP = 128;
+
+	private final World world;
+	private final int minX;
+	private final int minZ;
+
+	private int[] surfaceHeightMap;//The height map value each surface was found from
+	private int[] surfaces;
+	private int[] layerOffsets;//Where each column's layers start in layerHeights.  The last entry is the end
+	private int[] layerHeights;
+
+	private final Map<IBlockState, Boolean> groundStates = new IdentityHashMap<>();
+	private final Map<IBlockState, Boolean> replaceableStates = new IdentityHashMap<>();
+	private final MutableBlockPos testPos = new MutableBlockPos();
+
+	public GroundIndex(World world, int chunkX, int chunkZ) {
+		this.world = world;
+		this.minX = (chunkX << 4) + 8;
+		this.minZ = (chunkZ << 4) + 8;
+	}
+
+	public boolean contains(int x, int z) {
+		return x >= minX && x < minX + 16 && z >= minZ && z < minZ + 16;
+	}
+
+	private int column(int x, int z) {
+		return (z - minZ) << 4 | (x - minX);
+	}
+
+	/** @return The y of the overworld ground in the column or {@link #NONE} */
+	public int getSurface(int x, int z) {
+		if(surfaces == null) {
+			buildSurfaces();
+		}
+		return surfaces[column(x, z)];
+	}
+
+	/** @return The value of the height map when the column's surface was found */
+	public int getSurfaceHeightMap(int x, int z) {
+		if(surfaces == null) {
+			buildSurfaces();
+		}
+		return surfaceHeightMap[column(x, z)];
+	}
+
+	/** @return A new array of the subterranean layer heights in the column from the bottom up */
+	public int[] getLayers(int x, int z) {
+		if(layerOffsets == null) {
+			buildLayers();
+		}
+		int col = column(x, z);
+		return Arrays.copyOfRange(layerHeights, layerOffsets[col], layerOffsets[col + 1]);
+	}
+
+
+	///////////////////////////////////////////
+	// Building
+	///////////////////////////////////////////
+
+	private static IBlockState getState(ExtendedBlockStorage[] sections, int x, int y, int z) {
+		if(y >= 0 && y < 256) {
+			ExtendedBlockStorage section = sections[y >> 4];
+			if(section != Chunk.NULL_BLOCK_STORAGE) {
+				return section.get(x & 15, y & 15, z & 15);
+			}
+		}
+		return Blocks.AIR.getDefaultState();
+	}
+
+	private void buildSurfaces() {
+		surfaces = new int[256];
+		surfaceHeightMap = new int[256];
+
+		for(int col = 0; col < 256; col++) {
+			int x = minX + (col & 15);
+			int z = minZ + (col >> 4);
+			ExtendedBlockStorage[] sections = world.getChunkFromChunkCoords(x >> 4, z >> 4).getBlockStorageArray();
+			int height = world.getHeight(x, z);
+			surfaceHeightMap[col] = height;
+			surfaces[col] = NONE;
+
+			for(int y = height + 2; y >= 0 && y <= 255; y--) {//Starts over the height map just like the finder
+				IBlockState state = getState(sections, x, y, z);
+				if(state.getBlock() != Blocks.AIR && isGround(state, x, y, z)) {
+					surfaces[col] = y;
+					break;
+				}
+			}
+		}
+	}
+
+	private boolean isGround(IBlockState state, int x, int y, int z) {
+		Material material = state.getMaterial();
+		if(material == Material.GROUND || material == Material.WATER) {
+			return true;
+		}
+		Boolean ground = groundStates.get(state);
+		if(ground == null) {
+			Block block = state.getBlock();
+			testPos.setPos(x, y, z);
+			ground = material.blocksMovement() && !block.isLeaves(state, world, testPos) && !block.isFoliage(world, testPos);
+			groundStates.put(state, ground);
+		}
+		return ground;
+	}
+
+	private void buildLayers() {
+		layerOffsets = new int[257];
+		layerHeights = new int[256 * 4];
+		boolean[] replaceable = new boolean[NETHERTOP + 1];
+		int count = 0;
+
+		for(int col = 0; col < 256; col++) {
+			int x = minX + (col & 15);
+			int z = minZ + (col >> 4);
+			ExtendedBlockStorage[] sections = world.getChunkFromChunkCoords(x >> 4, z >> 4).getBlockStorageArray();
+			for(int y = 0; y <= NETHERTOP; y++) {
+				replaceable[y] = isReplaceable(getState(sections, x, y, z), x, y, z);
+			}
+
+			//The same walk as the finder so the same layers come out
+			int start = count;
+			int y = 0;
+			while(inRange(y)) {
+				while(!isReplaceable(replaceable, y) && inRange(y)) { y += 4; }
+				while(isReplaceable(replaceable, y) && inRange(y)) { y--; }
+				if(count == layerHeights.length) {
+					layerHeights = Arrays.copyOf(layerHeights, count * 2);
+				}
+				layerHeights[count++] = y;
+				y += 16;
+				while(isReplaceable(replaceable, y) && inRange(y)) { y += 4; }
+			}
+
+			if(count > start) {//Discard the last result as it's just the top of the biome(bedrock for nether)
+				count--;
+			}
+			layerOffsets[col + 1] = count;
+		}
+	}
+
+	private static boolean inRange(int y) {
+		return y >= 0 && y <= NETHERTOP;
+	}
+
+	private static boolean isReplaceable(boolean[] replaceable, int y) {
+		return !inRange(y) || replaceable[y];//Out of range is never looked at past the range test
+	}
+
+	private boolean isReplaceable(IBlockState state, int x, int y, int z) {
+		Boolean result = replaceableStates.get(state);
+		if(result == null) {
+			testPos.setPos(x, y, z);
+			result = state.getBlock().isReplaceable(world, testPos) && !state.getMaterial().isLiquid();
+			replaceableStates.put(state, result);
+		}
+		return result;
+	}
+
+}
@@ -9,6 +9,7 @@ import java.util.Set;
 
 import com.ferreusveritas.dynamictrees.DynamicTrees;
 import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
@@ -55,6 +56,9 @@ public class JoCode {
 	
 	public static boolean secondChanceRegen = false;//Ensures second chance regen doesn't recurse too far
 	
+	/** Staged trees are committed without notifying neighbors or observers like the rest of worldgen */
+	static protected final int STAGEDFLAGS = 2 | 16;
+	
 	public byte[] instructions = new byte[0];
 	protected boolean careful = false;//If true the code checks for surrounding branches while building to avoid making frankentrees.  Safer but slower.
 	
@@ -174,82 +178,101 @@ public class JoCode {
 			IBlockState initialDirtState = world.getBlockState(rootPos);//Save the initial state of the dirt in case this fails
 			species.placeRootyDirtBlock(world, rootPos, 0);//Set to unfertilized rooty dirt
 			
-			//Make the tree branch structure
-			generateFork(world, species, 0, rootPos, false);
-			
-			// Establish a position for the bottom block of the trunk
-			BlockPos treePos = rootPos.up();
+			//Worldgen trees are built in a stage and only the finished blocks are put in the world
+			TreeStagingWorld stage = worldGen && !careful && ModConfigs.worldGenStaging ? TreeStagingWorld.begin(world) : null;
+			World genWorld = stage != null ? stage : world;
 			
-			// Fix branch thicknesses and map out leaf locations
-			IBlockState treeState = world.getBlockState(treePos);
-			BlockBranch branch = TreeHelper.getBranch(treeState);
-			if(branch != null) {// If a branch exists then the growth was successful
-				ILeavesProperties leavesProperties = species.getLeavesProperties();
-				SimpleVoxmap leafMap = new SimpleVoxmap(radius * 2 + 1, species.getWorldGenLeafMapHeight(), radius * 2 + 1).setMapAndCenter(treePos, new BlockPos(radius, 0, radius));
-				INodeInspector inflator = species.getNodeInflator(leafMap);// This is responsible for thickening the branches
-				NodeFindEnds endFinder = new NodeFindEnds();// This is responsible for gathering a list of branch end points
-				MapSignal signal = new MapSignal(inflator, endFinder);// The inflator signal will "paint" a temporary voxmap of all of the leaves and branches.
-				signal.destroyLoopedNodes = careful;// During worldgen we will not destroy looped nodes
-				branch.analyse(treeState, world, treePos, EnumFacing.DOWN, signal);
-				if(signal.found || signal.overflow) {// Something went terribly wrong.
-					DynamicTrees.log.debug("Non-viable branch network detected during world generation @ " + treePos);
-					DynamicTrees.log.debug("Species: " + species);
-					DynamicTrees.log.debug("Radius: " + radius);
-					DynamicTrees.log.debug("JoCode: " + this);
-					
-					// Completely blow away any improperly defined network nodes
-					cleanupFrankentree(world, treePos, treeState, endFinder.getEnds(), safeBounds);
-					// Now that everything is clear we may as well regenerate the tree that screwed everything up.
-					if(!secondChanceRegen) {
-						secondChanceRegen = true;
-						generate(world, species, rootPosIn, biome, facing, radius, safeBounds);
-					}
-					secondChanceRegen = false;
-					return;
-				}
-				List<BlockPos> endPoints = endFinder.getEnds();
+			try {
+				//Make the tree branch structure
+				generateFork(genWorld, species, 0, rootPos, false);
 				
-				smother(leafMap, leavesProperties);//Use the voxmap to precompute leaf smothering so we don't have to age it as many times.
+				// Establish a position for the bottom block of the trunk
+				BlockPos treePos = rootPos.up();
 				
-				//Place Growing Leaves Blocks from voxmap
-				for(Cell cell: leafMap.getAllNonZeroCells((byte) 0x0F)) {//Iterate through all of the cells that are leaves(not air or branches)
-					MutableBlockPos cellPos = cell.getPos();
-					if(safeBounds.inBounds(cellPos, false)) {
-						IBlockState testBlockState = world.getBlockState(cellPos);
-						Block testBlock = testBlockState.getBlock();
-						if(testBlock.isReplaceable(world, cellPos)) {
-							world.setBlockState(cellPos, leavesProperties.getDynamicLeavesState(cell.getValue()), worldGen ? 16 : 2);//Flag 16 to prevent observers from causing cascading lag
+				// Fix branch thicknesses and map out leaf locations
+				IBlockState treeState = genWorld.getBlockState(treePos);
+				BlockBranch branch = TreeHelper.getBranch(treeState);
+				if(branch != null) {// If a branch exists then the growth was successful
+					ILeavesProperties leavesProperties = species.getLeavesProperties();
+					SimpleVoxmap leafMap = new SimpleVoxmap(radius * 2 + 1, species.getWorldGenLeafMapHeight(), radius * 2 + 1).setMapAndCenter(treePos, new BlockPos(radius, 0, radius));
+					INodeInspector inflator = species.getNodeInflator(leafMap);// This is responsible for thickening the branches
+					NodeFindEnds endFinder = new NodeFindEnds();// This is responsible for gathering a list of branch end points
+					MapSignal signal = new MapSignal(inflator, endFinder);// The inflator signal will "paint" a temporary voxmap of all of the leaves and branches.
+					signal.destroyLoopedNodes = careful;// During worldgen we will not destroy looped nodes
+					branch.analyse(treeState, genWorld, treePos, EnumFacing.DOWN, signal);
+					if(signal.found || signal.overflow) {// Something went terribly wrong.
+						DynamicTrees.log.debug("Non-viable branch network detected during world generation @ " + treePos);
+						DynamicTrees.log.debug("Species: " + species);
+						DynamicTrees.log.debug("Radius: " + radius);
+						DynamicTrees.log.debug("JoCode: " + this);
+						
+						// Completely blow away any improperly defined network nodes
+						cleanupFrankentree(genWorld, treePos, treeState, endFinder.getEnds(), safeBounds);
+						if(stage != null) {
+							stage.commit(STAGEDFLAGS);//The tree that fused with this one may have been partly in the world already
+							stage = null;
+						}
+						// Now that everything is clear we may as well regenerate the tree that screwed everything up.
+						if(!secondChanceRegen) {
+							secondChanceRegen = true;
+							generate(world, species, rootPosIn, biome, facing, radius, safeBounds);
 						}
-					} else {
-						leafMap.setVoxel(cellPos, (byte) 0);
+						secondChanceRegen = false;
+						return;
 					}
-				}
-				
-				//Shrink the leafMap down by the safeBounds object so that the aging process won't look for neighbors outside of the bounds.
-				for(Cell cell: leafMap.getAllNonZeroCells()) {
-					MutableBlockPos cellPos = cell.getPos();
-					if(!safeBounds.inBounds(cellPos, true)) {
-						leafMap.setVoxel(cellPos, (byte) 0);
+					List<BlockPos> endPoints = endFinder.getEnds();
+					
+					smother(leafMap, leavesProperties);//Use the voxmap to precompute leaf smothering so we don't have to age it as many times.
+					
+					//Place Growing Leaves Blocks from voxmap
+					for(Cell cell: leafMap.getAllNonZeroCells((byte) 0x0F)) {//Iterate through all of the cells that are leaves(not air or branches)
+						MutableBlockPos cellPos = cell.getPos();
+						if(safeBounds.inBounds(cellPos, false)) {
+							IBlockState testBlockState = genWorld.getBlockState(cellPos);
+							Block testBlock = testBlockState.getBlock();
+							if(testBlock.isReplaceable(genWorld, cellPos)) {
+								genWorld.setBlockState(cellPos, leavesProperties.getDynamicLeavesState(cell.getValue()), worldGen ? 16 : 2);//Flag 16 to prevent observers from causing cascading lag
+							}
+						} else {
+							leafMap.setVoxel(cellPos, (byte) 0);
+						}
+					}
+					
+					//Shrink the leafMap down by the safeBounds object so that the aging process won't look for neighbors outside of the bounds.
+					for(Cell cell: leafMap.getAllNonZeroCells()) {
+						MutableBlockPos cellPos = cell.getPos();
+						if(!safeBounds.inBounds(cellPos, true)) {
+							leafMap.setVoxel(cellPos, (byte) 0);
+						}
+					}
+					
+					//Age volume for 3 cycles using a leafmap
+					TreeHelper.ageVolume(genWorld, leafMap, species.getWorldGenAgeIterations(), safeBounds, world.rand);//The real world's random so staging doesn't change the tree
+					
+					if(stage != null) {
+						stage.commit(STAGEDFLAGS);//Everything from here on may involve other mods so it happens in the real world
+						stage = null;
 					}
+					
+					//Rot the unsupported branches
+					if(species.handleRot(world, endPoints, rootPos, treePos, 0, safeBounds)) {
+						return;//The entire tree rotted away before it had a chance
+					}
+					
+					//Allow for special decorations by the tree itself
+					species.postGeneration(world, rootPos, biome, radius, endPoints, safeBounds, initialDirtState);
+					MinecraftForge.EVENT_BUS.post(new SpeciesPostGenerationEvent(world, species, rootPos, endPoints, safeBounds, initialDirtState));
+					
+					//Add snow to parts of the tree in chunks where snow was already placed
+					addSnow(leafMap, world, rootPos, biome);
+					
+				} else { //The growth failed.. turn the soil back to what it was
+					world.setBlockState(rootPos, initialDirtState, careful ? 3 : 2);
 				}
-				
-				//Age volume for 3 cycles using a leafmap
-				TreeHelper.ageVolume(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
-				
-				//Rot the unsupported branches
-				if(species.handleRot(world, endPoints, rootPos, treePos, 0, safeBounds)) {
-					return;//The entire tree rotted away before it had a chance
+			} finally {
+				if(stage != null) {
+					stage.discard();//Didn't make it to a commit so throw away whatever was staged
 				}
-				
-				//Allow for special decorations by the tree itself
-				species.postGeneration(world, rootPos, biome, radius, endPoints, safeBounds, initialDirtState);
-				MinecraftForge.EVENT_BUS.post(new SpeciesPostGenerationEvent(world, species, rootPos, endPoints, safeBounds, initialDirtState));
-				
-				//Add snow to parts of the tree in chunks where snow was already placed
-				addSnow(leafMap, world, rootPos, biome);
-				
-			} else { //The growth failed.. turn the soil back to what it was
-				world.setBlockState(rootPos, initialDirtState, careful ? 3 : 2);
 			}
 		}
 	}
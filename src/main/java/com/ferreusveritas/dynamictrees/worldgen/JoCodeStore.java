@@ -7,6 +7,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -80,5 +81,10 @@ public class JoCodeStore {
 		
 		return null;
 	}
+	
+	/** @return The codes stored for the given radius.  Don't modify the list */
+	public List<JoCode> getCodesForRadius(int radius) {
+		return getListForRadius(radius);
+	}
 
 }
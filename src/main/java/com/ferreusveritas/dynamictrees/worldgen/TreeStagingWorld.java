@@ -0,0 +1,378 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.IChunkProvider;
+
+/**
+ * A stand in for the real world that a worldgen tree is built in before it's put in the real world.  Branches,
+ * inflation, leaves and aging all write the same blocks over and over and read them back even more.  Here those reads
+ * and writes only touch a buffer.  The first time a block is read or written it's copied from the real world so the
+ * buffer holds a snapshot of the area the tree grows in.  When the tree is done only the blocks that ended up different
+ * are written to the real world, one chunk section at a time.
+ *
+ * Blocks are kept as char indices into a palette shared by every tree built in the same world.  Sections are recycled
+ * between trees.
+ *
+ * Everything besides blocks(biomes, tile entities, the chunk provider) comes from the real world.  The real world
+ * can't see the staged blocks so sky light in the columns the tree is staged in is worked out from the staged blocks
+ * instead.  See {@link #getColumnSkyLight}.  No neighbor updates happen in the stage and entities can't be spawned in
+ * it.  Those happen for real when the blocks are committed.
+ */
+public class TreeStagingWorld extends World {
+
+	private static final Map<Integer, TreeStagingWorld> stagingWorlds = new HashMap<>();
+
+	private final World real;
+	private final List<IBlockState> palette = new ArrayList<>();
+	private final Map<IBlockState, Integer> paletteIndex = new IdentityHashMap<>();
+	private final List<Section> sections = new ArrayList<>();
+	private final List<Section> spareSections = new ArrayList<>();
+	private Section lastSection;
+	private boolean inUse;
+
+	//Totals since the stage was made for measuring the cost of tree generation
+	private long worldReads;
+	private long stagedReads;
+	private long stagedWrites;
+	private long commitWrites;
+
+	private static class Section {
+		private int minX, minY, minZ;
+		private final char[] original = new char[4096];//Palette index + 1 of the state in the real world.  0 if not copied yet
+		private final char[] current = new char[4096];//Palette index + 1 of the staged state.  0 if not written
+		private final byte[] tops = new byte[256];//The highest y in the section written to in each column.  -1 if none
+		private boolean changed;
+
+		private Section() {
+			Arrays.fill(tops, (byte) -1);
+		}
+
+		private boolean contains(int x, int y, int z) {
+			return (x & ~15) == minX && (y & ~15) == minY && (z & ~15) == minZ;
+		}
+	}
+
+	private TreeStagingWorld(World real) {
+		super(null, real.getWorldInfo(), real.provider, real.profiler, false);
+		this.real = real;
+		this.chunkProvider = real.getChunkProvider();
+	}
+
+	/**
+	 * @param world The real world
+	 * @return A stage for the world that's ready for a tree or null if a tree is already being staged there
+	 */
+	public static TreeStagingWorld begin(World world) {
+		int dim = world.provider.getDimension();
+		TreeStagingWorld stage = stagingWorlds.get(dim);
+		if(stage == null || stage.real != world) {
+			stage = new TreeStagingWorld(world);
+			stagingWorlds.put(dim, stage);
+		}
+		if(stage.inUse) {
+			return null;//A tree generated while another is staged goes straight into the world
+		}
+		stage.inUse = true;
+		return stage;
+	}
+
+	public static void unloadWorld(World world) {
+		stagingWorlds.remove(world.provider.getDimension());
+	}
+
+	public static TreeStagingWorld get(World world) {
+		TreeStagingWorld stage = stagingWorlds.get(world.provider.getDimension());
+		return stage != null && stage.real == world ? stage : null;
+	}
+
+	public World getRealWorld() {
+		return real;
+	}
+
+	/**
+	 * Writes every staged block that differs from the real world to the real world one section at a time.  The stage
+	 * is emptied afterwards.
+	 *
+	 * @param flags The flags for {@link World#setBlockState(BlockPos, IBlockState, int)}
+	 */
+	public void commit(int flags) {
+		sections.sort(Comparator.<Section>comparingInt(s -> s.minX).thenComparingInt(s -> s.minZ).thenComparingInt(s -> s.minY));//Sections of a chunk together
+		for(Section section: sections) {
+			if(section.changed) {
+				for(int i = 0; i < 4096; i++) {
+					int c = section.current[i];
+					if(c != 0 && c != section.original[i]) {
+						real.setBlockState(new BlockPos(section.minX | (i & 15), section.minY | (i >> 8), section.minZ | ((i >> 4) & 15)), palette.get(c - 1), flags);
+						commitWrites++;
+					}
+				}
+			}
+		}
+		discard();
+	}
+
+	/** Throws away everything staged without touching the real world */
+	public void discard() {
+		for(Section section: sections) {
+			Arrays.fill(section.original, (char) 0);
+			Arrays.fill(section.current, (char) 0);
+			Arrays.fill(section.tops, (byte) -1);
+			section.changed = false;
+			spareSections.add(section);
+		}
+		sections.clear();
+		lastSection = null;
+		inUse = false;
+	}
+
+	/** @return The number of blocks copied in from the real world */
+	public long getWorldReads() {
+		return worldReads;
+	}
+
+	/** @return The number of block reads answered by the stage */
+	public long getStagedReads() {
+		return stagedReads;
+	}
+
+	/** @return The number of block writes made to the stage */
+	public long getStagedWrites() {
+		return stagedWrites;
+	}
+
+	/** @return The number of blocks written to the real world */
+	public long getCommitWrites() {
+		return commitWrites;
+	}
+
+
+	///////////////////////////////////////////
+	// Buffer
+	///////////////////////////////////////////
+
+	private Section getSection(BlockPos pos) {
+		int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+		Section section = lastSection;
+		if(section != null && section.contains(x, y, z)) {
+			return section;
+		}
+
+		for(Section s: sections) {//Only a handful of sections are ever touched by one tree
+			if(s.contains(x, y, z)) {
+				return lastSection = s;
+			}
+		}
+
+		section = spareSections.isEmpty() ? new Section() : spareSections.remove(spareSections.size() - 1);
+		section.minX = x & ~15;
+		section.minY = y & ~15;
+		section.minZ = z & ~15;
+		sections.add(section);
+		return lastSection = section;
+	}
+
+	/** @return The highest y in the column that has been written to the stage or -1 if none has */
+	private int getStagedTop(int x, int z) {
+		int top = -1;
+		int col = (z & 15) << 4 | (x & 15);
+		for(Section section: sections) {
+			if(section.minX == (x & ~15) && section.minZ == (z & ~15) && section.tops[col] >= 0) {
+				top = Math.max(top, section.minY | section.tops[col]);
+			}
+		}
+		return top;
+	}
+
+	/** @return The highest block in the column with staged blocks that may block the sky */
+	private int getColumnTop(int x, int stagedTop, int z) {
+		return Math.max(stagedTop, real.getHeight(x, z) - 1);
+	}
+
+	/**
+	 * Sky light straight down a column the way a chunk lights it when it's generated.  The light drops by the opacity
+	 * of each block it passes through and by at least one for every block below the first one that blocks light.
+	 * Light spreading in from the side isn't counted.
+	 *
+	 * @param world The world
+	 * @param pos The position to get the light of
+	 * @param top The y of the highest block in the column that could block light
+	 * @return The sky light at the position
+	 */
+	public static int getColumnSkyLight(World world, BlockPos pos, int top) {
+		int light = 15;
+		for(MutableBlockPos iPos = new MutableBlockPos(pos.getX(), top, pos.getZ()); iPos.getY() >= pos.getY() && light > 0; iPos.move(EnumFacing.DOWN)) {
+			int opacity = world.getBlockState(iPos).getLightOpacity();
+			light -= opacity == 0 && light != 15 ? 1 : opacity;
+		}
+		return Math.max(light, 0);
+	}
+
+	private static int index(BlockPos pos) {
+		return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+	}
+
+	private char getId(IBlockState state) {
+		Integer id = paletteIndex.get(state);
+		if(id == null) {
+			palette.add(state);
+			id = palette.size();
+			paletteIndex.put(state, id);
+		}
+		return (char) id.intValue();
+	}
+
+	private char copyFromReal(Section section, int i, BlockPos pos) {
+		worldReads++;
+		return section.original[i] = getId(real.getBlockState(pos));
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		if(isOutsideBuildHeight(pos)) {
+			return real.getBlockState(pos);
+		}
+
+		Section section = getSection(pos);
+		int i = index(pos);
+		int c = section.current[i];
+		if(c == 0) {
+			c = section.original[i];
+			if(c == 0) {
+				return palette.get(copyFromReal(section, i, pos) - 1);
+			}
+		}
+		stagedReads++;
+		return palette.get(c - 1);
+	}
+
+	@Override
+	public boolean setBlockState(BlockPos pos, IBlockState newState, int flags) {
+		if(isOutsideBuildHeight(pos)) {
+			return false;
+		}
+
+		Section section = getSection(pos);
+		int i = index(pos);
+		if(section.original[i] == 0) {
+			copyFromReal(section, i, pos);//So the commit can tell if the block really changed
+		}
+		section.current[i] = getId(newState);
+		section.changed = true;
+		int top = pos.getY() & 15;
+		if(top > section.tops[i & 255]) {
+			section.tops[i & 255] = (byte) top;
+		}
+		stagedWrites++;
+		return true;
+	}
+
+
+	///////////////////////////////////////////
+	// Everything else comes from the real world
+	///////////////////////////////////////////
+
+	@Override
+	protected IChunkProvider createChunkProvider() {
+		return real.getChunkProvider();
+	}
+
+	@Override
+	protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+		return real.isBlockLoaded(new BlockPos(x << 4, 0, z << 4), allowEmpty);
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos) {
+		return real.getBiome(pos);
+	}
+
+	@Override
+	@Nullable
+	public TileEntity getTileEntity(BlockPos pos) {
+		return real.getTileEntity(pos);
+	}
+
+	@Override
+	public int getLightFor(EnumSkyBlock type, BlockPos pos) {
+		int stagedTop = type == EnumSkyBlock.SKY ? getStagedTop(pos.getX(), pos.getZ()) : -1;
+		if(pos.getY() > stagedTop) {
+			return real.getLightFor(type, pos);//Nothing staged above so the real world's light is right
+		}
+		return getColumnSkyLight(this, pos, getColumnTop(pos.getX(), stagedTop, pos.getZ()));
+	}
+
+	@Override
+	public int getLight(BlockPos pos) {
+		return real.getLight(pos);
+	}
+
+	@Override
+	public int getLightFromNeighbors(BlockPos pos) {
+		return real.getLightFromNeighbors(pos);
+	}
+
+	/** {@link World#canBlockSeeSky} comes through here so it sees the staged blocks too */
+	@Override
+	public boolean canSeeSky(BlockPos pos) {
+		int stagedTop = getStagedTop(pos.getX(), pos.getZ());
+		if(pos.getY() > stagedTop) {
+			return real.canSeeSky(pos);//Nothing staged above
+		}
+		for(MutableBlockPos iPos = new MutableBlockPos(pos.getX(), getColumnTop(pos.getX(), stagedTop, pos.getZ()), pos.getZ()); iPos.getY() >= pos.getY(); iPos.move(EnumFacing.DOWN)) {
+			if(getBlockState(iPos).getLightOpacity() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default) {
+		return real.isBlockLoaded(pos) ? getBlockState(pos).isSideSolid(this, pos, side) : _default;
+	}
+
+	@Override
+	public void scheduleUpdate(BlockPos pos, Block block, int delay) {
+		real.scheduleUpdate(pos, block, delay);
+	}
+
+	@Override
+	public void scheduleBlockUpdate(BlockPos pos, Block block, int delay, int priority) {
+		real.scheduleBlockUpdate(pos, block, delay, priority);
+	}
+
+	@Override
+	public void notifyNeighborsOfStateChange(BlockPos pos, Block blockType, boolean updateObservers) {}
+
+	@Override
+	public boolean spawnEntity(Entity entity) {
+		return false;
+	}
+
+	@Override
+	@Nullable
+	public MinecraftServer getMinecraftServer() {
+		return real.getMinecraftServer();
+	}
+
+}
@@ -3,6 +3,7 @@ package com.ferreusveritas.dynamictrees.worldgen;
 import java.util.*;
 import java.util.function.Predicate;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.worldgen.IGroundFinder;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
 import com.ferreusveritas.dynamictrees.worldgen.BiomeDataBase.BiomeEntry;
@@ -106,6 +107,58 @@ public class WorldGeneratorTrees implements IWorldGenerator {
 		}
 
 	}
+	
+	/**
+	 * Finds the ground from a {@link GroundIndex} of the chunk being decorated.  A column is scanned the old way if
+	 * it's outside the index or the world has changed there since the index was made.
+	 */
+	public static class IndexedGroundFinder extends GroundFinder {
+		
+		private final GroundIndex index;
+		
+		public IndexedGroundFinder(World world, int chunkX, int chunkZ) {
+			index = new GroundIndex(world, chunkX, chunkZ);
+		}
+		
+		@Override
+		protected ArrayList<Integer> findSubterraneanLayerHeights(World world, BlockPos start) {
+			if(index.contains(start.getX(), start.getZ())) {
+				int[] heights = index.getLayers(start.getX(), start.getZ());
+				if(areLayersValid(world, start, heights)) {
+					ArrayList<Integer> layers = new ArrayList<>(heights.length);
+					for(int y: heights) {
+						layers.add(y);
+					}
+					return layers;
+				}
+			}
+			return super.findSubterraneanLayerHeights(world, start);
+		}
+		
+		/** Each layer is a solid block with a replaceable block on top.  A tree on another layer would cover it */
+		private boolean areLayersValid(World world, BlockPos start, int[] heights) {
+			MutableBlockPos pos = new MutableBlockPos();
+			for(int y: heights) {
+				pos.setPos(start.getX(), y, start.getZ());
+				if(inNetherRange(pos) && (isReplaceable(world, pos) || !isReplaceable(world, pos.move(EnumFacing.UP)))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		protected BlockPos findOverworldGround(World world, BlockPos start) {
+			int x = start.getX();
+			int z = start.getZ();
+			if(index.contains(x, z) && index.getSurfaceHeightMap(x, z) == world.getHeight(x, z)) {//A tree placed in the column raises the height map
+				int y = index.getSurface(x, z);
+				return y == GroundIndex.NONE ? BlockPos.ORIGIN : new BlockPos(x, y, z);
+			}
+			return super.findOverworldGround(world, start);
+		}
+		
+	}
 
 	private static Map<Integer, Boolean> flatWorldsDecoration = new HashMap<>();
 	
@@ -140,7 +193,8 @@ public class WorldGeneratorTrees implements IWorldGenerator {
 		BiomeDataBase dbase = treeGenerator.getBiomeDataBase(world);
 		if(dbase != TreeGenerator.DIMENSIONBLACKLISTED) {
 			SafeChunkBounds safeBounds = new SafeChunkBounds(world, new ChunkPos(chunkX, chunkZ));//Area that is safe to place blocks during worldgen
-			treeGenerator.getCircleProvider().getPoissonDiscs(world, chunkX, 0, chunkZ).forEach(c -> treeGenerator.makeTree(world, dbase, c, new GroundFinder(), safeBounds));
+			IGroundFinder groundFinder = ModConfigs.worldGenGroundIndex ? new IndexedGroundFinder(world, chunkX, chunkZ) : new GroundFinder();//One index for every pass over the chunk
+			treeGenerator.getCircleProvider().getPoissonDiscs(world, chunkX, 0, chunkZ).forEach(c -> treeGenerator.makeTree(world, dbase, c, groundFinder, safeBounds));
 		}
 	}
 